@@ -20,7 +20,7 @@ if [ ! -s "$ARGS_FILE" ]; then
 fi
 
 echo "Compiling sources..."
-javac -d "$OUT_DIR" @"$ARGS_FILE"
+javac --add-modules jdk.incubator.vector -d "$OUT_DIR" @"$ARGS_FILE"
 
 rm "$ARGS_FILE"
 
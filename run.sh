@@ -1,3 +1,3 @@
 #!/usr/bin/env bash
 
-(cd out && java chessViewController.Launcher)
+(cd out && java --add-modules jdk.incubator.vector chessViewController.Launcher)
@@ -0,0 +1,50 @@
+package botIntelligence;
+
+import chessEngine.Evaluator;
+import chessEngine.NnueEvaluator;
+import chessEngine.NnueNetwork;
+import chessModel.ErrorLogger;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * {@link SearchMove} with the network evaluation. The network is read from
+ * the file named by the chess.nnue.file system property (default
+ * "chess.nnue"), falling back to the material-only starting network.
+ */
+public class NnueMove extends SearchMove {
+
+    private static volatile NnueNetwork network;
+
+    @Override
+    protected Evaluator createEvaluator() {
+        return new NnueEvaluator(network());
+    }
+
+    private static NnueNetwork network() {
+        NnueNetwork net = network;
+        if (net == null) {
+            synchronized (NnueMove.class) {
+                net = network;
+                if (net == null) {
+                    net = load(Paths.get(System.getProperty("chess.nnue.file", "chess.nnue")));
+                    network = net;
+                }
+            }
+        }
+        return net;
+    }
+
+    private static NnueNetwork load(Path file) {
+        if (Files.isRegularFile(file)) {
+            try {
+                return NnueNetwork.load(file);
+            } catch (IOException e) {
+                ErrorLogger.logException(e);
+            }
+        }
+        return NnueNetwork.material(256);
+    }
+}
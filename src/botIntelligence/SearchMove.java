@@ -0,0 +1,61 @@
+package botIntelligence;
+
+import chessEngine.Evaluator;
+import chessEngine.MaterialEvaluator;
+import chessEngine.Search;
+import chessEngine.SearchReporter;
+import chessModel.Board;
+import chessModel.Player;
+import chessModel.SearchLimits;
+import chessModel.StopToken;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+public class SearchMove extends Player implements SearchReporter {
+
+    private int maxDepth = 4;
+    private volatile Consumer<Search.Result> searchListener;
+
+    @Override
+    public Integer[] getMove(Board board) {
+        return requestMove(board, SearchLimits.none(), new StopToken(), move -> {
+        }).join();
+    }
+
+    /**
+     * Searches a copy of the board until the limits run out or the game
+     * stops the search, reporting each completed iteration's best move.
+     * Without a depth limit the search goes no deeper than the max depth.
+     */
+    @Override
+    public CompletableFuture<Integer[]> requestMove(Board board, SearchLimits limits, StopToken stop,
+            Consumer<Integer[]> bestMoveSoFar) {
+        Board root = board.cloneBoard();
+        SearchLimits capped = limits.getDepth() == Integer.MAX_VALUE ? limits.withDepth(maxDepth) : limits;
+        Consumer<Search.Result> listener = searchListener;
+        return CompletableFuture.supplyAsync(() -> new Search(createEvaluator())
+                .search(root, side, capped, stop, result -> {
+                    bestMoveSoFar.accept(result.getMove());
+                    if (listener != null) {
+                        listener.accept(result);
+                    }
+                })
+                .getMove(), moveExecutor());
+    }
+
+    /**
+     * The evaluation for one search; called once per move.
+     */
+    protected Evaluator createEvaluator() {
+        return new MaterialEvaluator();
+    }
+
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    @Override
+    public void setSearchListener(Consumer<Search.Result> listener) {
+        this.searchListener = listener;
+    }
+}
@@ -0,0 +1,91 @@
+package chessArchive;
+
+import chessModel.Board;
+import chessModel.ChessLog;
+import chessModel.FenCodec;
+
+/**
+ * A game as stored in a {@link GameArchiveWriter} archive: header fields plus
+ * the moves packed the same way {@link ChessLog} packs them.
+ */
+public class ArchivedGame {
+
+    private final String white;
+    private final String black;
+    private final String result;
+    private final String startFEN;
+    private final long startTime;
+    private final int[] moves;
+
+    /**
+     * @param startFEN the position the game started from, or null for the
+     * standard start position
+     */
+    public ArchivedGame(String white, String black, String result, String startFEN, long startTime, int[] moves) {
+        this.white = white;
+        this.black = black;
+        this.result = result;
+        this.startFEN = startFEN;
+        this.startTime = startTime;
+        this.moves = moves;
+    }
+
+    /**
+     * Captures the header and move list of a board.
+     */
+    public static ArchivedGame of(Board board) {
+        ChessLog log = board.getChessLog();
+        int[] moves = log.getMoves();
+        String fen = log.getStartFEN();
+        if (FenCodec.START_POSITION.equals(fen)) {
+            fen = null;
+        }
+        return new ArchivedGame(log.getWhiteName(), log.getBlackName(), log.getResult(), fen, log.getStartTime(), moves);
+    }
+
+    /**
+     * Replays the game into a new board.
+     *
+     * @throws IllegalStateException if a stored move is not legal
+     */
+    public Board toBoard() {
+        Board board = startFEN == null ? new Board() : new Board(startFEN);
+        board.setPlayerNames(white, black);
+        ChessLog log = board.getChessLog();
+        log.setResult(result);
+        log.setStartTime(startTime);
+        for (int i = 0; i < moves.length; i++) {
+            int m = moves[i];
+            char promotion = ChessLog.promotion(m);
+            if (!board.move(ChessLog.fromX(m), ChessLog.fromY(m), ChessLog.toX(m), ChessLog.toY(m),
+                    promotion == 0 ? 'q' : promotion)) {
+                throw new IllegalStateException("Illegal move at ply " + (i + 1) + " of archived game");
+            }
+        }
+        return board;
+    }
+
+    public String getWhite() {
+        return white;
+    }
+
+    public String getBlack() {
+        return black;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public String getStartFEN() {
+        return startFEN;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public int[] getMoves() {
+        return moves;
+    }
+}
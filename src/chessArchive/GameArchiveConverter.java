@@ -0,0 +1,94 @@
+package chessArchive;
+
+import chessModel.Board;
+import chessModel.ChessLogger;
+import chessModel.ErrorLogger;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Converts between PGN files and binary game archives.
+ */
+public class GameArchiveConverter {
+
+    private static final int SYNC_EVERY = 10_000;
+
+    /**
+     * Appends every complete game of a PGN file to an archive. With more than
+     * one thread the games are stored in the order the workers finish them.
+     *
+     * @return number of games written
+     */
+    public static long pgnToArchive(Path pgn, Path archive, int threads) throws IOException {
+        try (GameArchiveWriter writer = new GameArchiveWriter(archive, SYNC_EVERY)) {
+            long before = writer.getGameCount();
+            try {
+                new PgnImporter(threads).importFile(pgn, new PgnImporter.GameVisitor() {
+                    @Override
+                    public void onGame(PgnGame game, Board board, boolean complete) {
+                        if (!complete) {
+                            return;
+                        }
+                        try {
+                            writer.append(board);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return writer.getGameCount() - before;
+        }
+    }
+
+    /**
+     * Writes every game of an archive to a PGN file.
+     *
+     * @return number of games written
+     */
+    public static long archiveToPgn(Path archive, Path pgn) throws IOException {
+        try (GameArchiveReader reader = new GameArchiveReader(archive);
+                Writer out = new BufferedWriter(Files.newBufferedWriter(pgn, StandardCharsets.UTF_8), 1 << 16)) {
+            for (long id = 0; id < reader.size(); id++) {
+                out.write(reader.read(id).toBoard().getPGN());
+                out.write("\n\n");
+            }
+            return reader.size();
+        }
+    }
+
+    /**
+     * Usage: GameArchiveConverter to-archive in.pgn out.bin [threads]
+     * or GameArchiveConverter to-pgn in.bin out.pgn
+     */
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Usage: GameArchiveConverter to-archive <in.pgn> <out.bin> [threads]");
+            System.err.println("       GameArchiveConverter to-pgn <in.bin> <out.pgn>");
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            long games;
+            if (args[0].equals("to-archive")) {
+                int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+                games = pgnToArchive(Paths.get(args[1]), Paths.get(args[2]), threads);
+            } else {
+                games = archiveToPgn(Paths.get(args[1]), Paths.get(args[2]));
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%d games in %.1f s (%.0f games/s)%n", games, seconds, games / Math.max(seconds, 1e-9));
+        } catch (IOException e) {
+            ErrorLogger.logException(e);
+        }
+        ChessLogger.flush();
+    }
+}
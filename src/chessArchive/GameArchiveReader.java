@@ -0,0 +1,109 @@
+package chessArchive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Random access reader for archives written by {@link GameArchiveWriter}.
+ * Both files are memory-mapped, so reading game N is one index lookup and one
+ * record decode. The data file is mapped in overlapping windows so that every
+ * record lies entirely inside the window its offset falls in, whatever the
+ * file size.
+ *
+ * The reader sees the games that were in the archive when it was opened.
+ */
+public class GameArchiveReader implements Closeable {
+
+    private static final long WINDOW = 1L << 30;
+
+    private final FileChannel data;
+    private final MappedByteBuffer[] windows;
+    private final LongBuffer index;
+    private final long gameCount;
+
+    public GameArchiveReader(Path dataFile) throws IOException {
+        data = FileChannel.open(dataFile, StandardOpenOption.READ);
+        try (FileChannel indexChannel = FileChannel.open(GameArchiveWriter.indexPath(dataFile), StandardOpenOption.READ)) {
+            gameCount = indexChannel.size() / 8;
+            index = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, gameCount * 8).asLongBuffer();
+        }
+
+        long size = data.size();
+        if (size < GameArchiveWriter.HEADER_BYTES) {
+            throw new IOException(dataFile + " is not a game archive");
+        }
+        int count = (int) ((size + WINDOW - 1) / WINDOW);
+        windows = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long start = i * WINDOW;
+            long length = Math.min(size - start, WINDOW + GameArchiveWriter.MAX_RECORD_BYTES);
+            windows[i] = data.map(FileChannel.MapMode.READ_ONLY, start, length);
+        }
+        if (windows[0].getInt(0) != GameArchiveWriter.MAGIC) {
+            throw new IOException(dataFile + " is not a game archive");
+        }
+        if (windows[0].getInt(4) != GameArchiveWriter.VERSION) {
+            throw new IOException("Unsupported game archive version " + windows[0].getInt(4));
+        }
+    }
+
+    public long size() {
+        return gameCount;
+    }
+
+    public ArchivedGame read(long id) {
+        if (id < 0 || id >= gameCount) {
+            throw new IndexOutOfBoundsException("game " + id + " of " + gameCount);
+        }
+        long offset = index.get((int) id);
+        ByteBuffer b = windows[(int) (offset / WINDOW)].duplicate();
+        b.position((int) (offset % WINDOW));
+
+        b.getInt(); // record length
+        long startTime = b.getLong();
+        String result = GameArchiveWriter.RESULTS[Math.min(b.get(), GameArchiveWriter.RESULTS.length - 1)];
+        String white = string(b);
+        String black = string(b);
+        String fen = string(b);
+        int[] moves = new int[b.getInt()];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = b.getShort() & 0xFFFF;
+        }
+        return new ArchivedGame(white, black, result, fen, startTime, moves);
+    }
+
+    /**
+     * Number of moves in a game, read without decoding the rest of the record.
+     */
+    public int getMoveCount(long id) {
+        long offset = index.get((int) id);
+        ByteBuffer b = windows[(int) (offset / WINDOW)];
+        int pos = (int) (offset % WINDOW) + 4 + 8 + 1;
+        for (int i = 0; i < 3; i++) {
+            pos += 2 + b.getShort(pos);
+        }
+        return b.getInt(pos);
+    }
+
+    private static String string(ByteBuffer b) {
+        int length = b.getShort();
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        b.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        data.close();
+    }
+}
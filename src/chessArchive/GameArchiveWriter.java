@@ -0,0 +1,200 @@
+package chessArchive;
+
+import chessModel.Board;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Appends games to a binary archive. An archive is a data file plus an index
+ * file next to it (same name with ".idx" appended) that holds one 8 byte
+ * offset per game, so game N is found with a single lookup.
+ *
+ * Data file layout, big-endian: an 8 byte header (magic, version), then per
+ * game: record length (int), start time (long), result (byte), white, black
+ * and start FEN as length-prefixed UTF-8 (short + bytes, FEN empty for the
+ * standard start), move count (int) and two bytes per move.
+ */
+public class GameArchiveWriter implements Closeable {
+
+    static final int MAGIC = 0x43484741; // "CHGA"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 8;
+    static final int MAX_RECORD_BYTES = 1 << 20;
+    static final String[] RESULTS = {"1-0", "0-1", "1/2-1/2", "*"};
+
+    private static final int BUFFER_BYTES = 1 << 18;
+
+    private final FileChannel data;
+    private final FileChannel index;
+    private final ByteBuffer dataBuffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final ByteBuffer indexBuffer = ByteBuffer.allocateDirect(BUFFER_BYTES / 8);
+    private final int syncEvery;
+    private long dataPosition;
+    private long gameCount;
+    private int unsynced;
+
+    /**
+     * Opens an archive for appending, creating it if needed.
+     *
+     * @param syncEvery force the files to disk after this many games; 0 only
+     * syncs on {@link #flush(boolean)} and {@link #close()}
+     */
+    public GameArchiveWriter(Path dataFile, int syncEvery) throws IOException {
+        this.syncEvery = syncEvery;
+        data = FileChannel.open(dataFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+        index = FileChannel.open(indexPath(dataFile), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+
+        if (data.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION);
+            header.flip();
+            data.write(header, 0);
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            data.read(header, 0);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException(dataFile + " is not a game archive");
+            }
+        }
+        // a crash can leave data past the last indexed game; it is overwritten
+        gameCount = index.size() / 8;
+        dataPosition = gameCount == 0 ? HEADER_BYTES : lastRecordEnd();
+        data.position(dataPosition);
+        index.position(gameCount * 8);
+    }
+
+    public static Path indexPath(Path dataFile) {
+        return Paths.get(dataFile.toString() + ".idx");
+    }
+
+    private long lastRecordEnd() throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(8);
+        index.read(b, (gameCount - 1) * 8);
+        long offset = b.getLong(0);
+        b.clear().limit(4);
+        data.read(b, offset);
+        return offset + 4 + b.getInt(0);
+    }
+
+    public synchronized long append(Board board) throws IOException {
+        return append(ArchivedGame.of(board));
+    }
+
+    /**
+     * @return the id of the game, usable with {@link GameArchiveReader#read(long)}
+     */
+    public synchronized long append(ArchivedGame game) throws IOException {
+        byte[] white = bytes(game.getWhite());
+        byte[] black = bytes(game.getBlack());
+        byte[] fen = bytes(game.getStartFEN());
+        int[] moves = game.getMoves();
+        int length = 8 + 1 + 2 + white.length + 2 + black.length + 2 + fen.length + 4 + moves.length * 2;
+        if (length + 4 > MAX_RECORD_BYTES) {
+            throw new IOException("Game record too large: " + length + " bytes");
+        }
+        if (dataBuffer.remaining() < length + 4) {
+            flushBuffers();
+        }
+        ByteBuffer record = length + 4 > dataBuffer.capacity() ? ByteBuffer.allocate(length + 4) : dataBuffer;
+
+        record.putInt(length);
+        record.putLong(game.getStartTime());
+        record.put(resultCode(game.getResult()));
+        record.putShort((short) white.length).put(white);
+        record.putShort((short) black.length).put(black);
+        record.putShort((short) fen.length).put(fen);
+        record.putInt(moves.length);
+        for (int m : moves) {
+            record.putShort((short) m);
+        }
+        if (record != dataBuffer) {
+            record.flip();
+            while (record.hasRemaining()) {
+                data.write(record);
+            }
+        }
+
+        if (!indexBuffer.hasRemaining()) {
+            flushBuffers();
+        }
+        indexBuffer.putLong(dataPosition);
+        dataPosition += length + 4;
+
+        long id = gameCount++;
+        if (syncEvery > 0 && ++unsynced >= syncEvery) {
+            flush(true);
+        }
+        return id;
+    }
+
+    public synchronized long getGameCount() {
+        return gameCount;
+    }
+
+    /**
+     * Writes buffered games out, and forces them to disk if sync is set.
+     */
+    public synchronized void flush(boolean sync) throws IOException {
+        flushBuffers();
+        if (sync) {
+            data.force(false);
+            index.force(false);
+            unsynced = 0;
+        }
+    }
+
+    private void flushBuffers() throws IOException {
+        // data before index, so an index entry never points past the data
+        dataBuffer.flip();
+        while (dataBuffer.hasRemaining()) {
+            data.write(dataBuffer);
+        }
+        dataBuffer.clear();
+        indexBuffer.flip();
+        while (indexBuffer.hasRemaining()) {
+            index.write(indexBuffer);
+        }
+        indexBuffer.clear();
+    }
+
+    private static byte[] bytes(String s) {
+        if (s == null) {
+            return new byte[0];
+        }
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        if (b.length <= Short.MAX_VALUE) {
+            return b;
+        }
+        // cut before a character boundary, not inside a multi-byte character
+        int length = Short.MAX_VALUE;
+        while ((b[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        return Arrays.copyOf(b, length);
+    }
+
+    private static byte resultCode(String result) {
+        for (int i = 0; i < RESULTS.length; i++) {
+            if (RESULTS[i].equals(result)) {
+                return (byte) i;
+            }
+        }
+        return (byte) (RESULTS.length - 1);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush(true);
+        } finally {
+            data.close();
+            index.close();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package chessArchive;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One game as read from a PGN file: its tag pairs and its main line in SAN.
+ * Readers reuse a single instance per thread, so copy anything that has to
+ * outlive the callback.
+ */
+public class PgnGame {
+
+    private final Map<String, String> tags = new LinkedHashMap<>();
+    private final List<String> moves = new ArrayList<>();
+    private String result = "*";
+    private long offset;
+
+    void clear(long startOffset) {
+        tags.clear();
+        moves.clear();
+        result = "*";
+        offset = startOffset;
+    }
+
+    void addTag(String name, String value) {
+        tags.put(name, value);
+    }
+
+    void addMove(String san) {
+        moves.add(san);
+    }
+
+    void setResult(String result) {
+        this.result = result;
+    }
+
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    public String getTag(String name) {
+        return tags.get(name);
+    }
+
+    public List<String> getMoves() {
+        return moves;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    /**
+     * Byte offset of the start of this game in its file.
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * The FEN the game starts from, or null for the standard start position.
+     */
+    public String getStartFEN() {
+        return tags.get("FEN");
+    }
+}
@@ -0,0 +1,218 @@
+package chessArchive;
+
+import chessModel.Board;
+import chessModel.ChessLogger;
+import chessModel.ErrorLogger;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays PGN archives into {@link Board}s. Large files are split at game
+ * boundaries and parsed by several workers, each streaming its own slice of
+ * the file.
+ */
+public class PgnImporter {
+
+    /**
+     * Receives replayed games. Called concurrently from every worker thread.
+     */
+    public interface GameVisitor {
+
+        /**
+         * Called after each move of the main line with the resulting position.
+         * The board belongs to the worker and keeps changing after this returns.
+         */
+        default void onPosition(PgnGame game, Board board, int ply, Integer[] move) {
+        }
+
+        /**
+         * Called once per game after its last move, or after the first move
+         * that could not be resolved.
+         *
+         * @param complete false if the game stopped on an illegal or unknown move
+         */
+        default void onGame(PgnGame game, Board board, boolean complete) {
+        }
+    }
+
+    public static class ImportStats {
+
+        // counted exactly, so one worker sees each multiple of PROGRESS_EVERY
+        private final AtomicLong games = new AtomicLong();
+        private final LongAdder positions = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final long startNanos = System.nanoTime();
+        private volatile long endNanos;
+
+        public long getGames() {
+            return games.get();
+        }
+
+        public long getPositions() {
+            return positions.sum();
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        public double getSeconds() {
+            long end = endNanos == 0 ? System.nanoTime() : endNanos;
+            return (end - startNanos) / 1e9;
+        }
+
+        public double getGamesPerSecond() {
+            double seconds = getSeconds();
+            return seconds > 0 ? getGames() / seconds : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d games, %d positions, %d errors in %.1f s (%.0f games/s)",
+                    getGames(), getPositions(), getErrors(), getSeconds(), getGamesPerSecond());
+        }
+    }
+
+    private static final long MIN_SLICE_BYTES = 1 << 20;
+    private static final long PROGRESS_EVERY = 10_000;
+
+    private final int threads;
+
+    public PgnImporter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public PgnImporter(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    public ImportStats importFile(Path file, GameVisitor visitor) throws IOException {
+        ImportStats stats = new ImportStats();
+        long[] bounds = splitPoints(file);
+        int slices = bounds.length - 1;
+
+        if (slices == 1) {
+            readSlice(file, bounds[0], bounds[1], visitor, stats);
+        } else {
+            ExecutorService pool = Executors.newFixedThreadPool(slices);
+            try {
+                List<Future<Void>> results = new ArrayList<>();
+                for (int i = 0; i < slices; i++) {
+                    long start = bounds[i];
+                    long end = bounds[i + 1];
+                    results.add(pool.submit(() -> {
+                        readSlice(file, start, end, visitor, stats);
+                        return null;
+                    }));
+                }
+                for (Future<Void> f : results) {
+                    f.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("PGN import interrupted", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException io) {
+                    throw io;
+                }
+                throw new IOException(e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+
+        stats.endNanos = System.nanoTime();
+        ChessLogger.log(ChessLogger.Level.INFO, "Import", file.getFileName() + ": " + stats);
+        return stats;
+    }
+
+    private long[] splitPoints(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            int slices = (int) Math.max(1, Math.min(threads, size / MIN_SLICE_BYTES));
+            long[] bounds = new long[slices + 1];
+            for (int i = 1; i < slices; i++) {
+                bounds[i] = Math.max(bounds[i - 1], PgnReader.alignToGame(ch, size * i / slices));
+            }
+            bounds[slices] = size;
+            return bounds;
+        }
+    }
+
+    private void readSlice(Path file, long start, long end, GameVisitor visitor, ImportStats stats) throws IOException {
+        if (start >= end) {
+            return;
+        }
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ch.position(start);
+            try (PgnReader reader = new PgnReader(ch, start, end)) {
+                PgnGame game = new PgnGame();
+                while (reader.nextGame(game)) {
+                    replay(game, visitor, stats);
+                }
+            }
+        }
+    }
+
+    private void replay(PgnGame game, GameVisitor visitor, ImportStats stats) {
+        Board board;
+        try {
+            board = game.getStartFEN() == null ? new Board() : new Board(game.getStartFEN());
+        } catch (IllegalArgumentException e) {
+            stats.errors.increment();
+            return;
+        }
+        board.setPlayerNames(game.getTag("White"), game.getTag("Black"));
+        board.getChessLog().setResult(game.getResult());
+        board.getChessLog().setStartTime(0);
+
+        boolean complete = true;
+        int ply = 0;
+        for (String san : game.getMoves()) {
+            Integer[] move = SanResolver.play(board, san);
+            if (move == null) {
+                complete = false;
+                stats.errors.increment();
+                break;
+            }
+            ply++;
+            stats.positions.increment();
+            visitor.onPosition(game, board, ply, move);
+        }
+        visitor.onGame(game, board, complete);
+
+        if (stats.games.incrementAndGet() % PROGRESS_EVERY == 0) {
+            ChessLogger.logGameEvent(ChessLogger.Level.INFO, () -> "Imported " + stats);
+        }
+    }
+
+    /**
+     * Usage: PgnImporter file.pgn [threads]
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: PgnImporter <file.pgn> [threads]");
+            return;
+        }
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        try {
+            ImportStats stats = new PgnImporter(threads).importFile(Paths.get(args[0]), new GameVisitor() {
+            });
+            System.out.println(stats);
+        } catch (IOException e) {
+            ErrorLogger.logException(e);
+        }
+        ChessLogger.flush();
+    }
+}
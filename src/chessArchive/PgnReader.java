@@ -0,0 +1,253 @@
+package chessArchive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Streaming PGN tokenizer. Reads through a fixed size direct buffer, so memory
+ * use does not depend on the size of the file, only on the longest game.
+ * Comments, NAGs and variations are skipped; only the main line is kept.
+ */
+public class PgnReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int EOF = -1;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final long limit;
+    private long position;
+    private byte[] token = new byte[64];
+    private int tokenLength;
+
+    public PgnReader(ReadableByteChannel channel) {
+        this(channel, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Reads games that start in [start, limit). The channel must already be
+     * positioned at start, which has to be the beginning of a game.
+     */
+    public PgnReader(ReadableByteChannel channel, long start, long limit) {
+        this.channel = channel;
+        this.position = start;
+        this.limit = limit;
+        buffer.flip();
+    }
+
+    /**
+     * Reads the next game into game.
+     *
+     * @return false once there are no more games in range
+     */
+    public boolean nextGame(PgnGame game) throws IOException {
+        int c = skipWhitespace();
+        if (c == EOF || position - 1 >= limit) {
+            return false;
+        }
+        game.clear(position - 1);
+
+        // tag pairs
+        while (c == '[') {
+            readTag(game);
+            c = skipWhitespace();
+        }
+
+        // movetext
+        int depth = 0;
+        while (c != EOF) {
+            if (c == '{') {
+                skipUntil('}');
+            } else if (c == ';') {
+                skipUntil('\n');
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth = Math.max(0, depth - 1);
+            } else if (c == '[' && depth == 0) {
+                // next game started without a result terminator
+                unread();
+                return true;
+            } else if (c == '$') {
+                readToken(c);
+            } else {
+                readToken(c);
+                if (depth == 0 && handleMoveToken(game)) {
+                    return true;
+                }
+            }
+            c = skipWhitespace();
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if the token ended the game.
+     */
+    private boolean handleMoveToken(PgnGame game) {
+        if (isResult()) {
+            game.setResult(new String(token, 0, tokenLength, StandardCharsets.US_ASCII));
+            return true;
+        }
+        int start = 0;
+        while (start < tokenLength && (Character.isDigit(token[start]) || token[start] == '.')) {
+            start++;
+        }
+        if (start < tokenLength) {
+            game.addMove(new String(token, start, tokenLength - start, StandardCharsets.US_ASCII));
+        }
+        return false;
+    }
+
+    private boolean isResult() {
+        return tokenEquals("1-0") || tokenEquals("0-1") || tokenEquals("1/2-1/2") || tokenEquals("*");
+    }
+
+    private boolean tokenEquals(String s) {
+        if (s.length() != tokenLength) {
+            return false;
+        }
+        for (int i = 0; i < tokenLength; i++) {
+            if (token[i] != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void readTag(PgnGame game) throws IOException {
+        tokenLength = 0;
+        int c = skipWhitespace();
+        while (c != EOF && c != '"' && c != ']' && !Character.isWhitespace(c)) {
+            append(c);
+            c = read();
+        }
+        String name = new String(token, 0, tokenLength, StandardCharsets.US_ASCII);
+        while (c != EOF && c != '"' && c != ']') {
+            c = read();
+        }
+        tokenLength = 0;
+        if (c == '"') {
+            c = read();
+            while (c != EOF && c != '"') {
+                if (c == '\\') {
+                    c = read();
+                }
+                append(c);
+                c = read();
+            }
+            while (c != EOF && c != ']') {
+                c = read();
+            }
+        }
+        game.addTag(name, new String(token, 0, tokenLength, StandardCharsets.UTF_8));
+    }
+
+    private void readToken(int first) throws IOException {
+        tokenLength = 0;
+        int c = first;
+        while (c != EOF && !Character.isWhitespace(c)
+                && c != '{' && c != '(' && c != ')' && c != ';' && c != '[') {
+            append(c);
+            c = read();
+        }
+        if (c != EOF && !Character.isWhitespace(c)) {
+            unread();
+        }
+    }
+
+    private void append(int c) {
+        if (tokenLength == token.length) {
+            token = Arrays.copyOf(token, token.length * 2);
+        }
+        token[tokenLength++] = (byte) c;
+    }
+
+    private void skipUntil(int end) throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c != EOF && c != end);
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c != EOF && Character.isWhitespace(c));
+        return c;
+    }
+
+    private int read() throws IOException {
+        if (!buffer.hasRemaining()) {
+            buffer.clear();
+            int n;
+            do {
+                n = channel.read(buffer);
+            } while (n == 0);
+            buffer.flip();
+            if (n < 0) {
+                return EOF;
+            }
+        }
+        position++;
+        return buffer.get() & 0xFF;
+    }
+
+    private void unread() {
+        buffer.position(buffer.position() - 1);
+        position--;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Finds the first game that starts at or after offset. A game starts on a
+     * tag line that follows movetext; landing inside a tag block skips that
+     * game, since it belongs to whoever owns the bytes before offset.
+     *
+     * @return the offset of that game, or the file size if there is none
+     */
+    public static long alignToGame(FileChannel file, long offset) throws IOException {
+        long size = file.size();
+        if (offset <= 0) {
+            return 0;
+        }
+        ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+        long pos = offset;
+        boolean atLineStart = false;
+        boolean previousLineWasTag = true;
+        while (pos < size) {
+            buf.clear();
+            int n = file.read(buf, pos);
+            if (n <= 0) {
+                break;
+            }
+            for (int i = 0; i < n; i++, pos++) {
+                byte b = buf.get(i);
+                if (b == '\n') {
+                    atLineStart = true;
+                } else if (atLineStart && b != '\r' && b != ' ' && b != '\t') {
+                    atLineStart = false;
+                    if (b == '[' && !previousLineWasTag) {
+                        return pos;
+                    }
+                    previousLineWasTag = b == '[';
+                }
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,360 @@
+package chessArchive;
+
+import chessModel.Board;
+import chessModel.ChessLog;
+import chessModel.ChessLogger;
+import chessModel.ErrorLogger;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finds the archived games that reached a position. The index maps the
+ * {@link Board#getZobristKey() Zobrist key} of every position of every game
+ * to (game id, ply) postings, where game ids are those of the
+ * {@link GameArchiveReader} the index was built from and ply 0 is the start
+ * position.
+ *
+ * An index is a directory of immutable, memory-mapped segment files. A full
+ * build writes one large segment; games added later are buffered and written
+ * as small segments by {@link #flush()}, and {@link #compact()} merges
+ * everything back into one. Lookups search every segment and never block on
+ * writers.
+ */
+public class PositionIndex implements Closeable {
+
+    public static final class Posting {
+
+        private final long gameId;
+        private final int ply;
+
+        Posting(long gameId, int ply) {
+            this.gameId = gameId;
+            this.ply = ply;
+        }
+
+        public long getGameId() {
+            return gameId;
+        }
+
+        public int getPly() {
+            return ply;
+        }
+
+        @Override
+        public String toString() {
+            return gameId + ":" + ply;
+        }
+    }
+
+    private static final String SUFFIX = ".seg";
+    private static final int PLY_BITS = 16;
+    private static final int MAX_PLY = (1 << PLY_BITS) - 1;
+    private static final int RUN_ENTRIES = 1 << 21;
+    private static final int FLUSH_ENTRIES = 1 << 18;
+    private static final int BUILD_BATCH = 256;
+
+    private final Path directory;
+    private volatile List<PositionSegment> segments;
+    private final EntryBuffer pending = new EntryBuffer(1024);
+    private int nextNumber;
+
+    /**
+     * Opens the index in a directory, creating the directory if needed.
+     * Segments left over from an interrupted compaction are removed, as are
+     * the run and temporary files of an interrupted build or write.
+     */
+    public PositionIndex(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        deleteLeftovers(directory);
+        List<PositionSegment> found = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    found.add(new PositionSegment(file, Integer.parseInt(name.substring(0, name.length() - SUFFIX.length()))));
+                } catch (NumberFormatException e) {
+                    // not one of ours
+                }
+            }
+        }
+        // newest first; a compacted segment supersedes the ones it covers
+        found.sort(Comparator.comparingInt(PositionSegment::getNumber).reversed());
+        List<PositionSegment> live = new ArrayList<>();
+        int coveredFrom = Integer.MAX_VALUE;
+        for (PositionSegment s : found) {
+            if (s.getNumber() < coveredFrom) {
+                live.add(0, s);
+                coveredFrom = s.getFirstCovered();
+            } else {
+                s.close();
+                Files.deleteIfExists(s.getFile());
+            }
+        }
+        segments = List.copyOf(live);
+        nextNumber = found.isEmpty() ? 0 : found.get(0).getNumber() + 1;
+    }
+
+    /**
+     * Indexes every game of an archive into an empty directory, replaying
+     * games on several threads. Each worker sorts and spills its positions in
+     * bounded runs, which are then merged into a single segment.
+     */
+    public static PositionIndex build(Path archive, Path directory, int threads) throws IOException {
+        PositionIndex index = new PositionIndex(directory);
+        if (!index.segments.isEmpty()) {
+            index.close();
+            throw new IOException(directory + " already holds a position index");
+        }
+        threads = Math.max(1, threads);
+        long start = System.nanoTime();
+        AtomicLong nextGame = new AtomicLong();
+        AtomicInteger nextRun = new AtomicInteger();
+        List<PositionSegment> runs = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (GameArchiveReader reader = new GameArchiveReader(archive)) {
+            List<Future<List<Path>>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(pool.submit(() -> {
+                    List<Path> written = new ArrayList<>();
+                    EntryBuffer buffer = new EntryBuffer(RUN_ENTRIES);
+                    long first;
+                    while ((first = nextGame.getAndAdd(BUILD_BATCH)) < reader.size()) {
+                        long last = Math.min(first + BUILD_BATCH, reader.size());
+                        for (long id = first; id < last; id++) {
+                            collect(id, reader.read(id), buffer);
+                            if (buffer.size >= RUN_ENTRIES) {
+                                written.add(spill(directory, "run-" + nextRun.getAndIncrement(), buffer));
+                            }
+                        }
+                    }
+                    if (buffer.size > 0) {
+                        written.add(spill(directory, "run-" + nextRun.getAndIncrement(), buffer));
+                    }
+                    return written;
+                }));
+            }
+            for (Future<List<Path>> f : results) {
+                for (Path run : f.get()) {
+                    runs.add(new PositionSegment(run, -1));
+                }
+            }
+            int number = index.nextNumber++;
+            PositionSegment.merge(runs, index.segmentPath(number), 0);
+            index.segments = List.of(new PositionSegment(index.segmentPath(number), number));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Position index build interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+            for (PositionSegment run : runs) {
+                run.close();
+            }
+            // includes runs of workers that were still spilling when another failed
+            deleteLeftovers(directory);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        ChessLogger.log(ChessLogger.Level.INFO, "Index", String.format("%s: %d positions in %.1f s",
+                archive.getFileName(), index.size(), seconds));
+        return index;
+    }
+
+    private static void deleteLeftovers(Path directory) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "{run-*,*.tmp}")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static Path spill(Path directory, String name, EntryBuffer buffer) throws IOException {
+        Path run = directory.resolve(name);
+        PositionSegment.write(run, 0, buffer.keys, buffer.values, buffer.size);
+        buffer.size = 0;
+        return run;
+    }
+
+    /**
+     * Adds the positions of one game. They become visible to lookups once
+     * enough games are buffered or on the next {@link #flush()}.
+     */
+    public synchronized void add(long gameId, ArchivedGame game) throws IOException {
+        collect(gameId, game, pending);
+        if (pending.size >= FLUSH_ENTRIES) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes buffered games out as a new segment.
+     */
+    public synchronized void flush() throws IOException {
+        if (pending.size == 0) {
+            return;
+        }
+        int number = nextNumber++;
+        PositionSegment.write(segmentPath(number), number, pending.keys, pending.values, pending.size);
+        pending.size = 0;
+        List<PositionSegment> next = new ArrayList<>(segments);
+        next.add(new PositionSegment(segmentPath(number), number));
+        segments = List.copyOf(next);
+    }
+
+    /**
+     * Flushes and merges all segments into one, keeping lookups to a single
+     * binary search. Readers still using the old segments are unaffected.
+     */
+    public synchronized void compact() throws IOException {
+        flush();
+        List<PositionSegment> old = segments;
+        if (old.size() < 2) {
+            return;
+        }
+        int number = nextNumber++;
+        PositionSegment.merge(old, segmentPath(number), old.get(0).getFirstCovered());
+        segments = List.of(new PositionSegment(segmentPath(number), number));
+        for (PositionSegment s : old) {
+            s.close();
+            try {
+                Files.deleteIfExists(s.getFile());
+            } catch (IOException e) {
+                // still mapped on some platforms; removed on next open
+            }
+        }
+    }
+
+    public List<Posting> lookup(Board board) {
+        return lookup(board.getZobristKey());
+    }
+
+    /**
+     * @return every (game, ply) that reached the position, oldest segment
+     * first and in game order within a segment
+     */
+    public List<Posting> lookup(long key) {
+        List<Long> values = new ArrayList<>();
+        for (PositionSegment s : segments) {
+            s.lookup(key, values);
+        }
+        List<Posting> postings = new ArrayList<>(values.size());
+        for (long v : values) {
+            postings.add(new Posting(v >>> PLY_BITS, (int) (v & MAX_PLY)));
+        }
+        return postings;
+    }
+
+    /**
+     * Number of indexed positions, not counting unflushed games.
+     */
+    public long size() {
+        long total = 0;
+        for (PositionSegment s : segments) {
+            total += s.size();
+        }
+        return total;
+    }
+
+    private Path segmentPath(int number) {
+        return directory.resolve(String.format("%08d%s", number, SUFFIX));
+    }
+
+    /**
+     * Replays a game and records the key of each position it reaches, up to
+     * the first illegal move.
+     */
+    private static void collect(long gameId, ArchivedGame game, EntryBuffer out) {
+        Board board = game.getStartFEN() == null ? new Board() : new Board(game.getStartFEN());
+        out.add(board.getZobristKey(), gameId << PLY_BITS);
+        int[] moves = game.getMoves();
+        int plies = Math.min(moves.length, MAX_PLY);
+        for (int i = 0; i < plies; i++) {
+            int m = moves[i];
+            char promotion = ChessLog.promotion(m);
+            if (!board.move(ChessLog.fromX(m), ChessLog.fromY(m), ChessLog.toX(m), ChessLog.toY(m),
+                    promotion == 0 ? 'q' : promotion)) {
+                return;
+            }
+            out.add(board.getZobristKey(), gameId << PLY_BITS | (i + 1));
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        for (PositionSegment s : segments) {
+            s.close();
+        }
+    }
+
+    private static final class EntryBuffer {
+        long[] keys;
+        long[] values;
+        int size;
+
+        EntryBuffer(int capacity) {
+            keys = new long[capacity];
+            values = new long[capacity];
+        }
+
+        void add(long key, long value) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            keys[size] = key;
+            values[size] = value;
+            size++;
+        }
+    }
+
+    /**
+     * Usage: PositionIndex build archive.bin indexDir [threads]
+     * or PositionIndex find indexDir "FEN"
+     */
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Usage: PositionIndex build <archive.bin> <indexDir> [threads]");
+            System.err.println("       PositionIndex find <indexDir> <FEN>");
+            return;
+        }
+        try {
+            if (args[0].equals("build")) {
+                int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+                try (PositionIndex index = build(Paths.get(args[1]), Paths.get(args[2]), threads)) {
+                    System.out.println(index.size() + " positions indexed");
+                }
+            } else {
+                try (PositionIndex index = new PositionIndex(Paths.get(args[1]))) {
+                    long start = System.nanoTime();
+                    List<Posting> postings = index.lookup(new Board(args[2]));
+                    System.out.printf("%d postings in %.2f ms%n", postings.size(), (System.nanoTime() - start) / 1e6);
+                    for (int i = 0; i < Math.min(postings.size(), 20); i++) {
+                        System.out.println(postings.get(i));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            ErrorLogger.logException(e);
+        }
+        ChessLogger.flush();
+    }
+}
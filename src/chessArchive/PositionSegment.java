@@ -0,0 +1,342 @@
+package chessArchive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * One immutable, memory-mapped file of a {@link PositionIndex}. Entries are
+ * (key, value) pairs of longs sorted by unsigned key then value, where the
+ * value packs game id and ply. A table of bucket starts, indexed by the top
+ * bits of the key, narrows a lookup to a few entries before binary search.
+ *
+ * Layout, big-endian: magic, version, bucket bits, first covered segment
+ * (ints), entry count (long), (2^bits + 1) bucket starts (longs), entries.
+ */
+class PositionSegment implements Closeable {
+
+    static final int MAGIC = 0x43485049; // "CHPI"
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+    private static final int ENTRY_BYTES = 16;
+    private static final int WINDOW_SHIFT = 26; // entries per mapped window, 1 GB
+    private static final long WINDOW_MASK = (1L << WINDOW_SHIFT) - 1;
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final int number;
+    private final int firstCovered;
+    private final int bucketBits;
+    private final long count;
+    private final LongBuffer buckets;
+    private final MappedByteBuffer[] windows;
+
+    PositionSegment(Path file, int number) throws IOException {
+        this.file = file;
+        this.number = number;
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        channel.read(header, 0);
+        if (header.getInt(0) != MAGIC) {
+            channel.close();
+            throw new IOException(file + " is not a position index segment");
+        }
+        if (header.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException("Unsupported position index version " + header.getInt(4));
+        }
+        bucketBits = header.getInt(8);
+        firstCovered = header.getInt(12);
+        count = header.getLong(16);
+
+        long tableBytes = ((1L << bucketBits) + 1) * 8;
+        buckets = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, tableBytes).asLongBuffer();
+        long entriesStart = HEADER_BYTES + tableBytes;
+        int windowCount = (int) ((count + WINDOW_MASK) >>> WINDOW_SHIFT);
+        windows = new MappedByteBuffer[windowCount];
+        for (int i = 0; i < windowCount; i++) {
+            long first = (long) i << WINDOW_SHIFT;
+            long entries = Math.min(count - first, 1L << WINDOW_SHIFT);
+            windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, entriesStart + first * ENTRY_BYTES, entries * ENTRY_BYTES);
+        }
+    }
+
+    int getNumber() {
+        return number;
+    }
+
+    /**
+     * Lowest segment number whose entries this segment contains; lower than
+     * its own number when it was produced by compaction.
+     */
+    int getFirstCovered() {
+        return firstCovered;
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    long size() {
+        return count;
+    }
+
+    long key(long i) {
+        return windows[(int) (i >>> WINDOW_SHIFT)].getLong((int) (i & WINDOW_MASK) * ENTRY_BYTES);
+    }
+
+    long value(long i) {
+        return windows[(int) (i >>> WINDOW_SHIFT)].getLong((int) (i & WINDOW_MASK) * ENTRY_BYTES + 8);
+    }
+
+    /**
+     * Adds the values of every entry with this key, in ascending order.
+     */
+    void lookup(long key, List<Long> out) {
+        int bucket = bucketBits == 0 ? 0 : (int) (key >>> (64 - bucketBits));
+        long lo = buckets.get(bucket);
+        long hi = buckets.get(bucket + 1);
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (Long.compareUnsigned(key(mid), key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        for (long i = lo; i < count && key(i) == key; i++) {
+            out.add(value(i));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Sorts the first n pairs in place and writes them as a segment.
+     */
+    static void write(Path file, int firstCovered, long[] keys, long[] values, int n) throws IOException {
+        sort(keys, values, 0, n - 1);
+        try (Writer w = new Writer(file, firstCovered, n)) {
+            for (int i = 0; i < n; i++) {
+                w.add(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Merges segments into one new segment covering all of them.
+     */
+    static void merge(List<PositionSegment> inputs, Path file, int firstCovered) throws IOException {
+        long total = 0;
+        PriorityQueue<Cursor> queue = new PriorityQueue<>();
+        for (PositionSegment s : inputs) {
+            total += s.size();
+            if (s.size() > 0) {
+                queue.add(new Cursor(s));
+            }
+        }
+        try (Writer w = new Writer(file, firstCovered, total)) {
+            while (!queue.isEmpty()) {
+                Cursor c = queue.poll();
+                w.add(c.key, c.value);
+                if (c.advance()) {
+                    queue.add(c);
+                }
+            }
+        }
+    }
+
+    private static int compare(long k1, long v1, long k2, long v2) {
+        int c = Long.compareUnsigned(k1, k2);
+        return c != 0 ? c : Long.compare(v1, v2);
+    }
+
+    private static void sort(long[] keys, long[] values, int lo, int hi) {
+        while (hi - lo > 16) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(keys[mid], values[mid], keys[lo], values[lo]) < 0) {
+                swap(keys, values, mid, lo);
+            }
+            if (compare(keys[hi], values[hi], keys[lo], values[lo]) < 0) {
+                swap(keys, values, hi, lo);
+            }
+            if (compare(keys[hi], values[hi], keys[mid], values[mid]) < 0) {
+                swap(keys, values, hi, mid);
+            }
+            long pk = keys[mid];
+            long pv = values[mid];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (compare(keys[i], values[i], pk, pv) < 0) {
+                    i++;
+                }
+                while (compare(keys[j], values[j], pk, pv) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(keys, values, i++, j--);
+                }
+            }
+            // recurse into the smaller half to bound the stack depth
+            if (j - lo < hi - i) {
+                sort(keys, values, lo, j);
+                lo = i;
+            } else {
+                sort(keys, values, i, hi);
+                hi = j;
+            }
+        }
+        for (int i = lo + 1; i <= hi; i++) {
+            long k = keys[i];
+            long v = values[i];
+            int j = i - 1;
+            while (j >= lo && compare(keys[j], values[j], k, v) > 0) {
+                keys[j + 1] = keys[j];
+                values[j + 1] = values[j];
+                j--;
+            }
+            keys[j + 1] = k;
+            values[j + 1] = v;
+        }
+    }
+
+    private static void swap(long[] keys, long[] values, int a, int b) {
+        long k = keys[a];
+        keys[a] = keys[b];
+        keys[b] = k;
+        long v = values[a];
+        values[a] = values[b];
+        values[b] = v;
+    }
+
+    private static final class Cursor implements Comparable<Cursor> {
+        private final PositionSegment segment;
+        private long position;
+        private long key;
+        private long value;
+
+        Cursor(PositionSegment segment) {
+            this.segment = segment;
+            key = segment.key(0);
+            value = segment.value(0);
+        }
+
+        boolean advance() {
+            if (++position >= segment.size()) {
+                return false;
+            }
+            key = segment.key(position);
+            value = segment.value(position);
+            return true;
+        }
+
+        @Override
+        public int compareTo(Cursor o) {
+            return compare(key, value, o.key, o.value);
+        }
+    }
+
+    /**
+     * Streams sorted entries to a temporary file and renames it into place on
+     * close, so a crash never leaves a half-written segment behind.
+     */
+    private static final class Writer implements Closeable {
+        private final Path file;
+        private final Path temp;
+        private final FileChannel out;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        private final int firstCovered;
+        private final int bucketBits;
+        private final long[] starts;
+        private final long expected;
+        private long written;
+        private int bucket;
+
+        Writer(Path file, int firstCovered, long expected) throws IOException {
+            this.file = file;
+            this.firstCovered = firstCovered;
+            this.expected = expected;
+            // about 32 entries per bucket, table at most 128 MB
+            int log = 63 - Long.numberOfLeadingZeros(Math.max(expected, 1));
+            bucketBits = Math.max(0, Math.min(24, log - 5));
+            starts = new long[(1 << bucketBits) + 1];
+            temp = file.resolveSibling(file.getFileName() + ".tmp");
+            out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            out.position(HEADER_BYTES + starts.length * 8L);
+        }
+
+        void add(long key, long value) throws IOException {
+            int b = bucketBits == 0 ? 0 : (int) (key >>> (64 - bucketBits));
+            while (bucket < b) {
+                starts[++bucket] = written;
+            }
+            if (buffer.remaining() < ENTRY_BYTES) {
+                drain();
+            }
+            buffer.putLong(key).putLong(value);
+            written++;
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            boolean moved = false;
+            try {
+                finish();
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                moved = true;
+            } finally {
+                if (!moved) {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        }
+
+        private void finish() throws IOException {
+            try {
+                if (written != expected) {
+                    throw new IOException("Segment expected " + expected + " entries, got " + written);
+                }
+                drain();
+                while (bucket < starts.length - 1) {
+                    starts[++bucket] = written;
+                }
+                ByteBuffer head = ByteBuffer.allocate(HEADER_BYTES + starts.length * 8);
+                head.putInt(MAGIC).putInt(VERSION).putInt(bucketBits).putInt(firstCovered).putLong(written);
+                for (long s : starts) {
+                    head.putLong(s);
+                }
+                head.flip();
+                long pos = 0;
+                while (head.hasRemaining()) {
+                    pos += out.write(head, pos);
+                }
+                out.force(true);
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
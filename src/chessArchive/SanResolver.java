@@ -0,0 +1,108 @@
+package chessArchive;
+
+import chessModel.Board;
+import chessModel.piece.*;
+
+/**
+ * Resolves Standard Algebraic Notation against a board. Only pieces of the
+ * named type that can reach the destination are tried, and of those only the
+ * survivors of the disambiguation filter go through the full legality check.
+ */
+public class SanResolver {
+
+    /**
+     * Finds the move the SAN string names in this position.
+     *
+     * @return {fromX, fromY, toX, toY}, or null if no legal move matches
+     */
+    public static Integer[] resolve(Board board, String san) {
+        int side = board.getSideToMove();
+        int end = san.length();
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        if (end == 0) {
+            return null;
+        }
+
+        if (san.startsWith("O-O") || san.startsWith("0-0")) {
+            boolean queenSide = end >= 5;
+            int row = side == 0 ? 7 : 0;
+            Integer[] move = {row, 4, row, queenSide ? 2 : 6};
+            return board.isLegalMove(row, 4, row, move[3]) ? move : null;
+        }
+
+        int promotionAt = san.indexOf('=');
+        if (promotionAt > 0) {
+            end = promotionAt;
+        } else if (end > 2 && "QRBN".indexOf(san.charAt(end - 1)) >= 0 && Character.isDigit(san.charAt(end - 2))) {
+            // promotion without '=', e.g. e8Q
+            end--;
+        }
+        if (end < 2) {
+            return null;
+        }
+
+        int toY = san.charAt(end - 2) - 'a';
+        int toX = 8 - (san.charAt(end - 1) - '0');
+        if (toY < 0 || toY > 7 || toX < 0 || toX > 7) {
+            return null;
+        }
+
+        char type = Character.isUpperCase(san.charAt(0)) ? san.charAt(0) : 'P';
+        int fromFile = -1;
+        int fromRank = -1;
+        for (int i = type == 'P' ? 0 : 1; i < end - 2; i++) {
+            char c = san.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromFile = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRank = 8 - (c - '0');
+            }
+        }
+
+        Integer[] found = null;
+        for (Piece p : board.getPieces()) {
+            if (p.getSide() != side || Character.toUpperCase(p.getChar().charAt(0)) != type) {
+                continue;
+            }
+            if ((fromFile >= 0 && p.getY() != fromFile) || (fromRank >= 0 && p.getX() != fromRank)) {
+                continue;
+            }
+            if (board.isLegalMove(p.getX(), p.getY(), toX, toY)) {
+                if (found != null) {
+                    return null;
+                }
+                found = new Integer[]{p.getX(), p.getY(), toX, toY};
+            }
+        }
+        return found;
+    }
+
+    /**
+     * The piece a promoting SAN move asks for, as a lower case FEN letter.
+     * Defaults to a queen.
+     */
+    public static char promotionOf(String san) {
+        for (int i = san.length() - 1; i > 0; i--) {
+            char c = san.charAt(i);
+            if ("QRBN".indexOf(c) >= 0 && (san.charAt(i - 1) == '=' || Character.isDigit(san.charAt(i - 1)))) {
+                return Character.toLowerCase(c);
+            }
+        }
+        return 'q';
+    }
+
+    /**
+     * Resolves and plays a SAN move.
+     *
+     * @return the move played, or null if it was not legal here
+     */
+    public static Integer[] play(Board board, String san) {
+        Integer[] move = resolve(board, san);
+        if (move == null || !board.move(move[0], move[1], move[2], move[3], promotionOf(san))) {
+            return null;
+        }
+        return move;
+    }
+}
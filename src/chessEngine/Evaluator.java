@@ -0,0 +1,34 @@
+package chessEngine;
+
+import chessModel.Board;
+
+/**
+ * Static evaluation used at the leaves of a {@link Search}.
+ */
+@FunctionalInterface
+public interface Evaluator {
+
+    /**
+     * @return score in centipawns from the given side's point of view
+     */
+    int evaluate(Board board, int side);
+
+    /**
+     * Called when a search starts from the given position. Evaluators that
+     * update incrementally rebuild their state here; others ignore it.
+     */
+    default void reset(Board root) {
+    }
+
+    /**
+     * Called after the search makes a move, with the resulting position.
+     */
+    default void push(Board child) {
+    }
+
+    /**
+     * Called when the search takes back the last pushed move.
+     */
+    default void pop() {
+    }
+}
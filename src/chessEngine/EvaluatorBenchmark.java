@@ -0,0 +1,105 @@
+package chessEngine;
+
+import chessModel.Board;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares evaluations per second of {@link MaterialEvaluator} and
+ * {@link NnueEvaluator} on positions from seeded random games. The network
+ * is timed from scratch on every position and incrementally along each
+ * game, once with the scalar kernels and once with the best available.
+ *
+ * Usage: EvaluatorBenchmark [games] [network file]
+ */
+public class EvaluatorBenchmark {
+
+    private static final int PLIES = 60;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        NnueNetwork network = args.length > 1 ? NnueNetwork.load(Paths.get(args[1])) : NnueNetwork.material(256);
+        List<List<Board>> lines = randomGames(games, new Random(1));
+        int positions = lines.stream().mapToInt(List::size).sum();
+        System.out.println(positions + " positions, " + network.getHiddenSize() + " hidden units");
+
+        report("material", positions, () -> {
+            Evaluator e = new MaterialEvaluator();
+            long sum = 0;
+            for (List<Board> line : lines) {
+                for (int i = 0; i < line.size(); i++) {
+                    sum += e.evaluate(line.get(i), i & 1);
+                }
+            }
+            return sum;
+        });
+        for (NnueKernels kernels : List.of(NnueKernels.scalar(), NnueKernels.best())) {
+            report("nnue refresh (" + kernels.getName() + ")", positions, () -> {
+                Evaluator e = new NnueEvaluator(network, kernels);
+                long sum = 0;
+                for (List<Board> line : lines) {
+                    for (int i = 0; i < line.size(); i++) {
+                        sum += e.evaluate(line.get(i), i & 1);
+                    }
+                }
+                return sum;
+            });
+            report("nnue incremental (" + kernels.getName() + ")", positions, () -> {
+                Evaluator e = new NnueEvaluator(network, kernels);
+                long sum = 0;
+                for (List<Board> line : lines) {
+                    e.reset(line.get(0));
+                    sum += e.evaluate(line.get(0), 0);
+                    for (int i = 1; i < line.size(); i++) {
+                        e.push(line.get(i));
+                        sum += e.evaluate(line.get(i), i & 1);
+                    }
+                }
+                return sum;
+            });
+        }
+    }
+
+    private interface Run {
+        long run();
+    }
+
+    private static void report(String name, int positions, Run run) {
+        long checksum = run.run(); // warm up
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            checksum = run.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-34s %,12.0f evals/s  (checksum %d)%n", name, positions * 1e9 / best, checksum);
+    }
+
+    private static List<List<Board>> randomGames(int games, Random random) {
+        List<List<Board>> lines = new ArrayList<>(games);
+        for (int g = 0; g < games; g++) {
+            List<Board> line = new ArrayList<>(PLIES + 1);
+            Board board = new Board();
+            line.add(board);
+            for (int ply = 0; ply < PLIES; ply++) {
+                List<Integer[]> moves = board.getAllMoves(ply & 1);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                Board next = board.cloneBoard();
+                Integer[] m = moves.get(random.nextInt(moves.size()));
+                if (!next.move(m[0], m[1], m[2], m[3])) {
+                    break;
+                }
+                board = next;
+                line.add(board);
+            }
+            lines.add(line);
+        }
+        return lines;
+    }
+}
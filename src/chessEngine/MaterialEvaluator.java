@@ -0,0 +1,31 @@
+package chessEngine;
+
+import chessModel.Board;
+import chessModel.Endgames;
+import chessModel.Material;
+import java.util.OptionalInt;
+
+/**
+ * Counts material from the board's material signature, deferring to
+ * {@link Endgames} for known endgames.
+ */
+public class MaterialEvaluator implements Evaluator {
+
+    private static final String PIECES = "PNBRQ";
+    private static final int[] VALUES = {100, 300, 300, 500, 900};
+
+    @Override
+    public int evaluate(Board board, int side) {
+        OptionalInt endgame = Endgames.evaluate(board, side);
+        if (endgame.isPresent()) {
+            return endgame.getAsInt();
+        }
+        long signature = board.getMaterialSignature();
+        int score = 0;
+        for (int i = 0; i < VALUES.length; i++) {
+            char c = PIECES.charAt(i);
+            score += VALUES[i] * (Material.count(signature, c) - Material.count(signature, Character.toLowerCase(c)));
+        }
+        return side == 0 ? score : -score;
+    }
+}
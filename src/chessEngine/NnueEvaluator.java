@@ -0,0 +1,160 @@
+package chessEngine;
+
+import chessModel.Board;
+import chessModel.Endgames;
+import chessModel.piece.Piece;
+import java.util.List;
+import java.util.OptionalInt;
+
+/**
+ * Evaluates with an {@link NnueNetwork}. The first layer is kept in a stack
+ * of accumulators, one per ply: when the search makes a move, the pieces of
+ * the new position are compared with the parent's and only the features
+ * that changed are added or subtracted, usually two to four rows instead of
+ * all thirty-two. Taking a move back just drops back a ply.
+ *
+ * Holds per-search state, so each search needs its own instance.
+ */
+public class NnueEvaluator implements Evaluator {
+
+    private static final int MAX_PLY = 128;
+    // accumulator slot for positions evaluated outside the stack
+    private static final int SCRATCH = MAX_PLY - 1;
+    private static final String PIECE_ORDER = "PNBRQKpnbrqk";
+    private static final int MASK_WORDS = NnueNetwork.INPUTS / 64;
+    // perspective feature of each absolute (piece, square) index
+    private static final int[][] FEATURES = new int[2][NnueNetwork.INPUTS];
+
+    static {
+        for (int i = 0; i < NnueNetwork.INPUTS; i++) {
+            char piece = PIECE_ORDER.charAt(i / 64);
+            int x = (i % 64) / 8;
+            int y = i % 8;
+            FEATURES[0][i] = NnueNetwork.feature(piece, x, y, 0);
+            FEATURES[1][i] = NnueNetwork.feature(piece, x, y, 1);
+        }
+    }
+
+    private final NnueNetwork network;
+    private final NnueKernels kernels;
+    // accumulators[ply][perspective]
+    private final short[][][] accumulators;
+    // pieces on the board at each ply, one bit per absolute index
+    private final long[][] masks = new long[MAX_PLY][MASK_WORDS];
+    // -1 until a root is set
+    private int ply = -1;
+    // moves pushed before a root was set or beyond the stack
+    private int untracked;
+
+    public NnueEvaluator(NnueNetwork network) {
+        this(network, NnueKernels.best());
+    }
+
+    NnueEvaluator(NnueNetwork network, NnueKernels kernels) {
+        this.network = network;
+        this.kernels = kernels;
+        this.accumulators = new short[MAX_PLY][2][network.hidden];
+    }
+
+    /**
+     * The name of the kernels in use, e.g. "scalar" or "vector 256-bit".
+     */
+    public String getKernelName() {
+        return kernels.getName();
+    }
+
+    @Override
+    public void reset(Board root) {
+        ply = 0;
+        untracked = 0;
+        refresh(root, 0);
+    }
+
+    @Override
+    public void push(Board child) {
+        if (ply < 0 || untracked > 0 || ply + 1 >= SCRATCH) {
+            untracked++;
+            return;
+        }
+        long[] parent = masks[ply];
+        long[] mask = masks[++ply];
+        fill(child.getPieces(), mask);
+        short[][] acc = accumulators[ply];
+        short[][] from = accumulators[ply - 1];
+        System.arraycopy(from[0], 0, acc[0], 0, network.hidden);
+        System.arraycopy(from[1], 0, acc[1], 0, network.hidden);
+        for (int w = 0; w < MASK_WORDS; w++) {
+            long changed = parent[w] ^ mask[w];
+            while (changed != 0) {
+                int index = w * 64 + Long.numberOfTrailingZeros(changed);
+                changed &= changed - 1;
+                if ((mask[w] & 1L << index) != 0) {
+                    kernels.add(acc[0], network.featureWeights, FEATURES[0][index] * network.hidden);
+                    kernels.add(acc[1], network.featureWeights, FEATURES[1][index] * network.hidden);
+                } else {
+                    kernels.subtract(acc[0], network.featureWeights, FEATURES[0][index] * network.hidden);
+                    kernels.subtract(acc[1], network.featureWeights, FEATURES[1][index] * network.hidden);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void pop() {
+        if (untracked > 0) {
+            untracked--;
+        } else if (ply > 0) {
+            ply--;
+        }
+    }
+
+    /**
+     * Scores the board from the current accumulator when the search keeps
+     * this evaluator in step, otherwise from a fresh one.
+     */
+    @Override
+    public int evaluate(Board board, int side) {
+        OptionalInt endgame = Endgames.evaluate(board, side);
+        if (endgame.isPresent()) {
+            return endgame.getAsInt();
+        }
+        int at = ply;
+        if (at < 0 || untracked > 0) {
+            at = SCRATCH;
+            refresh(board, at);
+        }
+        short[][] acc = accumulators[at];
+        long output = network.outputBias
+                + kernels.clippedDot(acc[side], network.outputWeights, 0)
+                + kernels.clippedDot(acc[1 - side], network.outputWeights, network.hidden);
+        return (int) (output * network.scale / (NnueNetwork.QA * NnueNetwork.QB));
+    }
+
+    private void refresh(Board board, int at) {
+        long[] mask = masks[at];
+        fill(board.getPieces(), mask);
+        short[][] acc = accumulators[at];
+        for (int perspective = 0; perspective < 2; perspective++) {
+            System.arraycopy(network.featureBias, 0, acc[perspective], 0, network.hidden);
+        }
+        for (int w = 0; w < MASK_WORDS; w++) {
+            long bits = mask[w];
+            while (bits != 0) {
+                int index = w * 64 + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                kernels.add(acc[0], network.featureWeights, FEATURES[0][index] * network.hidden);
+                kernels.add(acc[1], network.featureWeights, FEATURES[1][index] * network.hidden);
+            }
+        }
+    }
+
+    private static void fill(List<Piece> pieces, long[] mask) {
+        for (int w = 0; w < MASK_WORDS; w++) {
+            mask[w] = 0;
+        }
+        for (Piece p : pieces) {
+            int index = PIECE_ORDER.indexOf(p.getChar().charAt(0)) * 64 + p.getX() * 8 + p.getY();
+            mask[index >>> 6] |= 1L << index;
+        }
+    }
+}
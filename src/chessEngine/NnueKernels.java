@@ -0,0 +1,51 @@
+package chessEngine;
+
+/**
+ * The inner loops of {@link NnueEvaluator}. A Vector API version is used
+ * when the jdk.incubator.vector module is present (run with
+ * --add-modules jdk.incubator.vector), otherwise plain loops that the JIT
+ * auto-vectorises where it can. Set chess.nnue.vector=false to force the
+ * scalar loops.
+ */
+abstract class NnueKernels {
+
+    private static final NnueKernels BEST = select();
+
+    static NnueKernels best() {
+        return BEST;
+    }
+
+    static NnueKernels scalar() {
+        return ScalarKernels.INSTANCE;
+    }
+
+    private static NnueKernels select() {
+        if (Boolean.parseBoolean(System.getProperty("chess.nnue.vector", "true"))
+                && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                // loaded by name so the class is never linked without the module
+                return (NnueKernels) Class.forName("chessEngine.VectorKernels").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // fall through to the scalar loops
+            }
+        }
+        return ScalarKernels.INSTANCE;
+    }
+
+    /**
+     * acc[i] += weights[offset + i] for every i in acc
+     */
+    abstract void add(short[] acc, short[] weights, int offset);
+
+    /**
+     * acc[i] -= weights[offset + i] for every i in acc
+     */
+    abstract void subtract(short[] acc, short[] weights, int offset);
+
+    /**
+     * Sum of clamp(acc[i], 0, NnueNetwork.QA) * weights[offset + i].
+     */
+    abstract int clippedDot(short[] acc, byte[] weights, int offset);
+
+    abstract String getName();
+}
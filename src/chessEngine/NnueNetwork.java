@@ -0,0 +1,171 @@
+package chessEngine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Quantized weights of an efficiently updatable network: 768 piece-square
+ * inputs (6 piece types, 2 colours, 64 squares, seen from the side whose
+ * accumulator it is), one hidden layer of int16 accumulators shared by both
+ * perspectives, and an int8 output layer over the clipped accumulators of
+ * the side to move and its opponent.
+ *
+ * Network files are little endian:
+ * <pre>
+ * int   magic "NNUE", version, inputs, hidden, scale
+ * short featureBias[hidden]
+ * short featureWeights[inputs][hidden]
+ * byte  outputWeights[2 * hidden]
+ * int   outputBias
+ * </pre>
+ * and are read by mapping the file, so large nets load without copying
+ * through a stream.
+ */
+public final class NnueNetwork {
+
+    public static final int INPUTS = 768;
+    // clipped ReLU ceiling of the accumulators and the output weight scale
+    public static final int QA = 255;
+    public static final int QB = 64;
+
+    private static final int MAGIC = 0x45554E4E;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 5 * Integer.BYTES;
+    private static final String PIECE_ORDER = "PNBRQK";
+    private static final int[] PIECE_VALUES = {100, 300, 300, 500, 900};
+
+    final int hidden;
+    final int scale;
+    final short[] featureBias;
+    // row f holds the hidden weights of input feature f
+    final short[] featureWeights;
+    final byte[] outputWeights;
+    final int outputBias;
+
+    NnueNetwork(int hidden, int scale, short[] featureBias, short[] featureWeights, byte[] outputWeights,
+            int outputBias) {
+        this.hidden = hidden;
+        this.scale = scale;
+        this.featureBias = featureBias;
+        this.featureWeights = featureWeights;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+    }
+
+    public int getHiddenSize() {
+        return hidden;
+    }
+
+    /**
+     * Maps and reads a network file.
+     *
+     * @throws IOException if the file cannot be read or is not a network
+     */
+    public static NnueNetwork load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException(file + " is too short for a network");
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            map.order(ByteOrder.LITTLE_ENDIAN);
+            int magic = map.getInt();
+            int version = map.getInt();
+            int inputs = map.getInt();
+            int hidden = map.getInt();
+            int scale = map.getInt();
+            if (magic != MAGIC || version != VERSION || inputs != INPUTS || hidden <= 0) {
+                throw new IOException(file + " is not a version " + VERSION + " network with " + INPUTS + " inputs");
+            }
+            long expected = HEADER_BYTES + 2L * hidden + 2L * INPUTS * hidden + 2L * hidden + Integer.BYTES;
+            if (size != expected) {
+                throw new IOException(file + " has " + size + " bytes, expected " + expected);
+            }
+            short[] bias = new short[hidden];
+            short[] weights = new short[INPUTS * hidden];
+            byte[] output = new byte[2 * hidden];
+            map.asShortBuffer().get(bias).get(weights);
+            map.position(map.position() + 2 * (bias.length + weights.length));
+            map.get(output);
+            return new NnueNetwork(hidden, scale, bias, weights, output, map.getInt());
+        }
+    }
+
+    /**
+     * Writes the network, replacing the file atomically.
+     */
+    public void write(Path file) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + 2 * featureBias.length + 2 * featureWeights.length
+                + outputWeights.length + Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIC).putInt(VERSION).putInt(INPUTS).putInt(hidden).putInt(scale);
+        buf.asShortBuffer().put(featureBias).put(featureWeights);
+        buf.position(buf.position() + 2 * (featureBias.length + featureWeights.length));
+        buf.put(outputWeights).putInt(outputBias);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, buf.array());
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * A starting network that scores material like {@link MaterialEvaluator}:
+     * one hidden unit counts each piece type per side and the output layer
+     * weighs the counts by piece value. Trained nets replace it.
+     */
+    public static NnueNetwork material(int hidden) {
+        if (hidden < 2 * PIECE_VALUES.length) {
+            throw new IllegalArgumentException("Need at least " + 2 * PIECE_VALUES.length + " hidden units");
+        }
+        // counts of up to 8 pieces stay under the clipping ceiling and the
+        // scale comes out whole, so scores match centipawns exactly
+        int perPiece = 30;
+        // keeps queen weights inside int8
+        int centipawnsPerWeight = 10;
+        short[] bias = new short[hidden];
+        short[] weights = new short[INPUTS * hidden];
+        byte[] output = new byte[2 * hidden];
+        for (int type = 0; type < PIECE_VALUES.length; type++) {
+            for (int own = 0; own < 2; own++) {
+                int unit = own * PIECE_VALUES.length + type;
+                for (int sq = 0; sq < 64; sq++) {
+                    weights[((own * 6 + type) * 64 + sq) * hidden + unit] = (short) perPiece;
+                }
+                int w = PIECE_VALUES[type] / centipawnsPerWeight;
+                output[unit] = (byte) (own == 0 ? w : -w);
+            }
+        }
+        int scale = centipawnsPerWeight * QA * QB / perPiece;
+        return new NnueNetwork(hidden, scale, bias, weights, output, 0);
+    }
+
+    /**
+     * Input feature of a piece for the given perspective: own pieces first,
+     * squares counted from that side's first rank.
+     */
+    static int feature(char piece, int x, int y, int perspective) {
+        int colour = Character.isUpperCase(piece) ? 0 : 1;
+        int type = PIECE_ORDER.indexOf(Character.toUpperCase(piece));
+        int own = colour == perspective ? 0 : 1;
+        int row = perspective == 0 ? 7 - x : x;
+        return (own * 6 + type) * 64 + row * 8 + y;
+    }
+
+    /**
+     * Usage: NnueNetwork material &lt;file&gt; [hidden], writes a starting net.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || !args[0].equals("material")) {
+            System.err.println("Usage: NnueNetwork material <file> [hidden]");
+            return;
+        }
+        int hidden = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+        material(hidden).write(Paths.get(args[1]));
+    }
+}
@@ -0,0 +1,34 @@
+package chessEngine;
+
+final class ScalarKernels extends NnueKernels {
+
+    static final ScalarKernels INSTANCE = new ScalarKernels();
+
+    @Override
+    void add(short[] acc, short[] weights, int offset) {
+        for (int i = 0; i < acc.length; i++) {
+            acc[i] += weights[offset + i];
+        }
+    }
+
+    @Override
+    void subtract(short[] acc, short[] weights, int offset) {
+        for (int i = 0; i < acc.length; i++) {
+            acc[i] -= weights[offset + i];
+        }
+    }
+
+    @Override
+    int clippedDot(short[] acc, byte[] weights, int offset) {
+        int sum = 0;
+        for (int i = 0; i < acc.length; i++) {
+            sum += Math.min(Math.max(acc[i], 0), NnueNetwork.QA) * weights[offset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    String getName() {
+        return "scalar";
+    }
+}
@@ -0,0 +1,258 @@
+package chessEngine;
+
+import chessMetrics.Metrics;
+import chessMetrics.SearchIterationEvent;
+import chessModel.Board;
+import chessModel.SearchLimits;
+import chessModel.StopToken;
+import chessModel.piece.Piece;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import util.ChessUtil;
+
+/**
+ * Iterative deepening alpha-beta search over board copies. Repeated
+ * positions, the 50-move rule and dead material score as draws. The search
+ * polls its stop token and limits at every node and, when cut short,
+ * returns the best move of the deepest iteration that got anywhere.
+ *
+ * A Search is single use and not thread-safe.
+ */
+public class Search {
+
+    public static final int MATE = 100_000;
+    private static final int INFINITY = MATE + 1;
+    private static final int MATE_BOUND = MATE - 1000;
+    private static final int FIFTY_MOVE_PLIES = 100;
+    private static final int MAX_PLY = 64;
+
+    public static final class Result {
+
+        private final Integer[] move;
+        private final List<Integer[]> principalVariation;
+        private final int score;
+        private final int depth;
+        private final long nodes;
+        private final long millis;
+
+        Result(Integer[] move, List<Integer[]> principalVariation, int score, int depth, long nodes, long millis) {
+            this.move = move;
+            this.principalVariation = principalVariation;
+            this.score = score;
+            this.depth = depth;
+            this.nodes = nodes;
+            this.millis = millis;
+        }
+
+        /**
+         * @return the best move, or null if the side to move has none
+         */
+        public Integer[] getMove() {
+            return move;
+        }
+
+        /**
+         * The expected line of play, starting with the best move.
+         */
+        public List<Integer[]> getPrincipalVariation() {
+            return principalVariation;
+        }
+
+        /**
+         * Centipawns from the mover's point of view; within 1000 of
+         * {@link Search#MATE} for forced mates.
+         */
+        public int getScore() {
+            return score;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public long getNodesPerSecond() {
+            return millis == 0 ? nodes * 1000 : nodes * 1000 / millis;
+        }
+
+        public boolean isMate() {
+            return Math.abs(score) >= MATE_BOUND;
+        }
+
+        /**
+         * Moves to mate, negative when being mated.
+         */
+        public int getMateIn() {
+            int plies = MATE - Math.abs(score);
+            return (score > 0 ? 1 : -1) * (plies + 1) / 2;
+        }
+    }
+
+    private final Evaluator evaluator;
+    private SearchLimits limits;
+    private StopToken stop;
+    private long nodes;
+    private boolean aborted;
+    // triangular table: pv[ply] is the best line found from ply onwards
+    private final Integer[][][] pv = new Integer[MAX_PLY + 1][MAX_PLY + 1][];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+
+    public Search(Evaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * Searches until a limit is hit or the token is stopped.
+     *
+     * @param onIteration called after every completed iteration
+     */
+    public Result search(Board board, int side, SearchLimits limits, StopToken stop, Consumer<Result> onIteration) {
+        this.limits = limits;
+        this.stop = stop;
+        long start = System.nanoTime();
+        List<Integer[]> moves = board.getAllMoves(side);
+        if (moves.isEmpty()) {
+            return new Result(null, List.of(), board.isInCheck(side) ? -MATE : 0, 0, 0, 0);
+        }
+        Result best = new Result(moves.get(0), List.<Integer[]>of(moves.get(0)), 0, 0, 0, 0);
+        evaluator.reset(board);
+        orderMoves(board, moves);
+
+        long reported = 0;
+        for (int depth = 1; depth <= Math.min(limits.getDepth(), MAX_PLY); depth++) {
+            SearchIterationEvent event = new SearchIterationEvent();
+            event.begin();
+            int alpha = -INFINITY;
+            Integer[] iterationBest = null;
+            List<Integer[]> iterationLine = null;
+            for (Integer[] move : moves) {
+                Board child = play(board, move);
+                if (child == null) {
+                    continue;
+                }
+                evaluator.push(child);
+                int score = -negamax(child, 1 - side, depth - 1, -INFINITY, -alpha, 1);
+                evaluator.pop();
+                if (aborted) {
+                    break;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    iterationBest = move;
+                    iterationLine = new ArrayList<>(pvLength[1] + 1);
+                    iterationLine.add(move);
+                    iterationLine.addAll(Arrays.asList(pv[1]).subList(0, pvLength[1]));
+                }
+            }
+            if (iterationBest != null) {
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                best = new Result(iterationBest, iterationLine, alpha, depth, nodes, millis);
+                // search the best move first next time
+                moves.remove(iterationBest);
+                moves.add(0, iterationBest);
+                onIteration.accept(best);
+            }
+            Metrics.nodesSearched(nodes - reported);
+            if (event.shouldCommit()) {
+                event.depth = depth;
+                event.nodes = nodes - reported;
+                event.totalNodes = nodes;
+                event.score = alpha;
+                event.bestMove = iterationBest == null ? null : ChessUtil.convertLocation(iterationBest[0], iterationBest[1])
+                        + ChessUtil.convertLocation(iterationBest[2], iterationBest[3]);
+                event.aborted = aborted;
+                event.commit();
+            }
+            reported = nodes;
+            if (aborted || Math.abs(best.getScore()) >= MATE_BOUND) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    private int negamax(Board board, int side, int depth, int alpha, int beta, int ply) {
+        pvLength[ply] = 0;
+        if (shouldStop()) {
+            aborted = true;
+            return 0;
+        }
+        if (board.isRepetition(2) || board.getHalfMoveClock() >= FIFTY_MOVE_PLIES || board.isInsufficientMaterial()) {
+            return 0;
+        }
+        if (depth == 0 || ply >= MAX_PLY) {
+            return evaluator.evaluate(board, side);
+        }
+        List<Integer[]> moves = board.getAllMoves(side);
+        if (moves.isEmpty()) {
+            return board.isInCheck(side) ? -MATE + ply : 0;
+        }
+        orderMoves(board, moves);
+        for (Integer[] move : moves) {
+            Board child = play(board, move);
+            if (child == null) {
+                continue;
+            }
+            evaluator.push(child);
+            int score = -negamax(child, 1 - side, depth - 1, -beta, -alpha, ply + 1);
+            evaluator.pop();
+            if (aborted) {
+                return 0;
+            }
+            if (score >= beta) {
+                return score;
+            }
+            if (score > alpha) {
+                alpha = score;
+                pv[ply][0] = move;
+                System.arraycopy(pv[ply + 1], 0, pv[ply], 1, pvLength[ply + 1]);
+                pvLength[ply] = pvLength[ply + 1] + 1;
+            }
+        }
+        return alpha;
+    }
+
+    private boolean shouldStop() {
+        return ++nodes >= limits.getNodes() || stop.isStopped() || limits.isExpired();
+    }
+
+    private static Board play(Board board, Integer[] move) {
+        Board child = board.cloneBoard();
+        return child.move(move[0], move[1], move[2], move[3]) ? child : null;
+    }
+
+    /**
+     * Captures of the most valuable pieces first.
+     */
+    private static void orderMoves(Board board, List<Integer[]> moves) {
+        List<Integer[]> ordered = new ArrayList<>(moves.size());
+        int[] keys = new int[moves.size()];
+        for (int i = 0; i < keys.length; i++) {
+            Integer[] m = moves.get(i);
+            Piece victim = board.getPiece(m[2], m[3]);
+            keys[i] = victim == null ? 0 : Math.min(9, victim.getValue());
+        }
+        for (int value = 9; value >= 0; value--) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == value) {
+                    ordered.add(moves.get(i));
+                }
+            }
+        }
+        moves.clear();
+        moves.addAll(ordered);
+    }
+}
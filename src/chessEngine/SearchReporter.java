@@ -0,0 +1,16 @@
+package chessEngine;
+
+import java.util.function.Consumer;
+
+/**
+ * Implemented by players backed by a {@link Search} so front ends can show
+ * depth, score, node counts and the principal variation as they improve.
+ */
+public interface SearchReporter {
+
+    /**
+     * @param listener called after every completed iteration, from the
+     * searching thread; null to stop listening
+     */
+    void setSearchListener(Consumer<Search.Result> listener);
+}
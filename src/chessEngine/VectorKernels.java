@@ -0,0 +1,70 @@
+package chessEngine;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API kernels; only loaded through {@link NnueKernels#best()}.
+ */
+final class VectorKernels extends NnueKernels {
+
+    private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+    // as many byte lanes as short lanes, so weights widen lane for lane
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED
+            .withShape(VectorShape.forBitSize(SHORTS.vectorBitSize() / 2));
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED
+            .withShape(SHORTS.vectorShape());
+
+    @Override
+    void add(short[] acc, short[] weights, int offset) {
+        int i = 0;
+        for (int bound = SHORTS.loopBound(acc.length); i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, acc, i).add(ShortVector.fromArray(SHORTS, weights, offset + i))
+                    .intoArray(acc, i);
+        }
+        for (; i < acc.length; i++) {
+            acc[i] += weights[offset + i];
+        }
+    }
+
+    @Override
+    void subtract(short[] acc, short[] weights, int offset) {
+        int i = 0;
+        for (int bound = SHORTS.loopBound(acc.length); i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, acc, i).sub(ShortVector.fromArray(SHORTS, weights, offset + i))
+                    .intoArray(acc, i);
+        }
+        for (; i < acc.length; i++) {
+            acc[i] -= weights[offset + i];
+        }
+    }
+
+    @Override
+    int clippedDot(short[] acc, byte[] weights, int offset) {
+        IntVector sum = IntVector.zero(INTS);
+        int i = 0;
+        for (int bound = SHORTS.loopBound(acc.length); i < bound; i += SHORTS.length()) {
+            ShortVector a = ShortVector.fromArray(SHORTS, acc, i).max((short) 0).min((short) NnueNetwork.QA);
+            ShortVector w = (ShortVector) ByteVector.fromArray(BYTES, weights, offset + i)
+                    .convertShape(VectorOperators.B2S, SHORTS, 0);
+            // 255 * 127 still fits a short; widen before summing
+            ShortVector product = a.mul(w);
+            sum = sum.add(product.convertShape(VectorOperators.S2I, INTS, 0))
+                    .add(product.convertShape(VectorOperators.S2I, INTS, 1));
+        }
+        int total = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < acc.length; i++) {
+            total += Math.min(Math.max(acc[i], 0), NnueNetwork.QA) * weights[offset + i];
+        }
+        return total;
+    }
+
+    @Override
+    String getName() {
+        return "vector " + SHORTS.vectorBitSize() + "-bit";
+    }
+}
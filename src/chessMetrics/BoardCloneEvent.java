@@ -0,0 +1,26 @@
+package chessMetrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A sampled board copy, see {@link JfrSampling}.
+ */
+@Name("chess.BoardClone")
+@Label("Board Clone")
+@Category({"Chess", "Board"})
+@Description("A sample of Board.cloneBoard calls")
+@Enabled(false)
+public class BoardCloneEvent extends Event {
+
+    @Label("Pieces")
+    public int pieces;
+
+    @Label("Plies")
+    @Description("Length of the copied move log")
+    public int plies;
+}
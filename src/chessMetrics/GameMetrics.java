@@ -0,0 +1,49 @@
+package chessMetrics;
+
+class GameMetrics implements GameMetricsMBean {
+
+    @Override
+    public long getActiveGames() {
+        return Metrics.getActiveGames();
+    }
+
+    @Override
+    public long getGamesStarted() {
+        return Metrics.gamesStarted.sum();
+    }
+
+    @Override
+    public long getMovesPlayed() {
+        return Metrics.moves.getTotal();
+    }
+
+    @Override
+    public double getMovesPerSecond() {
+        return Metrics.moves.getRatePerSecond();
+    }
+
+    @Override
+    public long getInvalidMoves() {
+        return Metrics.invalidMoves.sum();
+    }
+
+    @Override
+    public long getMoveGenerationCalls() {
+        return Metrics.moveGenerationCalls.sum();
+    }
+
+    @Override
+    public long getBoardClones() {
+        return Metrics.boardClones.sum();
+    }
+
+    @Override
+    public long getSearchNodes() {
+        return Metrics.searchNodes.getTotal();
+    }
+
+    @Override
+    public double getSearchNodesPerSecond() {
+        return Metrics.searchNodes.getRatePerSecond();
+    }
+}
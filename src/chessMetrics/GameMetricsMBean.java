@@ -0,0 +1,25 @@
+package chessMetrics;
+
+/**
+ * JMX view of the game, move and engine counters.
+ */
+public interface GameMetricsMBean {
+
+    long getActiveGames();
+
+    long getGamesStarted();
+
+    long getMovesPlayed();
+
+    double getMovesPerSecond();
+
+    long getInvalidMoves();
+
+    long getMoveGenerationCalls();
+
+    long getBoardClones();
+
+    long getSearchNodes();
+
+    double getSearchNodesPerSecond();
+}
@@ -0,0 +1,111 @@
+package chessMetrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative longs with log-linear buckets, in the
+ * style of HdrHistogram: every power of two is split into 64 linear
+ * sub-buckets, so any recorded value is reported within 1.6% over its
+ * whole range at a fixed 29 KB. Recording is a few arithmetic operations
+ * and four atomic updates. Count, sum and maximum are striped, but the
+ * bucket counters are one shared array, so threads recording into the same
+ * bucket contend on it.
+ */
+public final class Histogram {
+
+    private static final int SUB_BITS = 6;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records a value; negative values count as zero.
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts.incrementAndGet(index(v));
+        count.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    static int index(long v) {
+        if (v < SUB_COUNT) {
+            return (int) v;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(v);
+        int shift = exponent - SUB_BITS;
+        return ((shift + 1) << SUB_BITS) + (int) ((v >>> shift) - SUB_COUNT);
+    }
+
+    static long lowestValue(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int group = index >>> SUB_BITS;
+        return (long) (SUB_COUNT + (index & (SUB_COUNT - 1))) << (group - 1);
+    }
+
+    static long highestValue(int index) {
+        int group = index >>> SUB_BITS;
+        return lowestValue(index) + (group == 0 ? 0 : (1L << (group - 1)) - 1);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * The value below which the given percentage (0 to 100) of recordings
+     * fall, as the top of its bucket; 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long wanted = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= wanted) {
+                return Math.min(highestValue(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Clears the histogram. Recordings made while this runs may be lost.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+}
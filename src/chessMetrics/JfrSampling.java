@@ -0,0 +1,47 @@
+package chessMetrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which calls of very hot methods get a flight recorder event.
+ * The board events fire millions of times a second during a search, so
+ * only one call in chess.jfr.sampleRate (default 1024) is recorded, and
+ * the check is skipped entirely while the event is disabled.
+ */
+public final class JfrSampling {
+
+    private static final int SAMPLE_RATE = Math.max(1, Integer.getInteger("chess.jfr.sampleRate", 1024));
+    private static final MoveGenerationEvent MOVE_GENERATION = new MoveGenerationEvent();
+    private static final BoardCloneEvent BOARD_CLONE = new BoardCloneEvent();
+
+    private JfrSampling() {
+    }
+
+    /**
+     * A begun event for a sampled move generation, or null.
+     */
+    public static MoveGenerationEvent moveGeneration() {
+        if (!MOVE_GENERATION.isEnabled() || !sampled()) {
+            return null;
+        }
+        MoveGenerationEvent event = new MoveGenerationEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * A begun event for a sampled board copy, or null.
+     */
+    public static BoardCloneEvent boardClone() {
+        if (!BOARD_CLONE.isEnabled() || !sampled()) {
+            return null;
+        }
+        BoardCloneEvent event = new BoardCloneEvent();
+        event.begin();
+        return event;
+    }
+
+    private static boolean sampled() {
+        return SAMPLE_RATE == 1 || ThreadLocalRandom.current().nextInt(SAMPLE_RATE) == 0;
+    }
+}
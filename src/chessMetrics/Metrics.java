@@ -0,0 +1,145 @@
+package chessMetrics;
+
+import chessModel.ErrorLogger;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide counters for games, moves and engines. Everything on a hot
+ * path is a striped {@link LongAdder} or a {@link Histogram}, so recording
+ * costs a few nanoseconds and never takes a lock.
+ *
+ * The values are published as JMX MBeans under the "chess" domain and, if
+ * the system property chess.metrics.file names a file, written there in
+ * Prometheus text format every chess.metrics.period seconds (default 10).
+ */
+public final class Metrics {
+
+    public static final String DOMAIN = "chess";
+
+    static final LongAdder gamesStarted = new LongAdder();
+    static final LongAdder gamesFinished = new LongAdder();
+    static final RateMeter moves = new RateMeter();
+    static final LongAdder invalidMoves = new LongAdder();
+    static final LongAdder moveGenerationCalls = new LongAdder();
+    static final LongAdder boardClones = new LongAdder();
+    static final RateMeter searchNodes = new RateMeter();
+    static final Map<String, Histogram> moveLatency = new ConcurrentHashMap<>();
+
+    static {
+        register(new GameMetrics(), DOMAIN + ":type=Games");
+        String file = System.getProperty("chess.metrics.file");
+        if (file != null) {
+            startDumping(Paths.get(file), Long.getLong("chess.metrics.period", 10));
+        }
+    }
+
+    private Metrics() {
+    }
+
+    public static void gameStarted() {
+        gamesStarted.increment();
+    }
+
+    public static void gameFinished() {
+        gamesFinished.increment();
+    }
+
+    public static void movePlayed() {
+        moves.mark();
+    }
+
+    public static void invalidMove() {
+        invalidMoves.increment();
+    }
+
+    public static void moveGenerated() {
+        moveGenerationCalls.increment();
+    }
+
+    public static void boardCloned() {
+        boardClones.increment();
+    }
+
+    public static void nodesSearched(long nodes) {
+        searchNodes.mark(nodes);
+    }
+
+    /**
+     * Records how long a player took to answer a move request.
+     *
+     * @param player a stable name for the player, usually its name in the game
+     */
+    public static void moveLatency(String player, long nanos) {
+        Histogram h = moveLatency.get(player);
+        if (h == null) {
+            h = moveLatency.computeIfAbsent(player, p -> {
+                Histogram created = new Histogram();
+                register(new MoveLatency(created), DOMAIN + ":type=MoveLatency,player=" + ObjectName.quote(p));
+                return created;
+            });
+        }
+        h.record(nanos);
+    }
+
+    /**
+     * The latency histogram of a player, or null if it never moved.
+     */
+    public static Histogram getMoveLatency(String player) {
+        return moveLatency.get(player);
+    }
+
+    public static long getActiveGames() {
+        return gamesStarted.sum() - gamesFinished.sum();
+    }
+
+    /**
+     * Writes all metrics to a file in Prometheus text format, replacing it
+     * atomically so scrapers never read half a file.
+     */
+    public static void dump(Path file) throws IOException {
+        PrometheusExporter.write(file);
+    }
+
+    /**
+     * Dumps the metrics to a file at a fixed period on a daemon thread.
+     */
+    public static void startDumping(Path file, long periodSeconds) {
+        ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-dump");
+            t.setDaemon(true);
+            return t;
+        });
+        dumper.scheduleAtFixedRate(() -> {
+            try {
+                dump(file);
+            } catch (IOException e) {
+                // keep dumping; the file system may recover
+                ErrorLogger.logException(e);
+            }
+        }, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    private static void register(Object mbean, String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(name);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(mbean, objectName);
+            }
+        } catch (JMException | SecurityException e) {
+            ErrorLogger.logException(e);
+        }
+    }
+}
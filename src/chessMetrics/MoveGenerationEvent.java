@@ -0,0 +1,25 @@
+package chessMetrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A sampled legal move generation, see {@link JfrSampling}.
+ */
+@Name("chess.MoveGeneration")
+@Label("Move Generation")
+@Category({"Chess", "Board"})
+@Description("A sample of Board.getAllMoves calls")
+@Enabled(false)
+public class MoveGenerationEvent extends Event {
+
+    @Label("Side")
+    public int side;
+
+    @Label("Moves")
+    public int moves;
+}
@@ -0,0 +1,47 @@
+package chessMetrics;
+
+class MoveLatency implements MoveLatencyMBean {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final Histogram histogram;
+
+    MoveLatency(Histogram histogram) {
+        this.histogram = histogram;
+    }
+
+    @Override
+    public long getCount() {
+        return histogram.getCount();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        return histogram.getMean() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return histogram.getValueAtPercentile(50) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP90Millis() {
+        return histogram.getValueAtPercentile(90) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP99Millis() {
+        return histogram.getValueAtPercentile(99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return histogram.getMax() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public void reset() {
+        histogram.reset();
+    }
+}
@@ -0,0 +1,21 @@
+package chessMetrics;
+
+/**
+ * JMX view of one player's move latency, in milliseconds.
+ */
+public interface MoveLatencyMBean {
+
+    long getCount();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP90Millis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+
+    void reset();
+}
@@ -0,0 +1,91 @@
+package chessMetrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes {@link Metrics} in the Prometheus text exposition format, for a
+ * node exporter's textfile collector or any scraper that reads files.
+ */
+public final class PrometheusExporter {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private PrometheusExporter() {
+    }
+
+    public static void write(Appendable out) throws IOException {
+        GameMetrics games = new GameMetrics();
+        gauge(out, "chess_games_active", "Games in progress", games.getActiveGames());
+        counter(out, "chess_games_started_total", "Games started", games.getGamesStarted());
+        counter(out, "chess_moves_total", "Moves played", games.getMovesPlayed());
+        gauge(out, "chess_moves_per_second", "Moves played per second", games.getMovesPerSecond());
+        counter(out, "chess_invalid_moves_total", "Invalid or missing moves from players", games.getInvalidMoves());
+        counter(out, "chess_move_generation_calls_total", "Legal move list generations", games.getMoveGenerationCalls());
+        counter(out, "chess_board_clones_total", "Board copies made", games.getBoardClones());
+        counter(out, "chess_search_nodes_total", "Nodes searched by engines", games.getSearchNodes());
+        gauge(out, "chess_search_nodes_per_second", "Nodes searched per second", games.getSearchNodesPerSecond());
+
+        out.append("# HELP chess_move_latency_seconds Time players take to answer a move request\n");
+        out.append("# TYPE chess_move_latency_seconds summary\n");
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(Metrics.moveLatency).entrySet()) {
+            String player = escape(entry.getKey());
+            Histogram h = entry.getValue();
+            for (double q : QUANTILES) {
+                out.append("chess_move_latency_seconds{player=\"").append(player)
+                        .append("\",quantile=\"").append(Double.toString(q)).append("\"} ")
+                        .append(Double.toString(h.getValueAtPercentile(q * 100) / NANOS_PER_SECOND)).append('\n');
+            }
+            out.append("chess_move_latency_seconds_sum{player=\"").append(player).append("\"} ")
+                    .append(Double.toString(h.getSum() / NANOS_PER_SECOND)).append('\n');
+            out.append("chess_move_latency_seconds_count{player=\"").append(player).append("\"} ")
+                    .append(Long.toString(h.getCount())).append('\n');
+        }
+    }
+
+    /**
+     * Writes the metrics to a temporary file and moves it over the target.
+     */
+    public static void write(Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            write(w);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void counter(Appendable out, String name, String help, long value) throws IOException {
+        header(out, name, help, "counter");
+        out.append(name).append(' ').append(Long.toString(value)).append('\n');
+    }
+
+    private static void gauge(Appendable out, String name, String help, long value) throws IOException {
+        header(out, name, help, "gauge");
+        out.append(name).append(' ').append(Long.toString(value)).append('\n');
+    }
+
+    private static void gauge(Appendable out, String name, String help, double value) throws IOException {
+        header(out, name, help, "gauge");
+        out.append(name).append(' ').append(Double.toString(value)).append('\n');
+    }
+
+    private static void header(Appendable out, String name, String help, String type) throws IOException {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static String escape(String label) {
+        return label.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,46 @@
+package chessMetrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A striped counter that also reports its rate over the last completed
+ * window. Marking is a single {@link LongAdder} add; the rate is worked out
+ * only when someone reads it.
+ */
+public final class RateMeter {
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final LongAdder total = new LongAdder();
+    private long windowStart = System.nanoTime();
+    private long windowStartCount;
+    private double rate;
+
+    public void mark() {
+        total.increment();
+    }
+
+    public void mark(long n) {
+        total.add(n);
+    }
+
+    public long getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * Events per second over the most recent window of at least a second.
+     */
+    public synchronized double getRatePerSecond() {
+        long now = System.nanoTime();
+        long elapsed = now - windowStart;
+        if (elapsed >= WINDOW_NANOS) {
+            long count = total.sum();
+            rate = (count - windowStartCount) * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+            windowStart = now;
+            windowStartCount = count;
+        }
+        return rate;
+    }
+}
@@ -0,0 +1,40 @@
+package chessMetrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One iteration of an iterative deepening search.
+ */
+@Name("chess.SearchIteration")
+@Label("Search Iteration")
+@Category({"Chess", "Engine"})
+@Description("A completed or aborted iteration of a bot's search")
+@Enabled(false)
+public class SearchIterationEvent extends Event {
+
+    @Label("Depth")
+    public int depth;
+
+    @Label("Nodes")
+    @Description("Nodes searched in this iteration")
+    public long nodes;
+
+    @Label("Total Nodes")
+    public long totalNodes;
+
+    @Label("Score")
+    @Description("Centipawns for the side to move")
+    public int score;
+
+    @Label("Best Move")
+    public String bestMove;
+
+    @Label("Aborted")
+    @Description("The iteration was cut short by a limit or a stop")
+    public boolean aborted;
+}
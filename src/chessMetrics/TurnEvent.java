@@ -0,0 +1,41 @@
+package chessMetrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One turn of a game, from asking the player for a move to playing it.
+ */
+@Name("chess.Turn")
+@Label("Turn")
+@Category({"Chess", "Game"})
+@Description("A player's turn from the move request to the move being applied")
+@Enabled(false)
+public class TurnEvent extends Event {
+
+    public static final String PLAYED = "played";
+    public static final String ILLEGAL = "illegal";
+    public static final String NO_MOVE = "none";
+    public static final String SUPERSEDED = "superseded";
+
+    @Label("Player")
+    public String player;
+
+    @Label("Side")
+    @Description("0 for white, 1 for black")
+    public int side;
+
+    @Label("Ply")
+    public int ply;
+
+    @Label("Move")
+    public String move;
+
+    @Label("Outcome")
+    @Description("played, illegal, none or superseded")
+    public String outcome;
+}
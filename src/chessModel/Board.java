@@ -1,5 +1,9 @@
 package chessModel;
 
+import chessMetrics.BoardCloneEvent;
+import chessMetrics.JfrSampling;
+import chessMetrics.Metrics;
+import chessMetrics.MoveGenerationEvent;
 import chessModel.piece.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -13,11 +17,14 @@ public class Board {
     private final ArrayList<Piece> pieces;
     private final ReentrantLock boardLock = new ReentrantLock();
     private final ChessLog movelog;
+    private final PositionHistory history = new PositionHistory();
     private int whiteScore;
     private int blackScore;
     private Rook blackKingSide, whiteKingSide, blackQueenSide, whiteQueenSide;
     private King blackKing, whiteKing;
     private String enPassantTarget;
+    private int sideToMove;
+    private long material;
 
     public Board() {
         this(true);
@@ -57,18 +64,58 @@ public class Board {
             pieces.add(whiteKing);
             blackKing = new King(7, 4, 0);
             pieces.add(blackKing);
+            for (Piece p : pieces) {
+                material += Material.unit(p);
+            }
         }
 
         enPassantTarget = "";
+        sideToMove = 0;
         movelog = new ChessLog();
+        if (preConfigure) {
+            movelog.setStartFEN(FenCodec.START_POSITION);
+        }
+    }
+
+    /**
+     * Creates a board from a FEN record.
+     *
+     * @throws IllegalArgumentException if the record is malformed
+     */
+    public Board(String fen) {
+        this(false);
+        FenCodec.read(fen, this);
+        movelog.setStartFEN(getFEN());
     }
 
     public boolean move(int oldX, int oldY, int x, int y) {
+        return move(oldX, oldY, x, y, 'q');
+    }
+
+    /**
+     * Moves a piece, promoting pawns that reach the last rank to the piece
+     * named by promotion (q, r, b or n). Moves that would leave the mover's
+     * king in check are rejected.
+     */
+    public boolean move(int oldX, int oldY, int x, int y, char promotion) {
+        return play(oldX, oldY, x, y, promotion) != null;
+    }
+
+    /**
+     * Like {@link #move(int, int, int, int, char)}, returning what the move
+     * changed so it can be taken back with {@link #unplay(MoveRecord)}.
+     *
+     * @return the record, or null if the move is not legal
+     */
+    public MoveRecord play(int oldX, int oldY, int x, int y, char promotion) {
         boardLock.lock();
         try {
             Piece selectedP = getPiece(oldX, oldY);
             if (selectedP == null) {
-                return false;
+                return null;
+            }
+            if (isCastlingMove(selectedP, x, y)) {
+                return castle((King) selectedP, y);
             }
 
             Piece otherP = getPiece(x, y);
@@ -76,14 +123,16 @@ public class Board {
             if (otherP != null) {
                 status = (otherP.getSide() == selectedP.getSide()) ? SquareStatus.TEAM : SquareStatus.ENEMY;
             }
-            if ((ChessUtil.convertFile(y) + Integer.toString(ChessUtil.convertRow(x))).equals(enPassantTarget)) {
+            if (selectedP instanceof Pawn && otherP == null && isEnPassantTarget(x, y)) {
                 status = SquareStatus.ENEMY;
                 otherP = selectedP.getSide() == 0 ? getPiece(x + 1, y) : getPiece(x - 1, y);
             }
             if (!status.equals(SquareStatus.TEAM) && selectedP.validMove(x, y, status) && !isObstructed(selectedP, x, y)) {
-                if (isInCheck(selectedP.getSide()) && !resolvesCheck(selectedP, x, y)) {
-                    return false;
+                if (!leavesKingSafe(selectedP, x, y)) {
+                    return null;
                 }
+                recordStartPosition(selectedP.getSide());
+                MoveRecord record = newRecord(selectedP, x, y);
                 selectedP.move(x, y, status);
                 if (selectedP instanceof Pawn) {
                     movelog.resetHalfMoveClock();
@@ -103,18 +152,246 @@ public class Board {
                     } else {
                         blackScore += scoreEarned;
                     }
-                    pieces.remove(otherP);
+                    record.captured = otherP;
+                    record.capturedIndex = pieces.indexOf(otherP);
+                    pieces.remove(record.capturedIndex);
+                    material -= Material.unit(otherP);
                     movelog.resetHalfMoveClock();
                 }
-                movelog.addToLog(oldX, oldY, x, y, selectedP, otherP);
-                return true;
+                char promotedTo = 0;
+                if (selectedP instanceof Pawn && (x == 0 || x == boardHeight - 1)) {
+                    record.moverIndex = pieces.indexOf(selectedP);
+                    pieces.remove(record.moverIndex);
+                    Piece promoted = Piece.create(selectedP.getSide() == 0
+                            ? Character.toUpperCase(promotion) : Character.toLowerCase(promotion), x, y);
+                    if (promoted instanceof Pawn || promoted instanceof King || promoted == null) {
+                        promoted = new Queen(x, y, selectedP.getSide());
+                    }
+                    pieces.add(promoted);
+                    record.promoted = promoted;
+                    material += Material.unit(promoted) - Material.unit(selectedP);
+                    promotedTo = Character.toLowerCase(promoted.getChar().charAt(0));
+                }
+                movelog.addToLog(oldX, oldY, x, y, selectedP, promotedTo);
+                sideToMove = selectedP.getSide() == 0 ? 1 : 0;
+                recordPosition();
+                return record;
+            }
+            return null;
+        } finally {
+            boardLock.unlock();
+        }
+    }
+
+    /**
+     * Takes back the last move played, which must be the one the record
+     * came from.
+     *
+     * @throws IllegalStateException if another move has been played since
+     */
+    public void unplay(MoveRecord record) {
+        boardLock.lock();
+        try {
+            if (record.board != this || record.ply != movelog.getMoveCount() - 1) {
+                throw new IllegalStateException("Move " + record.ply + " is not the last move on this board");
+            }
+            movelog.removeLast(record.halfMoveClock, record.fullMoveClock);
+            history.restore(record.historySize, record.historyBase);
+            if (record.promoted != null) {
+                pieces.remove(record.promoted);
+                pieces.add(record.moverIndex, record.mover);
+            }
+            record.mover.forceMove(record.fromX, record.fromY);
+            setMoved(record.mover, record.moverMoved);
+            if (record.castledRook != null) {
+                record.castledRook.forceMove(record.fromX, record.rookFromY);
+                record.castledRook.setHasMoved(false);
             }
+            if (record.captured != null) {
+                pieces.add(record.capturedIndex, record.captured);
+            }
+            enPassantTarget = record.enPassantTarget;
+            whiteScore = record.whiteScore;
+            blackScore = record.blackScore;
+            material = record.material;
+            sideToMove = record.sideToMove;
+        } finally {
+            boardLock.unlock();
+        }
+    }
+
+    private MoveRecord newRecord(Piece mover, int x, int y) {
+        return new MoveRecord(this, movelog.getMoveCount(), mover, x, y, hasMoved(mover),
+                enPassantTarget, movelog.getHalfMoveClock(), movelog.getFullMoveCount(),
+                whiteScore, blackScore, material, sideToMove, history.size(), history.base());
+    }
+
+    // the first-move flag the piece's rules depend on, if it has one
+    private static boolean hasMoved(Piece p) {
+        if (p instanceof Pawn pawn) {
+            return pawn.hasTakenFirstMove();
+        }
+        if (p instanceof King king) {
+            return king.hasMoved();
+        }
+        return p instanceof Rook rook && rook.hasMoved();
+    }
+
+    private static void setMoved(Piece p, boolean moved) {
+        if (p instanceof Pawn pawn) {
+            pawn.setHasTakenFirstMove(moved);
+        } else if (p instanceof King king) {
+            king.setHasMoved(moved);
+        } else if (p instanceof Rook rook) {
+            rook.setHasMoved(moved);
+        }
+    }
+
+    /**
+     * True if moving the piece to (x, y) is a legal move in this position.
+     */
+    public boolean isLegalMove(int oldX, int oldY, int x, int y) {
+        boardLock.lock();
+        try {
+            Piece p = getPiece(oldX, oldY);
+            if (p == null) {
+                return false;
+            }
+            if (isCastlingMove(p, x, y)) {
+                return canCastle((King) p, y);
+            }
+            SquareStatus status = getSquareStatus(x, y, p.getSide());
+            if (p instanceof Pawn && status == SquareStatus.EMPTY && isEnPassantTarget(x, y)) {
+                status = SquareStatus.ENEMY;
+            }
+            return status != SquareStatus.TEAM
+                    && p.validMove(x, y, status)
+                    && !isObstructed(p, x, y)
+                    && leavesKingSafe(p, x, y);
+        } finally {
+            boardLock.unlock();
+        }
+    }
+
+    private boolean isEnPassantTarget(int x, int y) {
+        return enPassantTarget.length() == 2
+                && enPassantTarget.charAt(0) == ChessUtil.convertFile(y)
+                && enPassantTarget.charAt(1) == (char) ('0' + ChessUtil.convertRow(x));
+    }
+
+    private boolean isCastlingMove(Piece p, int x, int y) {
+        return p instanceof King && p.getX() == x && Math.abs(p.getY() - y) == 2;
+    }
+
+    private boolean canCastle(King king, int y) {
+        if (king.hasMoved()) {
             return false;
+        }
+        int row = king.getX();
+        int dir = y > king.getY() ? 1 : -1;
+        Piece rook = getPiece(row, dir > 0 ? boardWidth - 1 : 0);
+        if (!(rook instanceof Rook r) || r.getSide() != king.getSide() || r.hasMoved()) {
+            return false;
+        }
+        for (int col = king.getY() + dir; col != rook.getY(); col += dir) {
+            if (getPiece(row, col) != null) {
+                return false;
+            }
+        }
+        return !isThreatenedSquare(row, king.getY(), king.getSide())
+                && !isThreatenedSquare(row, king.getY() + dir, king.getSide())
+                && !isThreatenedSquare(row, y, king.getSide());
+    }
+
+    private MoveRecord castle(King king, int y) {
+        if (!canCastle(king, y)) {
+            return null;
+        }
+        int row = king.getX();
+        int oldY = king.getY();
+        int dir = y > oldY ? 1 : -1;
+        Rook rook = (Rook) getPiece(row, dir > 0 ? boardWidth - 1 : 0);
+        recordStartPosition(king.getSide());
+        MoveRecord record = newRecord(king, row, y);
+        record.castledRook = rook;
+        record.rookFromY = rook.getY();
+        king.forceMove(row, y);
+        king.setHasMoved(true);
+        rook.forceMove(row, y - dir);
+        rook.setHasMoved(true);
+        movelog.incrementHalfMoveClock();
+        enPassantTarget = "";
+        movelog.addToLog(row, oldY, row, y, king, (char) 0);
+        sideToMove = king.getSide() == 0 ? 1 : 0;
+        recordPosition();
+        return record;
+    }
+
+    /**
+     * Boards set up piece by piece have no known start position until their
+     * first move, which is when the log needs one to replay from and the
+     * repetition history needs its first entry.
+     */
+    private void recordStartPosition(int mover) {
+        if (movelog.getStartFEN() == null) {
+            sideToMove = mover;
+            movelog.setStartFEN(getFEN());
+        }
+        if (history.isEmpty()) {
+            history.push(Zobrist.key(pieces, sideToMove, enPassantTarget));
+        }
+    }
+
+    private void recordPosition() {
+        long key = Zobrist.key(pieces, sideToMove, enPassantTarget);
+        if (movelog.getHalfMoveClock() == 0) {
+            history.reset(key);
+        } else {
+            history.push(key);
+        }
+    }
+
+    /**
+     * True if the current position has occurred at least the given number of
+     * times, counting only positions since the last pawn move or capture.
+     * Games use 3 for the threefold rule; searches can score 2 as a draw to
+     * avoid exploring lines that merely repeat.
+     */
+    public boolean isRepetition(int times) {
+        boardLock.lock();
+        try {
+            return history.occurrences() >= times;
         } finally {
             boardLock.unlock();
         }
     }
 
+    public boolean isThreefoldRepetition() {
+        return isRepetition(3);
+    }
+
+    /**
+     * Plays the move on a scratch copy, removing whatever it captures, and
+     * reports whether the mover's king is safe afterwards.
+     */
+    private boolean leavesKingSafe(Piece p, int x, int y) {
+        Board clone = cloneBoard();
+        Piece cp = clone.getPiece(p.getX(), p.getY());
+        if (cp == null) {
+            return false;
+        }
+        Piece captured = clone.getPiece(x, y);
+        if (captured == null && p instanceof Pawn && p.getY() != y) {
+            captured = clone.getPiece(p.getX(), y);
+        }
+        if (captured != null) {
+            clone.pieces.remove(captured);
+            clone.material -= Material.unit(captured);
+        }
+        cp.forceMove(x, y);
+        return !clone.isInCheck(p.getSide());
+    }
+
     public boolean isObstructed(Piece p, int x, int y) {
         boardLock.lock();
         try {
@@ -157,7 +434,9 @@ public class Board {
         boardLock.lock();
         try {
             for (Piece p : pieces) {
-                if (p.getSide() != side && p.validMove(x, y, getSquareStatus(x, y, p.getSide())) && !isObstructed(p, x, y)) {
+                // pawns only threaten diagonally, whatever is on the square
+                SquareStatus status = p instanceof Pawn ? SquareStatus.ENEMY : getSquareStatus(x, y, p.getSide());
+                if (p.getSide() != side && p.validMove(x, y, status) && !isObstructed(p, x, y)) {
                     return true;
                 }
             }
@@ -181,28 +460,8 @@ public class Board {
         }
     }
 
-    /**
-     * True if the king is in check OR the side has no legal moves. (i.e. check
-     * or “stuck”.)
-     */
-    public boolean isThreatenedOrStuck(int side) {
-        // 1) if the king is under threat, return true immediately
-        if (isInCheck(side)) {
-            return true;
-        }
-
-        // 2) otherwise, if there are no legal moves at all, return true
-        return getAllMoves(side).isEmpty();
-    }
-
     public boolean resolvesCheck(Piece p, int x, int y) {
-        Board clone = cloneBoard();
-        Piece cp = clone.getPiece(p.getX(), p.getY());
-        if (cp == null) {
-            return false;
-        }
-        cp.forceMove(x, y);
-        return !clone.isInCheck(p.getSide());
+        return leavesKingSafe(p, x, y);
     }
 
     private List<Integer[]> movesFor(Piece p) {
@@ -214,24 +473,33 @@ public class Board {
                 if (status == SquareStatus.TEAM) {
                     continue;
                 }
+                if (p instanceof Pawn && status == SquareStatus.EMPTY && isEnPassantTarget(tx, ty)) {
+                    status = SquareStatus.ENEMY;
+                }
                 if (!p.validMove(tx, ty, status)) {
                     continue;
                 }
                 if (isObstructed(p, tx, ty)) {
                     continue;
                 }
-                Board clone = cloneBoard();
-                Piece cp = clone.getPiece(p.getX(), p.getY());
-                cp.forceMove(tx, ty);
-                if (!clone.isInCheck(side)) {
+                if (leavesKingSafe(p, tx, ty)) {
                     list.add(new Integer[]{p.getX(), p.getY(), tx, ty});
                 }
             }
         }
+        if (p instanceof King king) {
+            for (int ty = king.getY() - 2; ty <= king.getY() + 2; ty += 4) {
+                if (ty >= 0 && ty < boardWidth && canCastle(king, ty)) {
+                    list.add(new Integer[]{king.getX(), king.getY(), king.getX(), ty});
+                }
+            }
+        }
         return list;
     }
 
     public List<Integer[]> getAllMoves(int side) {
+        Metrics.moveGenerated();
+        MoveGenerationEvent event = JfrSampling.moveGeneration();
         List<Integer[]> all = new ArrayList<>();
         for (Piece p : getPieces()) {
             if (p.getSide() != side) {
@@ -239,10 +507,17 @@ public class Board {
             }
             all.addAll(movesFor(p));
         }
+        if (event != null) {
+            event.side = side;
+            event.moves = all.size();
+            event.commit();
+        }
         return all;
     }
 
     public Board cloneBoard() {
+        Metrics.boardCloned();
+        BoardCloneEvent event = JfrSampling.boardClone();
         Board clone = new Board(false);
         for (Piece p : pieces) {
             clone.addPiece(p.deepCopy());
@@ -250,7 +525,14 @@ public class Board {
         clone.whiteScore = this.whiteScore;
         clone.blackScore = this.blackScore;
         clone.enPassantTarget = this.enPassantTarget;
+        clone.sideToMove = this.sideToMove;
         clone.movelog.copyFrom(this.movelog);
+        clone.history.copyFrom(this.history);
+        if (event != null) {
+            event.pieces = pieces.size();
+            event.plies = movelog.getMoveCount();
+            event.commit();
+        }
         return clone;
     }
 
@@ -295,6 +577,7 @@ public class Board {
         boardLock.lock();
         try {
             pieces.add(p);
+            material += Material.unit(p);
         } finally {
             boardLock.unlock();
         }
@@ -303,7 +586,9 @@ public class Board {
     public void removePieces(Piece p) {
         boardLock.lock();
         try {
-            pieces.remove(p);
+            if (pieces.remove(p)) {
+                material -= Material.unit(p);
+            }
         } finally {
             boardLock.unlock();
         }
@@ -326,13 +611,92 @@ public class Board {
     }
 
     public String getFEN() {
-        return ""; // (or build a FEN generator if you want)
+        StringBuilder sb = new StringBuilder(90);
+        appendFEN(sb);
+        return sb.toString();
+    }
+
+    /**
+     * Appends the FEN of this position, letting callers that emit many
+     * positions reuse a single buffer.
+     */
+    public void appendFEN(StringBuilder sb) {
+        boardLock.lock();
+        try {
+            FenCodec.write(pieces, sideToMove, enPassantTarget,
+                    movelog.getHalfMoveClock(), movelog.getFullMoveCount(), sb);
+        } finally {
+            boardLock.unlock();
+        }
+    }
+
+    /**
+     * Zobrist key of this position: pieces, side to move, castling rights and
+     * en passant file. Keys are stable across runs, so they can be stored.
+     */
+    public long getZobristKey() {
+        boardLock.lock();
+        try {
+            return Zobrist.key(pieces, sideToMove, enPassantTarget);
+        } finally {
+            boardLock.unlock();
+        }
+    }
+
+    /**
+     * Piece counts per type and side, see {@link Material}.
+     */
+    public long getMaterialSignature() {
+        return material;
+    }
+
+    /**
+     * True if neither side has enough material left to mate: bare kings,
+     * a single minor piece, or only bishops that all stand on one colour.
+     */
+    public boolean isInsufficientMaterial() {
+        long signature = material;
+        if (!Material.onlyMinors(signature)) {
+            return false;
+        }
+        if (Material.minorCount(signature) <= 1) {
+            return true;
+        }
+        if (Material.hasKnights(signature)) {
+            return false;
+        }
+        boardLock.lock();
+        try {
+            int colours = 0;
+            for (Piece p : pieces) {
+                if (p instanceof Bishop) {
+                    colours |= 1 << ((p.getX() + p.getY()) & 1);
+                }
+            }
+            return colours != 3;
+        } finally {
+            boardLock.unlock();
+        }
+    }
+
+    void setPositionState(int sideToMove, String enPassantTarget, int halfMoveClock, int fullMoveCount) {
+        this.sideToMove = sideToMove;
+        this.enPassantTarget = enPassantTarget;
+        movelog.setClocks(halfMoveClock, fullMoveCount);
+    }
+
+    public int getSideToMove() {
+        return sideToMove;
     }
 
     public ArrayList<Integer[]> getMoveLog() {
         return movelog.getRawLog();
     }
 
+    public ChessLog getChessLog() {
+        return movelog;
+    }
+
     public int getScore(int side) {
         return (side == 0) ? getWhiteScore() : getBlackScore();
     }
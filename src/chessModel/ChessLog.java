@@ -1,30 +1,40 @@
 package chessModel;
 
-import chessModel.piece.Pawn;
 import chessModel.piece.Piece;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import util.ChessUtil;
 
+/**
+ * Move history of a board. Moves are stored packed into ints in a
+ * {@link MoveHistory} that copies share, so cloning a board does not depend
+ * on the length of the game. SAN is only produced when it is asked for, by
+ * replaying the moves from the start position, and is cached so repeated
+ * exports only pay for new moves.
+ */
 public class ChessLog {
 
+    private static final String PROMOTIONS = "qrbn";
+
     private int fullMoveClock;
     private int halfMoveClock;
-    private final ArrayList<Integer[]> rawLog;
-    private final ArrayList<String> sanLog;
+    private MoveHistory moves;
+    private String startFEN;
     private String player1;
     private String player2;
-    private final String time;
-    private final String date;
+    private long startMillis;
+    private String result = "*";
+
+    private ArrayList<String> sanCache;
+    private Board sanBoard;
 
     public ChessLog() {
-        rawLog = new ArrayList<>();
-        sanLog = new ArrayList<>();
+        moves = new MoveHistory();
         fullMoveClock = 1;
         halfMoveClock = 0;
-        date = new SimpleDateFormat("yyyy:MM:dd").format(new Date());
-        time = new SimpleDateFormat("HH:mm:ss").format(new Date());
+        // formatted lazily in toPGN; boards are constructed far more often than exported
+        startMillis = System.currentTimeMillis();
     }
 
     public void setPlayerNames(String player1Name, String player2Name) {
@@ -32,38 +42,168 @@ public class ChessLog {
         this.player2 = player2Name;
     }
 
-    public void copyFrom(ChessLog other) {
-        this.fullMoveClock = other.fullMoveClock;
-        this.halfMoveClock = other.halfMoveClock;
-        this.rawLog.clear();
-        this.rawLog.addAll(other.getRawLog());
-        this.sanLog.clear();
-        this.sanLog.addAll(other.getSanLog());
-        this.player1 = other.player1;
-        this.player2 = other.player2;
+    public synchronized void copyFrom(ChessLog other) {
+        synchronized (other) {
+            this.fullMoveClock = other.fullMoveClock;
+            this.halfMoveClock = other.halfMoveClock;
+            this.moves = other.moves.copy();
+            this.startFEN = other.startFEN;
+            this.player1 = other.player1;
+            this.player2 = other.player2;
+            this.startMillis = other.startMillis;
+            this.result = other.result;
+            this.sanCache = null;
+            this.sanBoard = null;
+        }
+    }
+
+    /**
+     * Packs a move as from square, to square and promotion piece.
+     */
+    static int encode(int oldX, int oldY, int newX, int newY, char promotion) {
+        return (oldX << 3 | oldY) | (newX << 3 | newY) << 6 | (PROMOTIONS.indexOf(promotion) + 1) << 12;
+    }
+
+    public static int fromX(int move) {
+        return move >> 3 & 7;
+    }
+
+    public static int fromY(int move) {
+        return move & 7;
+    }
+
+    public static int toX(int move) {
+        return move >> 9 & 7;
+    }
+
+    public static int toY(int move) {
+        return move >> 6 & 7;
+    }
+
+    /**
+     * The promotion piece as a lower case letter, or 0 if the move did not promote.
+     */
+    public static char promotion(int move) {
+        int code = move >> 12 & 7;
+        return code == 0 ? 0 : PROMOTIONS.charAt(code - 1);
     }
 
-    public ArrayList<Integer[]> getRawLog() {
-        return new ArrayList<>(rawLog);
+    public synchronized ArrayList<Integer[]> getRawLog() {
+        int[] packed = moves.toArray(0);
+        ArrayList<Integer[]> raw = new ArrayList<>(packed.length);
+        for (int m : packed) {
+            raw.add(new Integer[]{fromX(m), fromY(m), toX(m), toY(m)});
+        }
+        return raw;
     }
 
-    public ArrayList<String> getSanLog() {
-        return new ArrayList<>(sanLog);
+    public synchronized ArrayList<String> getSanLog() {
+        if (sanCache == null) {
+            sanCache = new ArrayList<>(moves.size());
+            sanBoard = new Board(startFEN == null ? FenCodec.START_POSITION : startFEN);
+        }
+        StringBuilder sb = new StringBuilder(8);
+        for (int m : moves.toArray(sanCache.size())) {
+            sb.setLength(0);
+            if (!SanWriter.appendAndPlay(sanBoard, fromX(m), fromY(m), toX(m), toY(m), promotion(m), sb)) {
+                // the replay lost track of the game; fall back to coordinates
+                sb.append(ChessUtil.convertLocation(fromX(m), fromY(m)))
+                        .append(ChessUtil.convertLocation(toX(m), toY(m)));
+            }
+            sanCache.add(sb.toString());
+        }
+        return new ArrayList<>(sanCache);
     }
 
-    public void addToLog(int oldX, int oldY, int newX, int newY, Piece piece, Piece capture) {
-        rawLog.add(new Integer[]{oldX, oldY, newX, newY});
+    /**
+     * @param promotion lower case letter of the piece a pawn promoted to, or 0
+     */
+    public synchronized void addToLog(int oldX, int oldY, int newX, int newY, Piece piece, char promotion) {
+        moves.add(encode(oldX, oldY, newX, newY, promotion));
 
-        if (rawLog.size() % 2 == 0) {
+        if (piece.getSide() == 1) {
             fullMoveClock++;
         }
+    }
+
+    /**
+     * Drops the newest move and puts the clocks back to what they were
+     * before it.
+     */
+    synchronized void removeLast(int halfMoveClock, int fullMoveClock) {
+        moves.removeLast();
+        this.halfMoveClock = halfMoveClock;
+        this.fullMoveClock = fullMoveClock;
+        if (sanCache != null && sanCache.size() > moves.size()) {
+            // the replay board is past the new end; start over when next asked
+            sanCache = null;
+            sanBoard = null;
+        }
+    }
+
+    public synchronized int getMoveCount() {
+        return moves.size();
+    }
+
+    /**
+     * All packed moves in order.
+     */
+    public synchronized int[] getMoves() {
+        return moves.toArray(0);
+    }
 
-        String center = (capture != null) ? "x" : "-";
-        if (piece instanceof Pawn && Math.abs(oldX - newX) == 2) {
-            sanLog.add(ChessUtil.convertLocation(newX, newY));
-        } else {
-            sanLog.add(piece.getChar().toUpperCase() + ChessUtil.convertLocation(oldX, oldY) + center + ChessUtil.convertLocation(newX, newY));
+    /**
+     * The packed move at the given ply; decode it with fromX, fromY, toX,
+     * toY and promotion.
+     */
+    public synchronized int getMove(int ply) {
+        if (ply < 0 || ply >= moves.size()) {
+            throw new IndexOutOfBoundsException("ply " + ply + " of " + moves.size());
         }
+        return moves.get(ply);
+    }
+
+    public String getWhiteName() {
+        return player1;
+    }
+
+    public String getBlackName() {
+        return player2;
+    }
+
+    /**
+     * @param result the PGN result: 1-0, 0-1, 1/2-1/2 or *
+     */
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    /**
+     * Wall clock start of the game in epoch milliseconds, or 0 if unknown.
+     */
+    public long getStartTime() {
+        return startMillis;
+    }
+
+    public void setStartTime(long startMillis) {
+        this.startMillis = startMillis;
+    }
+
+    public void setStartFEN(String fen) {
+        this.startFEN = fen;
+    }
+
+    public String getStartFEN() {
+        return startFEN;
+    }
+
+    public void setClocks(int halfMoveClock, int fullMoveClock) {
+        this.halfMoveClock = halfMoveClock;
+        this.fullMoveClock = fullMoveClock;
     }
 
     public void resetHalfMoveClock() {
@@ -80,28 +220,44 @@ public class ChessLog {
     }
 
     public String toPGN() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("[Date \"").append(date).append("\"]\n");
-        sb.append("[Time \"").append(time).append("\"]\n");
+        ArrayList<String> san = getSanLog();
+        StringBuilder sb = new StringBuilder(128 + san.size() * 8);
+        if (startMillis != 0) {
+            Date start = new Date(startMillis);
+            sb.append("[Date \"").append(new SimpleDateFormat("yyyy:MM:dd").format(start)).append("\"]\n");
+            sb.append("[Time \"").append(new SimpleDateFormat("HH:mm:ss").format(start)).append("\"]\n");
+        }
         if (player1 != null) {
             sb.append("[White \"").append(player1).append("\"]\n");
         }
         if (player2 != null) {
             sb.append("[Black \"").append(player2).append("\"]\n");
         }
+        sb.append("[Result \"").append(result).append("\"]\n");
+        int firstMove = 1;
+        boolean blackFirst = false;
+        if (startFEN != null && !startFEN.equals(FenCodec.START_POSITION)) {
+            sb.append("[SetUp \"1\"]\n");
+            sb.append("[FEN \"").append(startFEN).append("\"]\n");
+            firstMove = Integer.parseInt(startFEN.substring(startFEN.lastIndexOf(' ') + 1));
+            blackFirst = startFEN.charAt(startFEN.indexOf(' ') + 1) == 'b';
+        }
         sb.append("\n");
 
-        int moveNumber = 1;
-        for (String move : sanLog) {
-            if (moveNumber % 2 == 1) {
-                sb.append((moveNumber + 1) / 2).append(". ");
+        int ply = blackFirst ? 1 : 0;
+        for (String move : san) {
+            if (ply % 2 == 0) {
+                sb.append(firstMove + ply / 2).append(". ");
+            } else if (ply == 1 && blackFirst) {
+                sb.append(firstMove).append("... ");
             }
             sb.append(move).append(" ");
-            if (moveNumber % 6 == 0) {
+            ply++;
+            if (ply % 6 == 0) {
                 sb.append("\n");
             }
-            moveNumber++;
         }
+        sb.append(result);
         return sb.toString();
     }
 
@@ -112,7 +268,7 @@ public class ChessLog {
     public int getHalfMoveCount() {
         return halfMoveClock;
     }
-    
+
     public int getHalfMoveClock() {
         return halfMoveClock;
     }
@@ -1,32 +1,218 @@
 package chessModel;
 
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
 
+/**
+ * Game event logging. Callers only pay for a level check when a level is
+ * disabled; enabled records are pushed into a lock-free ring and formatted
+ * and written by a single background thread.
+ *
+ * Configured through system properties: chess.log.level (DEBUG, INFO, WARN,
+ * OFF), chess.log.format (text or json) and chess.log.capacity (ring size).
+ */
 public class ChessLogger {
 
-    private static final boolean VERBOSE = true;
-    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+    public enum Level {
+        DEBUG, INFO, WARN, OFF
+    }
+
+    private static final Level LEVEL = parseLevel(System.getProperty("chess.log.level", "INFO"));
+    private static final boolean JSON = "json".equalsIgnoreCase(System.getProperty("chess.log.format", "text"));
+    private static final LogRingBuffer RING = new LogRingBuffer(Integer.getInteger("chess.log.capacity", 8192));
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    private static final TimeZone ZONE = TimeZone.getDefault();
+
+    private static final Thread WRITER;
+    // records written and flushed to System.out, and the most any flush() waits for
+    private static final Object FLUSHED = new Object();
+    private static long flushed;
+    private static volatile long flushTarget;
+
+    static {
+        WRITER = new Thread(ChessLogger::drainLoop, "chess-log-writer");
+        WRITER.setDaemon(true);
+        if (LEVEL != Level.OFF) {
+            WRITER.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(ChessLogger::flush, "chess-log-flush"));
+        }
+    }
 
-    private static String timestamp() {
-        return "[" + LocalTime.now().format(TIME_FORMATTER) + "]";
+    public static boolean isEnabled(Level level) {
+        return level.ordinal() >= LEVEL.ordinal() && level != Level.OFF;
     }
 
     public static void logGameEvent(String message) {
-        if (VERBOSE) {
-            System.out.println(timestamp() + " [Game] " + message);
+        log(Level.INFO, "Game", message);
+    }
+
+    public static void logGameEvent(Level level, Supplier<String> message) {
+        if (isEnabled(level)) {
+            log(level, "Game", message.get());
         }
     }
 
     public static void logUserAction(String message) {
-        if (VERBOSE) {
-            System.out.println(timestamp() + " [User] " + message);
-        }
+        log(Level.INFO, "User", message);
     }
 
     public static void logGame(String message) {
-        if (VERBOSE) {
-            System.out.println(timestamp() + " [Game] " + message);
+        log(Level.INFO, "Game", message);
+    }
+
+    public static void log(Level level, String category, String message) {
+        if (isEnabled(level)) {
+            RING.offer(System.currentTimeMillis(), level, category, message);
+        }
+    }
+
+    /**
+     * Number of records discarded because the writer could not keep up.
+     */
+    public static long getDroppedCount() {
+        return RING.getDroppedCount();
+    }
+
+    /**
+     * Blocks until every record queued so far has been written and flushed
+     * to the output, or the writer has died.
+     */
+    public static void flush() {
+        if (!WRITER.isAlive()) {
+            return;
+        }
+        long target = RING.claimed();
+        synchronized (FLUSHED) {
+            flushTarget = Math.max(flushTarget, target);
+            while (flushed < target && WRITER.isAlive()) {
+                LockSupport.unpark(WRITER);
+                try {
+                    FLUSHED.wait(TimeUnit.NANOSECONDS.toMillis(IDLE_PARK_NANOS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private static void drainLoop() {
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 14);
+        StringBuilder line = new StringBuilder(256);
+        long reportedDrops = 0;
+        long published = 0;
+        while (true) {
+            try {
+                LogRingBuffer.Slot slot = RING.peek();
+                if (slot == null) {
+                    long drops = RING.getDroppedCount();
+                    if (drops != reportedDrops) {
+                        line.setLength(0);
+                        format(line, System.currentTimeMillis(), Level.WARN, "Log", WRITER.getName(),
+                                "dropped " + (drops - reportedDrops) + " records");
+                        out.append(line);
+                        reportedDrops = drops;
+                    }
+                    out.flush();
+                    published = publishFlushed(published);
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    continue;
+                }
+                line.setLength(0);
+                format(line, slot.timeMillis, slot.level, slot.category, slot.threadName, slot.message);
+                RING.release(slot);
+                out.append(line);
+                if (RING.consumed() >= flushTarget && published < flushTarget) {
+                    // a flush() is waiting and the ring may not run dry soon
+                    out.flush();
+                    published = publishFlushed(published);
+                }
+            } catch (IOException e) {
+                ErrorLogger.logException(e);
+                return;
+            }
+        }
+    }
+
+    private static long publishFlushed(long published) {
+        long consumed = RING.consumed();
+        if (consumed != published) {
+            synchronized (FLUSHED) {
+                flushed = consumed;
+                FLUSHED.notifyAll();
+            }
+        }
+        return consumed;
+    }
+
+    private static void format(StringBuilder sb, long millis, Level level, String category, String thread, String message) {
+        if (JSON) {
+            sb.append("{\"ts\":").append(millis)
+                    .append(",\"level\":\"").append(level)
+                    .append("\",\"category\":\"").append(category)
+                    .append("\",\"thread\":\"");
+            appendEscaped(sb, thread);
+            sb.append("\",\"msg\":\"");
+            appendEscaped(sb, message);
+            sb.append("\"}\n");
+        } else {
+            sb.append('[');
+            appendTime(sb, millis);
+            sb.append("] [").append(category).append("] ");
+            if (level != Level.INFO) {
+                sb.append(level).append(' ');
+            }
+            sb.append(message).append('\n');
+        }
+    }
+
+    private static void appendTime(StringBuilder sb, long millis) {
+        long local = millis + ZONE.getOffset(millis);
+        long dayMillis = Math.floorMod(local, TimeUnit.DAYS.toMillis(1));
+        appendPadded(sb, dayMillis / 3_600_000, 2);
+        sb.append(':');
+        appendPadded(sb, dayMillis / 60_000 % 60, 2);
+        sb.append(':');
+        appendPadded(sb, dayMillis / 1000 % 60, 2);
+        sb.append('.');
+        appendPadded(sb, dayMillis % 1000, 3);
+    }
+
+    private static void appendPadded(StringBuilder sb, long value, int width) {
+        for (long limit = 10; width > 1; width--, limit *= 10) {
+            if (value < limit) {
+                sb.append('0');
+            }
+        }
+        sb.append(value);
+    }
+
+    private static void appendEscaped(StringBuilder sb, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+    }
+
+    private static Level parseLevel(String name) {
+        try {
+            return Level.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return Level.INFO;
         }
     }
 }
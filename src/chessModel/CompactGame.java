@@ -0,0 +1,357 @@
+package chessModel;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A game held in as little memory as possible, for hosting very many slow
+ * or correspondence games in one process. The position is a byte per
+ * square plus a few packed fields, the moves are 16 bits each, and there
+ * are no threads, players or clocks ticking: whoever drives the game hands
+ * moves in with the time they took, and a full {@link Board} exists only
+ * while a move is checked.
+ *
+ * Squares are indexed x * 8 + y as on the board; piece codes are 1-6 for
+ * white PNBRQK and 9-14 for black. Moves are packed as in {@link ChessLog}.
+ */
+public final class CompactGame {
+
+    public static final int ONGOING = 0;
+    public static final int WHITE_WON = 1;
+    public static final int BLACK_WON = 2;
+    public static final int DRAW = 3;
+
+    private static final String PIECES = " PNBRQK  pnbrqk";
+    private static final String CASTLING = "KQkq";
+    private static final char[] NO_MOVES = new char[0];
+    private static final int[] NO_KEYS = new int[0];
+    private static final int SERIALIZED_HEADER_BYTES = 64 + 3 + 2 * 2 + 7 * 4;
+
+    private final byte[] squares = new byte[64];
+    // bit 0 black to move, bits 1-4 castling rights KQkq
+    private byte flags;
+    // en passant file + 1, or 0
+    private byte enPassantFile;
+    private byte result;
+    private short halfMoveClock;
+    private short fullMoveNumber;
+    private int whiteMillis;
+    private int blackMillis;
+    private final int incrementMillis;
+    private final int whiteId;
+    private final int blackId;
+    private final String startFEN;
+    private char[] moves = NO_MOVES;
+    private int moveCount;
+    // low halves of the Zobrist keys since the last pawn move or capture
+    private int[] keys = NO_KEYS;
+    private int keyCount;
+
+    /**
+     * @param fen start position; games sharing a start should pass the same
+     * string, e.g. {@link FenCodec#START_POSITION}, so it is stored once
+     * @param whiteId caller's id for the white player
+     * @param blackId caller's id for the black player
+     */
+    public CompactGame(String fen, int whiteId, int blackId, int timeMillis, int incrementMillis) {
+        this.startFEN = fen;
+        this.whiteId = whiteId;
+        this.blackId = blackId;
+        this.whiteMillis = timeMillis;
+        this.blackMillis = timeMillis;
+        this.incrementMillis = incrementMillis;
+        Board board = new Board(fen);
+        load(board.getFEN());
+        pushKey(board.getZobristKey());
+    }
+
+    public CompactGame(CompactGame other) {
+        System.arraycopy(other.squares, 0, squares, 0, squares.length);
+        flags = other.flags;
+        enPassantFile = other.enPassantFile;
+        result = other.result;
+        halfMoveClock = other.halfMoveClock;
+        fullMoveNumber = other.fullMoveNumber;
+        whiteMillis = other.whiteMillis;
+        blackMillis = other.blackMillis;
+        incrementMillis = other.incrementMillis;
+        whiteId = other.whiteId;
+        blackId = other.blackId;
+        startFEN = other.startFEN;
+        moves = other.moveCount == 0 ? NO_MOVES : Arrays.copyOf(other.moves, other.moveCount);
+        moveCount = other.moveCount;
+        keys = other.keyCount == 0 ? NO_KEYS : Arrays.copyOf(other.keys, other.keyCount);
+        keyCount = other.keyCount;
+    }
+
+    /**
+     * Reads a game written by {@link #write(ByteBuffer)}.
+     */
+    CompactGame(ByteBuffer in, String startFEN) {
+        in.get(squares);
+        flags = in.get();
+        enPassantFile = in.get();
+        result = in.get();
+        halfMoveClock = in.getShort();
+        fullMoveNumber = in.getShort();
+        whiteMillis = in.getInt();
+        blackMillis = in.getInt();
+        incrementMillis = in.getInt();
+        whiteId = in.getInt();
+        blackId = in.getInt();
+        this.startFEN = startFEN;
+        moveCount = in.getInt();
+        keyCount = in.getInt();
+        moves = moveCount == 0 ? NO_MOVES : new char[moveCount];
+        in.asCharBuffer().get(moves);
+        in.position(in.position() + moveCount * 2);
+        keys = keyCount == 0 ? NO_KEYS : new int[keyCount];
+        in.asIntBuffer().get(keys);
+        in.position(in.position() + keyCount * 4);
+    }
+
+    /**
+     * Bytes written by {@link #write(ByteBuffer)}.
+     */
+    int serializedSize() {
+        return SERIALIZED_HEADER_BYTES + moveCount * 2 + keyCount * 4;
+    }
+
+    /**
+     * Writes everything but the start position, which the reader supplies.
+     */
+    void write(ByteBuffer out) {
+        out.put(squares).put(flags).put(enPassantFile).put(result)
+                .putShort(halfMoveClock).putShort(fullMoveNumber)
+                .putInt(whiteMillis).putInt(blackMillis).putInt(incrementMillis)
+                .putInt(whiteId).putInt(blackId)
+                .putInt(moveCount).putInt(keyCount);
+        out.asCharBuffer().put(moves, 0, moveCount);
+        out.position(out.position() + moveCount * 2);
+        out.asIntBuffer().put(keys, 0, keyCount);
+        out.position(out.position() + keyCount * 4);
+    }
+
+    /**
+     * Plays a move for the side to move, charging it the time it took and
+     * adding the increment. A move that arrives after the clock ran out
+     * loses the game instead.
+     *
+     * @return true if the move was legal and played
+     */
+    public boolean play(int fromX, int fromY, int toX, int toY, char promotion, int elapsedMillis) {
+        if (result != ONGOING || checkTime(elapsedMillis)) {
+            return false;
+        }
+        int code = squares[fromX * 8 + fromY];
+        if (code == 0 || code >> 3 != getSideToMove()) {
+            return false;
+        }
+        Board board = toBoard();
+        MoveRecord record = board.play(fromX, fromY, toX, toY, promotion);
+        if (record == null) {
+            return false;
+        }
+        if (record.getSide() == 0) {
+            whiteMillis += incrementMillis - elapsedMillis;
+        } else {
+            blackMillis += incrementMillis - elapsedMillis;
+        }
+        if (moveCount == moves.length) {
+            moves = Arrays.copyOf(moves, Math.max(8, moveCount + (moveCount >> 1)));
+        }
+        moves[moveCount++] = (char) ChessLog.encode(fromX, fromY, toX, toY, record.getPromotion());
+        load(board.getFEN());
+        if (halfMoveClock == 0) {
+            keyCount = 0;
+        }
+        pushKey(board.getZobristKey());
+        adjudicate(board);
+        return true;
+    }
+
+    /**
+     * Ends the game on time if the side to move has used up its clock.
+     *
+     * @param elapsedMillis time since that side's turn began
+     * @return true if the side to move lost on time
+     */
+    public boolean checkTime(int elapsedMillis) {
+        if (result == ONGOING && elapsedMillis >= getClockMillis(getSideToMove())) {
+            result = (byte) (getSideToMove() == 0 ? BLACK_WON : WHITE_WON);
+            return true;
+        }
+        return false;
+    }
+
+    public void resign(int side) {
+        if (result == ONGOING) {
+            result = (byte) (side == 0 ? BLACK_WON : WHITE_WON);
+        }
+    }
+
+    private void adjudicate(Board board) {
+        int side = board.getSideToMove();
+        if (board.getAllMoves(side).isEmpty()) {
+            result = (byte) (!board.isInCheck(side) ? DRAW : side == 0 ? BLACK_WON : WHITE_WON);
+        } else if (halfMoveClock >= 100 || board.isInsufficientMaterial() || repetitions() >= 3) {
+            result = DRAW;
+        }
+    }
+
+    // like PositionHistory, only every second entry can match
+    private int repetitions() {
+        int current = keys[keyCount - 1];
+        int count = 1;
+        for (int i = keyCount - 3; i >= 0; i -= 2) {
+            if (keys[i] == current) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void pushKey(long key) {
+        if (keyCount == keys.length) {
+            keys = Arrays.copyOf(keys, Math.max(4, keyCount * 2));
+        }
+        keys[keyCount++] = (int) key;
+    }
+
+    /**
+     * A full board for the current position, e.g. to show it or let a bot
+     * search it. It knows nothing of the earlier moves.
+     */
+    public Board toBoard() {
+        return new Board(getFEN());
+    }
+
+    public String getFEN() {
+        StringBuilder sb = new StringBuilder(90);
+        for (int x = 0; x < 8; x++) {
+            int empty = 0;
+            for (int y = 0; y < 8; y++) {
+                int code = squares[x * 8 + y];
+                if (code == 0) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    sb.append(empty);
+                    empty = 0;
+                }
+                sb.append(PIECES.charAt(code));
+            }
+            if (empty > 0) {
+                sb.append(empty);
+            }
+            if (x < 7) {
+                sb.append('/');
+            }
+        }
+        sb.append(getSideToMove() == 0 ? " w " : " b ");
+        int before = sb.length();
+        for (int i = 0; i < CASTLING.length(); i++) {
+            if ((flags & 2 << i) != 0) {
+                sb.append(CASTLING.charAt(i));
+            }
+        }
+        if (sb.length() == before) {
+            sb.append('-');
+        }
+        sb.append(' ');
+        if (enPassantFile == 0) {
+            sb.append('-');
+        } else {
+            sb.append((char) ('a' + enPassantFile - 1)).append(getSideToMove() == 0 ? '6' : '3');
+        }
+        return sb.append(' ').append(halfMoveClock).append(' ').append(fullMoveNumber).toString();
+    }
+
+    private void load(String fen) {
+        String[] fields = fen.split(" ");
+        int x = 0;
+        int y = 0;
+        for (char c : fields[0].toCharArray()) {
+            if (c == '/') {
+                x++;
+                y = 0;
+            } else if (c >= '1' && c <= '8') {
+                for (int i = 0; i < c - '0'; i++) {
+                    squares[x * 8 + y++] = 0;
+                }
+            } else {
+                squares[x * 8 + y++] = (byte) PIECES.indexOf(c);
+            }
+        }
+        int f = fields[1].equals("b") ? 1 : 0;
+        for (int i = 0; i < CASTLING.length(); i++) {
+            if (fields[2].indexOf(CASTLING.charAt(i)) >= 0) {
+                f |= 2 << i;
+            }
+        }
+        flags = (byte) f;
+        enPassantFile = (byte) (fields[3].equals("-") ? 0 : fields[3].charAt(0) - 'a' + 1);
+        halfMoveClock = Short.parseShort(fields[4]);
+        fullMoveNumber = Short.parseShort(fields[5]);
+    }
+
+    public int getSideToMove() {
+        return flags & 1;
+    }
+
+    /**
+     * The piece code on (x, y), 0 if empty.
+     */
+    public int getPiece(int x, int y) {
+        return squares[x * 8 + y];
+    }
+
+    /**
+     * One of {@link #ONGOING}, {@link #WHITE_WON}, {@link #BLACK_WON} or
+     * {@link #DRAW}.
+     */
+    public int getResult() {
+        return result;
+    }
+
+    public int getClockMillis(int side) {
+        return side == 0 ? whiteMillis : blackMillis;
+    }
+
+    public int getWhiteId() {
+        return whiteId;
+    }
+
+    public int getBlackId() {
+        return blackId;
+    }
+
+    public String getStartFEN() {
+        return startFEN;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * All moves so far, packed as in {@link ChessLog}.
+     */
+    public int[] getMoves() {
+        int[] out = new int[moveCount];
+        for (int i = 0; i < moveCount; i++) {
+            out[i] = moves[i];
+        }
+        return out;
+    }
+
+    /**
+     * Trims the move and repetition buffers to size, for games about to sit
+     * idle for a long time.
+     */
+    public void compact() {
+        moves = moveCount == 0 ? NO_MOVES : Arrays.copyOf(moves, moveCount);
+        keys = keyCount == 0 ? NO_KEYS : Arrays.copyOf(keys, keyCount);
+    }
+}
@@ -0,0 +1,99 @@
+package chessModel;
+
+import chessModel.piece.King;
+import chessModel.piece.Piece;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Specialised evaluation of known endgames, dispatched on the board's
+ * material signature so the lookup costs one hash probe. Evaluators, or
+ * bitbase probes wrapped as evaluators, are registered for one colour
+ * arrangement and also answer the mirrored one.
+ */
+public final class Endgames {
+
+    @FunctionalInterface
+    public interface Evaluator {
+
+        /**
+         * @return score in centipawns from the strong side's point of view
+         */
+        int evaluate(Board board, int strongSide);
+    }
+
+    private static final class Entry {
+        final Evaluator evaluator;
+        final int strongSide;
+
+        Entry(Evaluator evaluator, int strongSide) {
+            this.evaluator = evaluator;
+            this.strongSide = strongSide;
+        }
+    }
+
+    private static final Map<Long, Entry> EVALUATORS = new ConcurrentHashMap<>();
+
+    static {
+        register("KQvK", (board, strong) -> 900 + drivenToEdge(board, strong));
+        register("KRvK", (board, strong) -> 500 + drivenToEdge(board, strong));
+    }
+
+    private Endgames() {
+    }
+
+    /**
+     * Registers an evaluator for material such as "KRvK", with white as the
+     * strong side; the mirrored material gets it with black as strong side.
+     */
+    public static void register(String code, Evaluator evaluator) {
+        long signature = Material.parse(code);
+        EVALUATORS.put(signature, new Entry(evaluator, 0));
+        EVALUATORS.putIfAbsent(Material.mirror(signature), new Entry(evaluator, 1));
+    }
+
+    /**
+     * Scores the position for the given side if its material is a known
+     * endgame; dead-drawn material scores 0.
+     */
+    public static OptionalInt evaluate(Board board, int side) {
+        if (board.isInsufficientMaterial()) {
+            return OptionalInt.of(0);
+        }
+        Entry entry = EVALUATORS.get(board.getMaterialSignature());
+        if (entry == null) {
+            return OptionalInt.empty();
+        }
+        int score = entry.evaluator.evaluate(board, entry.strongSide);
+        return OptionalInt.of(side == entry.strongSide ? score : -score);
+    }
+
+    public static boolean isKnown(long signature) {
+        return Material.isInsufficient(signature) || EVALUATORS.containsKey(signature);
+    }
+
+    /**
+     * Mating bonus for a lone king: push it to the edge and bring the
+     * attacking king close.
+     */
+    private static int drivenToEdge(Board board, int strongSide) {
+        King strong = null;
+        King weak = null;
+        for (Piece p : board.getPieces()) {
+            if (p instanceof King k) {
+                if (k.getSide() == strongSide) {
+                    strong = k;
+                } else {
+                    weak = k;
+                }
+            }
+        }
+        if (strong == null || weak == null) {
+            return 0;
+        }
+        int centre = Math.max(3 - weak.getX(), weak.getX() - 4) + Math.max(3 - weak.getY(), weak.getY() - 4);
+        int kings = Math.abs(strong.getX() - weak.getX()) + Math.abs(strong.getY() - weak.getY());
+        return 20 * centre + 10 * (14 - kings);
+    }
+}
@@ -0,0 +1,239 @@
+package chessModel;
+
+import chessModel.piece.*;
+import java.util.List;
+
+/**
+ * Reads and writes Forsyth-Edwards Notation directly against the board's
+ * piece list. Writing appends into a caller supplied StringBuilder and parsing
+ * walks the input character by character, so streaming large position sets
+ * only allocates the pieces themselves.
+ */
+public final class FenCodec {
+
+    public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static final int SIZE = 8;
+
+    private FenCodec() {
+    }
+
+    static void write(List<Piece> pieces, int sideToMove, String enPassantTarget,
+            int halfMoveClock, int fullMoveCount, StringBuilder sb) {
+        Piece[] grid = new Piece[SIZE * SIZE];
+        for (Piece p : pieces) {
+            grid[p.getX() * SIZE + p.getY()] = p;
+        }
+
+        for (int x = 0; x < SIZE; x++) {
+            int empty = 0;
+            for (int y = 0; y < SIZE; y++) {
+                Piece p = grid[x * SIZE + y];
+                if (p == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    sb.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                sb.append(p.getChar().charAt(0));
+            }
+            if (empty > 0) {
+                sb.append((char) ('0' + empty));
+            }
+            if (x < SIZE - 1) {
+                sb.append('/');
+            }
+        }
+
+        sb.append(sideToMove == 0 ? " w " : " b ");
+
+        int before = sb.length();
+        if (canCastle(grid, 7, 7, 0)) {
+            sb.append('K');
+        }
+        if (canCastle(grid, 7, 0, 0)) {
+            sb.append('Q');
+        }
+        if (canCastle(grid, 0, 7, 1)) {
+            sb.append('k');
+        }
+        if (canCastle(grid, 0, 0, 1)) {
+            sb.append('q');
+        }
+        if (sb.length() == before) {
+            sb.append('-');
+        }
+
+        sb.append(' ');
+        if (enPassantTarget == null || enPassantTarget.isEmpty()) {
+            sb.append('-');
+        } else {
+            sb.append(enPassantTarget);
+        }
+        sb.append(' ').append(halfMoveClock).append(' ').append(fullMoveCount);
+    }
+
+    private static boolean canCastle(Piece[] grid, int row, int rookCol, int side) {
+        Piece king = grid[row * SIZE + 4];
+        Piece rook = grid[row * SIZE + rookCol];
+        return king instanceof King k && k.getSide() == side && !k.hasMoved()
+                && rook instanceof Rook r && r.getSide() == side && !r.hasMoved();
+    }
+
+    /**
+     * Populates an empty board from a FEN record.
+     *
+     * @throws IllegalArgumentException if the record is malformed
+     */
+    static void read(CharSequence fen, Board board) {
+        int len = fen.length();
+        int i = 0;
+        int x = 0;
+        int y = 0;
+
+        for (; i < len; i++) {
+            char c = fen.charAt(i);
+            if (c == ' ') {
+                break;
+            }
+            if (c == '/') {
+                if (y != SIZE) {
+                    throw malformed(fen, "rank " + (SIZE - x) + " has " + y + " files");
+                }
+                x++;
+                y = 0;
+            } else if (c >= '1' && c <= '8') {
+                y += c - '0';
+            } else {
+                if (x >= SIZE || y >= SIZE) {
+                    throw malformed(fen, "piece outside the board");
+                }
+                board.addPiece(createPiece(c, x, y, fen));
+                y++;
+            }
+        }
+        if (x != SIZE - 1 || y != SIZE) {
+            throw malformed(fen, "piece placement does not cover 8 ranks");
+        }
+
+        i = skipSpaces(fen, i);
+        if (i >= len) {
+            throw malformed(fen, "missing side to move");
+        }
+        int sideToMove;
+        switch (fen.charAt(i)) {
+            case 'w' ->
+                sideToMove = 0;
+            case 'b' ->
+                sideToMove = 1;
+            default ->
+                throw malformed(fen, "side to move must be w or b");
+        }
+        i++;
+
+        // castling rights; optional so that bare EPD-style records still load
+        boolean wk = false, wq = false, bk = false, bq = false;
+        i = skipSpaces(fen, i);
+        for (; i < len && fen.charAt(i) != ' '; i++) {
+            switch (fen.charAt(i)) {
+                case 'K' ->
+                    wk = true;
+                case 'Q' ->
+                    wq = true;
+                case 'k' ->
+                    bk = true;
+                case 'q' ->
+                    bq = true;
+                case '-' -> {
+                }
+                default ->
+                    throw malformed(fen, "bad castling field");
+            }
+        }
+
+        String enPassant = "";
+        i = skipSpaces(fen, i);
+        if (i < len && fen.charAt(i) != '-') {
+            if (i + 1 >= len) {
+                throw malformed(fen, "bad en passant square");
+            }
+            enPassant = fen.subSequence(i, i + 2).toString();
+            i += 2;
+        } else if (i < len) {
+            i++;
+        }
+
+        int halfMove = 0;
+        int fullMove = 1;
+        i = skipSpaces(fen, i);
+        if (i < len) {
+            for (; i < len && fen.charAt(i) != ' '; i++) {
+                halfMove = halfMove * 10 + digit(fen, i);
+            }
+            i = skipSpaces(fen, i);
+            if (i < len) {
+                fullMove = 0;
+                for (; i < len && fen.charAt(i) != ' '; i++) {
+                    fullMove = fullMove * 10 + digit(fen, i);
+                }
+            }
+        }
+
+        markMovedPieces(board, wk, wq, bk, bq);
+        board.setPositionState(sideToMove, enPassant, halfMove, Math.max(1, fullMove));
+    }
+
+    private static Piece createPiece(char c, int x, int y, CharSequence fen) {
+        Piece piece = Piece.create(c, x, y);
+        if (piece == null) {
+            throw malformed(fen, "unknown piece '" + c + "'");
+        }
+        if (piece instanceof Pawn pawn) {
+            pawn.setHasTakenFirstMove(x != (pawn.getSide() == 0 ? 6 : 1));
+        }
+        return piece;
+    }
+
+    /**
+     * Kings and rooks that have lost their castling rights are flagged as
+     * moved, which is how the board tracks those rights.
+     */
+    private static void markMovedPieces(Board board, boolean wk, boolean wq, boolean bk, boolean bq) {
+        for (Piece p : board.getPieces()) {
+            if (p instanceof King k) {
+                boolean home = k.getX() == (k.getSide() == 0 ? 7 : 0) && k.getY() == 4;
+                boolean rights = k.getSide() == 0 ? (wk || wq) : (bk || bq);
+                k.setHasMoved(!(home && rights));
+            } else if (p instanceof Rook r) {
+                boolean rights;
+                if (r.getSide() == 0) {
+                    rights = r.getX() == 7 && ((r.getY() == 7 && wk) || (r.getY() == 0 && wq));
+                } else {
+                    rights = r.getX() == 0 && ((r.getY() == 7 && bk) || (r.getY() == 0 && bq));
+                }
+                r.setHasMoved(!rights);
+            }
+        }
+    }
+
+    private static int skipSpaces(CharSequence fen, int i) {
+        while (i < fen.length() && fen.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int digit(CharSequence fen, int i) {
+        char c = fen.charAt(i);
+        if (c < '0' || c > '9') {
+            throw malformed(fen, "expected a number");
+        }
+        return c - '0';
+    }
+
+    private static IllegalArgumentException malformed(CharSequence fen, String reason) {
+        return new IllegalArgumentException("Invalid FEN \"" + fen + "\": " + reason);
+    }
+}
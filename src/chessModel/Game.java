@@ -1,10 +1,20 @@
 package chessModel;
 
+import chessMetrics.Metrics;
+import chessMetrics.TurnEvent;
+import chessModel.ChessLogger.Level;
 import chessModel.piece.Piece;
 import chessViewController.HumanPlayer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class Game {
 
@@ -19,6 +29,18 @@ public class Game {
 
     // why the game ended
     private String endReason = "";
+    private boolean finished;
+    private final CompletableFuture<Game> completion = new CompletableFuture<>();
+
+    // moves that can be taken back, and taken-back moves that can be replayed; newest first
+    private final Deque<MoveRecord> undoStack = new ArrayDeque<>();
+    private final Deque<MoveRecord> redoStack = new ArrayDeque<>();
+
+    // the turn waiting out the delay; a takeback replaces it
+    private ScheduledFuture<?> nextTurn;
+
+    // pause between turns so people can follow the board
+    private volatile long turnDelayMillis = 200;
 
     // game state
     private int currentSide;
@@ -29,9 +51,32 @@ public class Game {
     // timing
     private final Time player1TimeLeft;
     private final Time player2TimeLeft;
+    private final int incrementSeconds;
+
+    // legal moves of the side to move, generated once per position by the
+    // game-over checks and reused to validate premoves
+    private volatile LegalMoves legalMoves;
 
-    // move executor
-    private Thread computeMove;
+    private static final class LegalMoves {
+
+        final int side;
+        final int ply;
+        final long key;
+        final Set<Integer> moves;
+
+        LegalMoves(int side, int ply, long key, Set<Integer> moves) {
+            this.side = side;
+            this.ply = ply;
+            this.key = key;
+            this.moves = moves;
+        }
+    }
+
+    // the move being computed; stopping it ends the current turn's search
+    private volatile StopToken moveStop;
+    private static final int MOVES_TO_GO = 30;
+    private static final long MIN_MOVE_MILLIS = 100;
+    private static final long MOVE_GRACE_MILLIS = 500;
 
     public static final int HUMAN_VS_AI = 0;
     public static final int HUMAN_VS_HUMAN = 1;
@@ -41,23 +86,51 @@ public class Game {
     public static final int MAX_INVALID_MOVES = 10;
 
     public Game(int gameMode, Player player1, Player player2) {
+        this(gameMode, player1, player2, new Board());
+    }
+
+    /**
+     * Starts a game from the given position, e.g. after an opening book
+     * line; the side to move comes from the board.
+     */
+    public Game(int gameMode, Player player1, Player player2, Board start) {
+        this(gameMode, player1, player2, start, DEFAULT_TIME_SECONDS, 0);
+    }
+
+    /**
+     * Starts a game from the given position with a time control: seconds on
+     * each clock and seconds added after every move.
+     */
+    public Game(int gameMode, Player player1, Player player2, Board start, int timeSeconds, int incrementSeconds) {
+        this(gameMode, player1, player2, start, timeSeconds, timeSeconds, incrementSeconds);
+    }
+
+    /**
+     * Like {@link #Game(int, Player, Player, Board, int, int)} with the two
+     * clocks set separately, e.g. to carry on a game with the time its
+     * players had left.
+     */
+    public Game(int gameMode, Player player1, Player player2, Board start,
+            int player1Seconds, int player2Seconds, int incrementSeconds) {
         this.gameMode = gameMode;
         this.player1 = player1;
         this.player2 = player2;
-        this.currentSide = 0;
+        this.currentSide = start.getSideToMove();
         this.invalidMovesCount = 1;
         this.winner = -1;
-        this.board = new Board();
+        this.board = start;
         board.setPlayerNames(player1.getName(), player2.getName());
 
-        this.player1TimeLeft = new Time(DEFAULT_TIME_SECONDS);
-        this.player2TimeLeft = new Time(DEFAULT_TIME_SECONDS);
+        this.player1TimeLeft = new Time(player1Seconds);
+        this.player2TimeLeft = new Time(player2Seconds);
+        this.incrementSeconds = incrementSeconds;
         this.scheduler = Executors.newScheduledThreadPool(2);
 
-        ChessLogger.logGameEvent("New game started: "
+        ChessLogger.logGameEvent(Level.INFO, () -> "New game started: "
                 + player1.getName() + " vs. " + player2.getName()
                 + " Mode=" + describeMode(gameMode));
 
+        Metrics.gameStarted();
         startClocks();
         startGameLoop();
     }
@@ -81,14 +154,14 @@ public class Game {
         scheduler.schedule(this::performTurn, 0, TimeUnit.MILLISECONDS);
     }
 
-    private void performTurn() {
-        ChessLogger.logGameEvent("Starting performTurn for side " + currentSide);
+    private synchronized void performTurn() {
+        ChessLogger.logGameEvent(Level.DEBUG, () -> "Starting performTurn for side " + currentSide);
 
         cancelPreviousMoveIfRunning();
 
         // log in‐check status at turn start
         if (board.isInCheck(currentSide)) {
-            ChessLogger.logGameEvent(getCurrentPlayer().getName() + " is in check.");
+            ChessLogger.logGameEvent(Level.INFO, () -> getCurrentPlayer().getName() + " is in check.");
         }
 
         // bail if already over
@@ -98,80 +171,177 @@ public class Game {
             return;
         }
 
-        ChessLogger.logGameEvent("Turn begins: " + getCurrentPlayer().getName());
+        ChessLogger.logGameEvent(Level.DEBUG, () -> "Turn begins: " + getCurrentPlayer().getName());
 
-        computeMove = new Thread(() -> {
-            ChessLogger.logGameEvent("computeMove thread running for side " + currentSide);
-            ChessLogger.logGameEvent("Calling getMove(board) for " + getCurrentPlayer().getName());
+        Player player = getCurrentPlayer();
+        if (player instanceof HumanPlayer human && playPremove(human)) {
+            return;
+        }
+        StopToken stop = new StopToken();
+        moveStop = stop;
+        AtomicReference<Integer[]> bestSoFar = new AtomicReference<>();
+        SearchLimits limits = SearchLimits.none();
+        long budget = Long.MAX_VALUE;
+        if (!(player instanceof HumanPlayer)) {
+            budget = moveBudgetMillis();
+            limits = SearchLimits.moveTime(budget);
+            scheduler.schedule(stop::stop, budget, TimeUnit.MILLISECONDS);
+        }
+        ChessLogger.logGameEvent(Level.DEBUG, () -> "Requesting move from " + player.getName());
+
+        TurnEvent turn = new TurnEvent();
+        turn.begin();
+        turn.player = player.getName();
+        turn.side = currentSide;
+        turn.ply = board.getChessLog().getMoveCount();
+        long asked = System.nanoTime();
+        CompletableFuture<Integer[]> pending = player.requestMove(board, limits, stop, bestSoFar::set);
+        pending.whenComplete((move, error) -> Metrics.moveLatency(latencyKey(player), System.nanoTime() - asked));
+        if (budget != Long.MAX_VALUE) {
+            // players that ignore the stop token still lose the turn's result
+            pending = pending.completeOnTimeout(null, budget + MOVE_GRACE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        pending.exceptionally(e -> {
+            ErrorLogger.logException(e);
+            return null;
+        }).thenAccept(move -> {
+            synchronized (this) {
+                if (moveStop != stop) {
+                    endTurn(turn, move, TurnEvent.SUPERSEDED);
+                    return; // superseded by a newer turn or a takeback
+                }
+                stop.stop();
+                Integer[] chosen = move != null ? move : bestSoFar.get();
+                boolean played = applyMove(chosen);
+                endTurn(turn, chosen, played ? TurnEvent.PLAYED : chosen == null ? TurnEvent.NO_MOVE : TurnEvent.ILLEGAL);
+            }
+        });
+    }
 
-            Integer[] move = getCurrentPlayer().getMove(board);
+    // one histogram per player in the game, not per player class
+    private static String latencyKey(Player player) {
+        return player.getName() != null ? player.getName() : player.getClass().getSimpleName();
+    }
 
-            if (move == null) {
-                ChessLogger.logGameEvent("getMove() returned null for " + getCurrentPlayer().getName());
-                incrementInvalidMoves();
+    /**
+     * Plays the move the human queued during the opponent's turn if it is
+     * legal now; otherwise it is dropped without counting as invalid.
+     *
+     * @return true if the premove was played
+     */
+    private boolean playPremove(HumanPlayer human) {
+        Integer[] premove = human.takePremove();
+        if (premove == null) {
+            return false;
+        }
+        if (!legalMoves().contains(pack(premove[0], premove[1], premove[2], premove[3]))) {
+            ChessLogger.logGameEvent(Level.DEBUG, () -> "Discarding premove " + moveToString(premove));
+            return false;
+        }
+        TurnEvent turn = new TurnEvent();
+        turn.begin();
+        turn.player = human.getName();
+        turn.side = currentSide;
+        turn.ply = board.getChessLog().getMoveCount();
+        Metrics.moveLatency(latencyKey(human), 0);
+        boolean played = applyMove(premove);
+        endTurn(turn, premove, played ? TurnEvent.PLAYED : TurnEvent.ILLEGAL);
+        return true;
+    }
 
-            } else {
-                ChessLogger.logGameEvent(getCurrentPlayer().getName()
-                        + " attempted move: " + moveToString(move));
+    /**
+     * Records how a turn ended for the flight recorder.
+     */
+    private void endTurn(TurnEvent turn, Integer[] move, String outcome) {
+        turn.end();
+        if (turn.shouldCommit()) {
+            turn.move = moveToString(move);
+            turn.outcome = outcome;
+            turn.commit();
+        }
+    }
 
-                if (move.length >= 4) {
-                    int oldX = move[0], oldY = move[1], newX = move[2], newY = move[3];
-                    Piece piece = board.getPiece(oldX, oldY);
+    /**
+     * Time for one move when the clock is split evenly over the moves still
+     * expected in the game.
+     */
+    private long moveBudgetMillis() {
+        Time clock = currentSide == 0 ? player1TimeLeft : player2TimeLeft;
+        return Math.max(MIN_MOVE_MILLIS, clock.getUnformmatedTime() * 1000L / MOVES_TO_GO);
+    }
 
-                    if (piece != null
-                            && piece.getSide() == currentSide
-                            && move(oldX, oldY, newX, newY)) {
+    /**
+     * @return true if the move was legal and played
+     */
+    private boolean applyMove(Integer[] move) {
+        if (move == null) {
+            ChessLogger.logGameEvent(Level.INFO, () -> "getMove() returned null for " + getCurrentPlayer().getName());
+            incrementInvalidMoves();
 
-                        ChessLogger.logGameEvent("Move succeeded: " + moveToString(move));
+        } else {
+            ChessLogger.logGameEvent(Level.DEBUG, () -> getCurrentPlayer().getName()
+                    + " attempted move: " + moveToString(move));
 
-                        // increment our global move counter
-                        moveCount++;
-                        ChessLogger.logGameEvent("Move count is now " + moveCount);
+            if (move.length >= 4) {
+                int oldX = move[0], oldY = move[1], newX = move[2], newY = move[3];
+                Piece piece = board.getPiece(oldX, oldY);
 
-                        int nextSide = binaryOpposite(currentSide);
-                        if (board.isInCheck(nextSide)) {
-                            ChessLogger.logGameEvent("Check to "
-                                    + (nextSide == 0 ? player1.getName() : player2.getName()));
-                            if (isCheckMate()) {
-                                ChessLogger.logGameEvent("Checkmate! Winner: "
-                                        + getCurrentPlayer().getName());
-                            }
-                        } else if (isDraw()) {
-                            ChessLogger.logGameEvent("Draw by stalemate or no legal moves.");
-                        }
+                if (piece != null
+                        && piece.getSide() == currentSide
+                        && move(oldX, oldY, newX, newY)) {
 
-                        // reset invalid‐moves counter on valid move
-                        invalidMovesCount = 1;
+                    ChessLogger.logGameEvent(Level.DEBUG, () -> "Move succeeded: " + moveToString(move));
 
-                        // if we just triggered game‐over, handle it
-                        if (isGameOver()) {
-                            ChessLogger.logGameEvent("Game over after successful move.");
-                            declareWinner();
-                            return;
+                    // increment our global move counter
+                    moveCount++;
+                    Metrics.movePlayed();
+                    if (incrementSeconds > 0) {
+                        // the side has already switched to the opponent
+                        (currentSide == 0 ? player2TimeLeft : player1TimeLeft).add(incrementSeconds);
+                    }
+                    ChessLogger.logGameEvent(Level.DEBUG, () -> "Move count is now " + moveCount);
+
+                    int nextSide = binaryOpposite(currentSide);
+                    if (board.isInCheck(nextSide)) {
+                        ChessLogger.logGameEvent(Level.INFO, () -> "Check to "
+                                + (nextSide == 0 ? player1.getName() : player2.getName()));
+                        if (isCheckMate()) {
+                            ChessLogger.logGameEvent(Level.INFO, () -> "Checkmate! Winner: "
+                                    + getCurrentPlayer().getName());
                         }
+                    } else if (isDraw()) {
+                        ChessLogger.logGameEvent("Draw by stalemate or no legal moves.");
+                    }
 
-                        ChessLogger.logGameEvent("Move done, scheduling next turn.");
-                        scheduleNextTurn();
-                        return;
+                    // reset invalid‐moves counter on valid move
+                    invalidMovesCount = 1;
+
+                    // if we just triggered game‐over, handle it
+                    if (isGameOver()) {
+                        ChessLogger.logGameEvent("Game over after successful move.");
+                        declareWinner();
+                        return true;
                     }
-                }
 
-                ChessLogger.logGameEvent("Move invalid or piece mismatch, incrementing invalid moves.");
-                incrementInvalidMoves();
+                    ChessLogger.logGameEvent(Level.DEBUG, () -> "Move done, scheduling next turn.");
+                    scheduleNextTurn();
+                    return true;
+                }
             }
 
-            // after an invalid or null move, check again
-            if (isGameOver()) {
-                ChessLogger.logGameEvent("Game over after invalid move.");
-                declareWinner();
-            } else {
-                ChessLogger.logGameEvent("Scheduling next turn after invalid move.");
-                scheduleNextTurn();
-            }
-        });
+            ChessLogger.logGameEvent(Level.DEBUG, () -> "Move invalid or piece mismatch, incrementing invalid moves.");
+            incrementInvalidMoves();
+        }
 
-        computeMove.start();
-        ChessLogger.logGameEvent("computeMove thread started.");
+        // after an invalid or null move, check again
+        if (isGameOver()) {
+            ChessLogger.logGameEvent("Game over after invalid move.");
+            declareWinner();
+        } else {
+            ChessLogger.logGameEvent(Level.DEBUG, () -> "Scheduling next turn after invalid move.");
+            scheduleNextTurn();
+        }
+        return false;
     }
 
     private String moveToString(Integer[] move) {
@@ -185,33 +355,35 @@ public class Game {
     }
 
     private void cancelPreviousMoveIfRunning() {
-        if (computeMove != null && computeMove.isAlive()) {
-            computeMove.interrupt();
+        StopToken stop = moveStop;
+        if (stop != null) {
+            stop.stop();
         }
     }
 
     public boolean isGameOver() {
         boolean halfMoveDraw = board.getHalfMoveClock() >= MAX_HALF_MOVE_COUNT;
+        boolean repetition = board.isThreefoldRepetition();
+        boolean deadPosition = board.isInsufficientMaterial();
         boolean moveLimit = moveCount > MAX_MOVE_COUNT;
         boolean invalidDraw = invalidMovesCount > MAX_INVALID_MOVES;
-        boolean mate = isCheckMate();
-        boolean stalemate = isDraw();
-        boolean stuck = board.isThreatenedOrStuck(currentSide);
+        // checkmate or stalemate, from the moves cached for this position
+        boolean noMoves = legalMoves().isEmpty();
 
         // DEBUG: exactly which condition is tripping
         /*ChessLogger.logGameEvent(String.format(
-            "isGameOver? halfMove=%d/%d, moves=%d/%d, invalid=%d/%d, mate=%b, stalemate=%b",
+            "isGameOver? halfMove=%d/%d, moves=%d/%d, invalid=%d/%d, noMoves=%b",
             board.getHalfMoveClock(), MAX_HALF_MOVE_COUNT,
             moveCount, MAX_MOVE_COUNT,
             invalidMovesCount, MAX_INVALID_MOVES,
-            mate, stalemate
+            noMoves
         ));*/
         return halfMoveDraw
+                || repetition
+                || deadPosition
                 || moveLimit
                 || invalidDraw
-                || mate
-                || stalemate
-                || stuck;
+                || noMoves;
     }
 
     private void declareWinner() {
@@ -220,47 +392,163 @@ public class Game {
             endReason = "Draw by 50-move rule (no pawn move or capture in 50 moves).";
             winner = -1;
 
-            // 2) total-move limit
+            // 2) threefold repetition
+        } else if (board.isThreefoldRepetition()) {
+            endReason = "Draw by threefold repetition.";
+            winner = -1;
+
+            // 3) insufficient material
+        } else if (board.isInsufficientMaterial()) {
+            endReason = "Draw by insufficient material.";
+            winner = -1;
+
+            // 4) total-move limit
         } else if (moveCount > MAX_MOVE_COUNT) {
             endReason = "Draw due to move limit (" + moveCount + " moves).";
             winner = -1;
 
-            // 3) checkmate (player is in check and has no moves left)
+            // 5) checkmate (player is in check and has no moves left)
         } else if (isCheckMate()) {
             winner = binaryOpposite(currentSide);
             endReason = "Checkmate! Winner: " + getCurrentPlayer().getName();
 
-            // 4) check or no legal moves (i.e., "stuck" condition)
-        } else if (board.isThreatenedOrStuck(currentSide)) {
-            // If the current side is either in check or cannot make a valid move
-            endReason = "Player is stuck (in check or no legal moves).";
-            winner = binaryOpposite(currentSide);
-
-            // 5) stalemate or no moves
+            // 6) stalemate (not in check and no moves left)
         } else if (isDraw()) {
             endReason = "Draw by stalemate or no legal moves.";
             winner = -1;
 
-            // 6) fallback
+            // 7) fallback
         } else {
             endReason = "Game over.";
             winner = -1;
         }
 
+        board.getChessLog().setResult(winner == 0 ? "1-0" : winner == 1 ? "0-1" : "1/2-1/2");
         ChessLogger.logGameEvent(endReason);
         scheduler.shutdown();
+        if (!finished) {
+            finished = true;
+            Metrics.gameFinished();
+            completion.complete(this);
+        }
     }
 
-    public boolean move(int oldX, int oldY, int newX, int newY) {
+    public synchronized boolean move(int oldX, int oldY, int newX, int newY) {
         Piece p = board.getPiece(oldX, oldY);
         if (p == null) {
             return false;
         }
-        boolean success = board.move(oldX, oldY, newX, newY);
-        if (success && p.getSide() == currentSide) {
+        MoveRecord record = board.play(oldX, oldY, newX, newY, 'q');
+        if (record == null) {
+            return false;
+        }
+        undoStack.push(record);
+        redoStack.clear();
+        if (p.getSide() == currentSide) {
             currentSide = binaryOpposite(currentSide);
         }
-        return success;
+        return true;
+    }
+
+    /**
+     * Takes back the last move. A turn in progress is abandoned and the
+     * side that made the move is asked again; clocks are left as they are.
+     * Finished games stay finished, but their board can still be stepped
+     * through.
+     *
+     * @return false if there is nothing to take back
+     */
+    public synchronized boolean undo() {
+        MoveRecord record = undoStack.poll();
+        if (record == null) {
+            return false;
+        }
+        abandonTurn();
+        board.unplay(record);
+        redoStack.push(record);
+        currentSide = record.getSide();
+        moveCount--;
+        restartTurn();
+        return true;
+    }
+
+    /**
+     * Plays the last taken-back move again.
+     *
+     * @return false if there is nothing to replay
+     */
+    public synchronized boolean redo() {
+        MoveRecord undone = redoStack.peek();
+        if (undone == null) {
+            return false;
+        }
+        Integer[] m = undone.getMove();
+        char promotion = undone.getPromotion();
+        MoveRecord record = board.play(m[0], m[1], m[2], m[3], promotion == 0 ? 'q' : promotion);
+        if (record == null) {
+            return false;
+        }
+        abandonTurn();
+        redoStack.pop();
+        undoStack.push(record);
+        currentSide = binaryOpposite(record.getSide());
+        moveCount++;
+        restartTurn();
+        return true;
+    }
+
+    /**
+     * Takes back moves until a human is to move again, so a human playing
+     * a bot gets back their own last move; one move if nobody is human.
+     *
+     * @return the number of moves taken back
+     */
+    public synchronized int takeBack() {
+        int undone = 0;
+        while (undo()) {
+            undone++;
+            if (getCurrentPlayer() instanceof HumanPlayer || !(player1 instanceof HumanPlayer || player2 instanceof HumanPlayer)) {
+                break;
+            }
+        }
+        return undone;
+    }
+
+    /**
+     * Takes back moves until only the given number of plies remain.
+     *
+     * @return the number of moves taken back
+     */
+    public synchronized int rewind(int ply) {
+        int undone = 0;
+        while (board.getChessLog().getMoveCount() > ply && undo()) {
+            undone++;
+        }
+        return undone;
+    }
+
+    public synchronized boolean canUndo() {
+        return !undoStack.isEmpty();
+    }
+
+    public synchronized boolean canRedo() {
+        return !redoStack.isEmpty();
+    }
+
+    // the pending move, if any, will be dropped as superseded
+    private void abandonTurn() {
+        StopToken stop = moveStop;
+        moveStop = null;
+        if (stop != null) {
+            stop.stop();
+        }
+    }
+
+    private void restartTurn() {
+        invalidMovesCount = 1;
+        if (!finished) {
+            scheduleNextTurn();
+        }
     }
 
     public void incrementInvalidMoves() {
@@ -268,21 +556,50 @@ public class Game {
             return;
         }
         if (invalidMovesCount == 1) {
-            ChessLogger.logGameEvent(getCurrentPlayer().getName() + " invalid 1");
+            ChessLogger.logGameEvent(Level.INFO, () -> getCurrentPlayer().getName() + " invalid 1");
         } else {
-            ChessLogger.logGameEvent(" " + invalidMovesCount);
+            ChessLogger.logGameEvent(Level.INFO, () -> " " + invalidMovesCount);
         }
         invalidMovesCount++;
+        Metrics.invalidMove();
     }
 
     public boolean isCheckMate() {
-        return board.isInCheck(currentSide)
-                && board.getAllMoves(currentSide).isEmpty();
+        return legalMoves().isEmpty()
+                && board.isInCheck(currentSide);
     }
 
     public boolean isDraw() {
-        return !board.isInCheck(currentSide)
-                && board.getAllMoves(currentSide).isEmpty();
+        return legalMoves().isEmpty()
+                && !board.isInCheck(currentSide);
+    }
+
+    /**
+     * Legal moves of the side to move, packed by {@link #pack}, generated at
+     * most once per position.
+     */
+    private Set<Integer> legalMoves() {
+        int side = currentSide;
+        int ply = board.getChessLog().getMoveCount();
+        long key = board.getZobristKey();
+        LegalMoves cached = legalMoves;
+        if (cached == null || cached.side != side || cached.ply != ply || cached.key != key) {
+            Set<Integer> moves = new HashSet<>();
+            for (Integer[] m : board.getAllMoves(side)) {
+                moves.add(pack(m[0], m[1], m[2], m[3]));
+            }
+            cached = new LegalMoves(side, ply, key, moves);
+            legalMoves = cached;
+        }
+        return cached.moves;
+    }
+
+    // -1, which is never legal, for squares off the board
+    private static int pack(int fromX, int fromY, int toX, int toY) {
+        if (((fromX | fromY | toX | toY) & ~7) != 0) {
+            return -1;
+        }
+        return ((fromX * 8 + fromY) * 8 + toX) * 8 + toY;
     }
 
     public int binaryOpposite(int num) {
@@ -321,6 +638,13 @@ public class Game {
         return player2TimeLeft.getTime();
     }
 
+    /**
+     * Seconds left on a side's clock.
+     */
+    public int getSecondsLeft(int side) {
+        return (side == 0 ? player1TimeLeft : player2TimeLeft).getUnformmatedTime();
+    }
+
     public int getPlayer1Score() {
         return board.getWhiteScore();
     }
@@ -329,6 +653,21 @@ public class Game {
         return board.getBlackScore();
     }
 
+    /**
+     * Completes with this game once a result is declared.
+     */
+    public CompletableFuture<Game> getCompletion() {
+        return completion;
+    }
+
+    /**
+     * Sets the pause before each turn after the first; headless games run
+     * with none.
+     */
+    public void setTurnDelay(long millis) {
+        this.turnDelayMillis = millis;
+    }
+
     public Board getBoard() {
         return board;
     }
@@ -348,10 +687,15 @@ public class Game {
 
     private void scheduleNextTurn() {
         if (!scheduler.isShutdown()) {
-            ChessLogger.logGameEvent("Scheduling next performTurn in 200ms.");
-            scheduler.schedule(this::performTurn, 200, TimeUnit.MILLISECONDS);
+            // a queued premove is answered at once
+            long delay = getCurrentPlayer() instanceof HumanPlayer human && human.hasPremove() ? 0 : turnDelayMillis;
+            ChessLogger.logGameEvent(Level.DEBUG, () -> "Scheduling next performTurn in " + delay + "ms.");
+            if (nextTurn != null) {
+                nextTurn.cancel(false);
+            }
+            nextTurn = scheduler.schedule(this::performTurn, delay, TimeUnit.MILLISECONDS);
         } else {
-            ChessLogger.logGameEvent("Scheduler is shutdown; not scheduling next turn.");
+            ChessLogger.logGameEvent(Level.DEBUG, () -> "Scheduler is shutdown; not scheduling next turn.");
         }
     }
 }
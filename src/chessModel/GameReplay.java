@@ -0,0 +1,143 @@
+package chessModel;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Random access to the positions of a finished or running game. The FEN
+ * of every {@code interval}-th position is kept alongside the packed
+ * moves, so reaching any ply costs at most {@code interval} moves from the
+ * nearest checkpoint or from where the replay already is; stepping back
+ * takes the last move back rather than replaying.
+ */
+public final class GameReplay {
+
+    public static final int DEFAULT_INTERVAL = 16;
+
+    private final int[] moves;
+    private final String[] checkpoints;
+    private final int interval;
+    private final Deque<MoveRecord> played = new ArrayDeque<>();
+    private Board board;
+    private int ply;
+    private int loadedPly;
+
+    /**
+     * Snapshots the game on the board as it stands; later moves are not
+     * seen.
+     */
+    public static GameReplay of(Board game) {
+        ChessLog log = game.getChessLog();
+        String start = log.getStartFEN();
+        return new GameReplay(start == null ? game.getFEN() : start, log.getMoves(), DEFAULT_INTERVAL);
+    }
+
+    /**
+     * Plays the moves through once to take the checkpoints.
+     *
+     * @param moves packed as in {@link ChessLog}
+     * @throws IllegalArgumentException if a move is not legal where it is played
+     */
+    public GameReplay(String startFEN, int[] moves, int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive");
+        }
+        this.moves = moves.clone();
+        this.interval = interval;
+        this.checkpoints = new String[moves.length / interval + 1];
+        Board b = new Board(startFEN);
+        for (int i = 0; i <= moves.length; i++) {
+            if (i % interval == 0) {
+                checkpoints[i / interval] = b.getFEN();
+            }
+            if (i < moves.length && play(b, moves[i]) == null) {
+                throw new IllegalArgumentException("Move " + (i + 1) + " is not legal in " + b.getFEN());
+            }
+        }
+        load(0);
+    }
+
+    public int getPlyCount() {
+        return moves.length;
+    }
+
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * The move that led to the current position, packed, or -1 at the start.
+     */
+    public int getLastMove() {
+        return ply == 0 ? -1 : moves[ply - 1];
+    }
+
+    /**
+     * The position at the current ply. It is replaced, not updated, when a
+     * seek loads a checkpoint, so fetch it again after moving; callers must
+     * not move on it themselves.
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Moves to the given ply, clamped to the game.
+     */
+    public Board seek(int target) {
+        target = Math.max(0, Math.min(moves.length, target));
+        int checkpoint = target / interval * interval;
+        boolean reachable = target >= loadedPly;
+        int fromHere = Math.abs(target - ply);
+        if (!reachable || target - checkpoint < fromHere) {
+            load(checkpoint);
+        }
+        while (ply < target) {
+            stepForward();
+        }
+        while (ply > target) {
+            stepBack();
+        }
+        return board;
+    }
+
+    public boolean stepForward() {
+        if (ply == moves.length) {
+            return false;
+        }
+        played.push(play(board, moves[ply]));
+        ply++;
+        return true;
+    }
+
+    public boolean stepBack() {
+        if (ply == 0) {
+            return false;
+        }
+        if (ply == loadedPly) {
+            // nothing to take back on this board; start from the checkpoint before
+            int target = ply - 1;
+            load(target / interval * interval);
+            while (ply < target) {
+                stepForward();
+            }
+            return true;
+        }
+        board.unplay(played.pop());
+        ply--;
+        return true;
+    }
+
+    private void load(int checkpointPly) {
+        board = new Board(checkpoints[checkpointPly / interval]);
+        played.clear();
+        ply = checkpointPly;
+        loadedPly = checkpointPly;
+    }
+
+    private static MoveRecord play(Board b, int m) {
+        char promotion = ChessLog.promotion(m);
+        return b.play(ChessLog.fromX(m), ChessLog.fromY(m), ChessLog.toX(m), ChessLog.toY(m),
+                promotion == 0 ? 'q' : promotion);
+    }
+}
@@ -0,0 +1,289 @@
+package chessModel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parks idle {@link CompactGame}s outside the Java heap, so the heap and the
+ * collector's work stay the same however many games are waiting on a move.
+ * Games are serialized into slots of an arena made of 4 MB chunks, either
+ * direct buffers or windows of a memory-mapped scratch file, and come back
+ * as objects only while they are read or played.
+ *
+ * Slots come in power-of-two sizes from 128 bytes, each size with its own
+ * free list threaded through the free slots themselves. A game that outgrows
+ * its slot moves to a bigger one under the same handle: handles index a
+ * table that is itself kept in the arena, one 8-byte entry per game. Only
+ * the chunk buffers and the distinct start positions live on the heap.
+ *
+ * The file, if any, is scratch space for paging and is not reopened.
+ */
+public final class IdleGameStore implements Closeable {
+
+    private static final int CHUNK_SHIFT = 22;
+    private static final int CHUNK_BYTES = 1 << CHUNK_SHIFT;
+    private static final int MIN_SLOT_SHIFT = 7;
+    private static final int CLASSES = CHUNK_SHIFT - MIN_SLOT_SHIFT + 1;
+    private static final int PAGE_SHIFT = 16; // handle table entries per page, 512 KB
+    private static final int PAGE_CLASS = PAGE_SHIFT + 3 - MIN_SLOT_SHIFT;
+    private static final long NONE = -1;
+    private static final long FREE = Long.MIN_VALUE;
+    private static final int CLASS_BITS = 5;
+
+    private final FileChannel channel;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private final long[] freeSlots = new long[CLASSES];
+    // next never-used byte of the arena
+    private long top;
+    private long[] pages = new long[0];
+    private int handleCount;
+    private int freeHandle = -1;
+    private int size;
+    private final List<String> fens = new ArrayList<>();
+    private final Map<String, Integer> fenIndex = new HashMap<>();
+
+    /**
+     * A store in direct memory, counted against -XX:MaxDirectMemorySize.
+     */
+    public IdleGameStore() {
+        channel = null;
+        Arrays.fill(freeSlots, NONE);
+    }
+
+    /**
+     * A store paged to a file, which is created or truncated; the operating
+     * system decides how much of it stays in memory.
+     */
+    public IdleGameStore(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        Arrays.fill(freeSlots, NONE);
+    }
+
+    /**
+     * Stores a copy of the game.
+     *
+     * @return the handle to fetch or play it by
+     */
+    public synchronized int park(CompactGame game) {
+        int handle = newHandle();
+        setEntry(handle, store(game));
+        size++;
+        return handle;
+    }
+
+    /**
+     * A heap copy of a parked game, which stays parked.
+     *
+     * @throws IllegalArgumentException if nothing is parked under the handle
+     */
+    public synchronized CompactGame get(int handle) {
+        return load(entry(handle));
+    }
+
+    /**
+     * The current position of a parked game.
+     */
+    public Board toBoard(int handle) {
+        return get(handle).toBoard();
+    }
+
+    /**
+     * Plays a move in a parked game as {@link CompactGame#play} does and
+     * parks the result again.
+     */
+    public synchronized boolean play(int handle, int fromX, int fromY, int toX, int toY,
+            char promotion, int elapsedMillis) {
+        CompactGame game = load(entry(handle));
+        int before = game.getResult();
+        boolean played = game.play(fromX, fromY, toX, toY, promotion, elapsedMillis);
+        if (played || game.getResult() != before) {
+            replace(handle, game);
+        }
+        return played;
+    }
+
+    /**
+     * Replaces a parked game, e.g. after a resignation or time loss.
+     */
+    public synchronized void update(int handle, CompactGame game) {
+        entry(handle);
+        replace(handle, game);
+    }
+
+    /**
+     * Takes a game out of the store and frees its slot and handle.
+     */
+    public synchronized CompactGame remove(int handle) {
+        long entry = entry(handle);
+        CompactGame game = load(entry);
+        free(address(entry), slotClass(entry));
+        setEntry(handle, FREE | (freeHandle + 1));
+        freeHandle = handle;
+        size--;
+        return game;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Bytes of arena taken so far; freed slots are reused, not returned.
+     */
+    public synchronized long getReservedBytes() {
+        return (long) chunks.size() * CHUNK_BYTES;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        chunks.clear();
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void replace(int handle, CompactGame game) {
+        long entry = entry(handle);
+        int cls = slotClass(entry);
+        if (classFor(4 + game.serializedSize()) == cls) {
+            write(address(entry), game);
+        } else {
+            free(address(entry), cls);
+            setEntry(handle, store(game));
+        }
+    }
+
+    private long store(CompactGame game) {
+        int cls = classFor(4 + game.serializedSize());
+        long address = allocate(cls);
+        write(address, game);
+        return address << CLASS_BITS | cls;
+    }
+
+    private void write(long address, CompactGame game) {
+        ByteBuffer out = slot(address);
+        Integer fen = fenIndex.get(game.getStartFEN());
+        if (fen == null) {
+            fen = fens.size();
+            fens.add(game.getStartFEN());
+            fenIndex.put(game.getStartFEN(), fen);
+        }
+        out.putInt(fen);
+        game.write(out);
+    }
+
+    private CompactGame load(long entry) {
+        ByteBuffer in = slot(address(entry));
+        return new CompactGame(in, fens.get(in.getInt()));
+    }
+
+    private static int classFor(int bytes) {
+        if (bytes > CHUNK_BYTES) {
+            throw new IllegalArgumentException("Game of " + bytes + " bytes is too large to park");
+        }
+        int shift = 32 - Integer.numberOfLeadingZeros(Math.max(bytes, 1 << MIN_SLOT_SHIFT) - 1);
+        return shift - MIN_SLOT_SHIFT;
+    }
+
+    private long allocate(int cls) {
+        long address = freeSlots[cls];
+        if (address != NONE) {
+            freeSlots[cls] = chunk(address).getLong(offset(address));
+            return address;
+        }
+        int bytes = 1 << (cls + MIN_SLOT_SHIFT);
+        int used = offset(top);
+        if (top == (long) chunks.size() << CHUNK_SHIFT || used + bytes > CHUNK_BYTES) {
+            if (top != (long) chunks.size() << CHUNK_SHIFT) {
+                // hand the tail of the full chunk to the smaller free lists
+                while (used < CHUNK_BYTES) {
+                    int piece = Integer.lowestOneBit(used);
+                    free(top, Integer.numberOfTrailingZeros(piece) - MIN_SLOT_SHIFT);
+                    top += piece;
+                    used += piece;
+                }
+            }
+            addChunk();
+        }
+        address = top;
+        top += bytes;
+        return address;
+    }
+
+    private void free(long address, int cls) {
+        chunk(address).putLong(offset(address), freeSlots[cls]);
+        freeSlots[cls] = address;
+    }
+
+    private void addChunk() {
+        try {
+            chunks.add(channel == null ? ByteBuffer.allocateDirect(CHUNK_BYTES)
+                    : channel.map(FileChannel.MapMode.READ_WRITE, (long) chunks.size() * CHUNK_BYTES, CHUNK_BYTES));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not grow the game store file", e);
+        }
+    }
+
+    private int newHandle() {
+        if (freeHandle >= 0) {
+            int handle = freeHandle;
+            freeHandle = (int) (rawEntry(handle) & ~FREE) - 1;
+            return handle;
+        }
+        if (handleCount == pages.length << PAGE_SHIFT) {
+            pages = Arrays.copyOf(pages, pages.length + 1);
+            pages[pages.length - 1] = allocate(PAGE_CLASS);
+        }
+        return handleCount++;
+    }
+
+    private long entry(int handle) {
+        long entry = handle >= 0 && handle < handleCount ? rawEntry(handle) : FREE;
+        if ((entry & FREE) != 0) {
+            throw new IllegalArgumentException("No game parked under handle " + handle);
+        }
+        return entry;
+    }
+
+    private long rawEntry(int handle) {
+        long page = pages[handle >>> PAGE_SHIFT];
+        return chunk(page).getLong(offset(page) + (handle & ((1 << PAGE_SHIFT) - 1)) * 8);
+    }
+
+    private void setEntry(int handle, long entry) {
+        long page = pages[handle >>> PAGE_SHIFT];
+        chunk(page).putLong(offset(page) + (handle & ((1 << PAGE_SHIFT) - 1)) * 8, entry);
+    }
+
+    private static long address(long entry) {
+        return entry >>> CLASS_BITS;
+    }
+
+    private static int slotClass(long entry) {
+        return (int) (entry & ((1 << CLASS_BITS) - 1));
+    }
+
+    private ByteBuffer slot(long address) {
+        ByteBuffer b = chunk(address).duplicate();
+        b.position(offset(address));
+        return b;
+    }
+
+    private ByteBuffer chunk(long address) {
+        return chunks.get((int) (address >>> CHUNK_SHIFT));
+    }
+
+    private static int offset(long address) {
+        return (int) (address & (CHUNK_BYTES - 1));
+    }
+}
@@ -0,0 +1,102 @@
+package chessModel;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded multi-producer / single-consumer ring of log records. Producers
+ * claim a slot with a single CAS and never block; when the ring is full the
+ * record is dropped and counted instead.
+ */
+class LogRingBuffer {
+
+    static final class Slot {
+
+        volatile long sequence;
+        long timeMillis;
+        ChessLogger.Level level;
+        String category;
+        String threadName;
+        String message;
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private volatile long head;
+
+    LogRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        slots = new Slot[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+            slots[i].sequence = i;
+        }
+    }
+
+    boolean offer(long timeMillis, ChessLogger.Level level, String category, String message) {
+        while (true) {
+            long pos = tail.get();
+            Slot slot = slots[(int) (pos & mask)];
+            long diff = slot.sequence - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slot.timeMillis = timeMillis;
+                    slot.level = level;
+                    slot.category = category;
+                    slot.threadName = Thread.currentThread().getName();
+                    slot.message = message;
+                    slot.sequence = pos + 1;
+                    return true;
+                }
+            } else if (diff < 0) {
+                dropped.increment();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Returns the next published slot or null if the ring is empty. Only the
+     * writer thread may call this, and it must hand the slot back through
+     * {@link #release(Slot)} once it is done reading it.
+     */
+    Slot peek() {
+        Slot slot = slots[(int) (head & mask)];
+        return slot.sequence == head + 1 ? slot : null;
+    }
+
+    void release(Slot slot) {
+        slot.message = null;
+        slot.sequence = head + slots.length;
+        head++;
+    }
+
+    boolean isEmpty() {
+        return tail.get() == head;
+    }
+
+    /**
+     * Records claimed by producers so far, including any still being filled.
+     */
+    long claimed() {
+        return tail.get();
+    }
+
+    /**
+     * Records released by the writer so far.
+     */
+    long consumed() {
+        return head;
+    }
+
+    long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+}
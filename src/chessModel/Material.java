@@ -0,0 +1,110 @@
+package chessModel;
+
+import chessModel.piece.Piece;
+
+/**
+ * Material signatures: the number of pieces of each type and side packed
+ * into a long, four bits per count, white's six types (P, N, B, R, Q, K) in
+ * the low 24 bits and black's above them. Signatures compare and hash in
+ * constant time, so endgame lookups never need to scan the pieces.
+ */
+public final class Material {
+
+    private static final String TYPES = "PNBRQK";
+    private static final int BITS = 4;
+    private static final long SIDE_MASK = (1L << (6 * BITS)) - 1;
+
+    private Material() {
+    }
+
+    /**
+     * The amount a piece adds to a signature.
+     */
+    static long unit(Piece p) {
+        return unit(p.getChar().charAt(0));
+    }
+
+    private static long unit(char c) {
+        return 1L << shift(c);
+    }
+
+    private static int shift(char c) {
+        int type = TYPES.indexOf(Character.toUpperCase(c));
+        if (type < 0) {
+            throw new IllegalArgumentException("Unknown piece '" + c + "'");
+        }
+        int side = Character.isUpperCase(c) ? 0 : 1;
+        return (side * 6 + type) * BITS;
+    }
+
+    /**
+     * Count of a piece in a signature, the piece given by its FEN letter.
+     */
+    public static int count(long signature, char piece) {
+        return (int) ((signature >>> shift(piece)) & ((1 << BITS) - 1));
+    }
+
+    /**
+     * Parses a signature such as "KRvK" or "KBNvK", white's pieces first.
+     */
+    public static long parse(String code) {
+        int split = code.indexOf('v');
+        if (split < 0) {
+            throw new IllegalArgumentException("Expected a code like KRvK: " + code);
+        }
+        long signature = 0;
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (i != split) {
+                signature += unit(i < split ? Character.toUpperCase(c) : Character.toLowerCase(c));
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * The same material with the colours swapped.
+     */
+    public static long mirror(long signature) {
+        return (signature >>> (6 * BITS)) | ((signature & SIDE_MASK) << (6 * BITS));
+    }
+
+    /**
+     * True if neither side can possibly mate: kings with at most one minor
+     * piece between them. Same-coloured bishops need the squares, see
+     * {@link Board#isInsufficientMaterial()}.
+     */
+    public static boolean isInsufficient(long signature) {
+        return onlyMinors(signature) && minorCount(signature) <= 1;
+    }
+
+    static boolean onlyMinors(long signature) {
+        return count(signature, 'P') + count(signature, 'R') + count(signature, 'Q')
+                + count(signature, 'p') + count(signature, 'r') + count(signature, 'q') == 0;
+    }
+
+    static int minorCount(long signature) {
+        return count(signature, 'N') + count(signature, 'B') + count(signature, 'n') + count(signature, 'b');
+    }
+
+    static boolean hasKnights(long signature) {
+        return count(signature, 'N') + count(signature, 'n') > 0;
+    }
+
+    public static String toString(long signature) {
+        StringBuilder sb = new StringBuilder(12);
+        for (int side = 0; side < 2; side++) {
+            if (side == 1) {
+                sb.append('v');
+            }
+            for (int type = TYPES.length() - 1; type >= 0; type--) {
+                char c = TYPES.charAt(type);
+                int n = count(signature, side == 0 ? c : Character.toLowerCase(c));
+                for (int i = 0; i < n; i++) {
+                    sb.append(c);
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,117 @@
+package chessModel;
+
+import java.util.Arrays;
+
+/**
+ * List of packed moves, appended to and trimmed at the end, that can be
+ * copied in constant time.
+ * Moves live in fixed size chunks; full chunks are immutable and shared by
+ * every copy, and the partly filled tail chunk is copied on the first append
+ * after it has been shared. A copy therefore costs the same no matter how
+ * long the game is, and an append copies at most one chunk.
+ */
+final class MoveHistory {
+
+    private static final int CHUNK = 32;
+
+    private static final class Chunk {
+
+        final int[] moves;
+        final Chunk previous;
+        final int index;
+
+        Chunk(int[] moves, Chunk previous) {
+            this.moves = moves;
+            this.previous = previous;
+            this.index = previous == null ? 0 : previous.index + 1;
+        }
+    }
+
+    private Chunk full;
+    private int[] tail = new int[CHUNK];
+    private int tailSize;
+    private boolean tailShared;
+
+    /**
+     * Returns a history holding the same moves. Neither this history nor the
+     * copy sees moves appended to the other afterwards.
+     */
+    MoveHistory copy() {
+        MoveHistory copy = new MoveHistory();
+        copy.full = full;
+        copy.tail = tail;
+        copy.tailSize = tailSize;
+        copy.tailShared = true;
+        tailShared = true;
+        return copy;
+    }
+
+    void add(int move) {
+        if (tailShared) {
+            tail = Arrays.copyOf(tail, CHUNK);
+            tailShared = false;
+        }
+        tail[tailSize++] = move;
+        if (tailSize == CHUNK) {
+            full = new Chunk(tail, full);
+            tail = new int[CHUNK];
+            tailSize = 0;
+        }
+    }
+
+    /**
+     * Drops the newest move. A full chunk that becomes the tail again is
+     * treated as shared, so the next append copies it instead of writing
+     * into a chunk other copies may hold.
+     */
+    void removeLast() {
+        if (tailSize == 0) {
+            if (full == null) {
+                throw new IllegalStateException("No moves to remove");
+            }
+            tail = full.moves;
+            tailSize = CHUNK;
+            tailShared = true;
+            full = full.previous;
+        }
+        tailSize--;
+    }
+
+    int size() {
+        return (full == null ? 0 : (full.index + 1) * CHUNK) + tailSize;
+    }
+
+    int get(int ply) {
+        int chunkIndex = ply / CHUNK;
+        int fullChunks = full == null ? 0 : full.index + 1;
+        if (chunkIndex == fullChunks) {
+            return tail[ply % CHUNK];
+        }
+        Chunk c = full;
+        while (c.index != chunkIndex) {
+            c = c.previous;
+        }
+        return c.moves[ply % CHUNK];
+    }
+
+    /**
+     * Copies the moves from ply onwards into a new array, walking the chunks
+     * once rather than looking every ply up separately.
+     */
+    int[] toArray(int fromPly) {
+        int size = size();
+        int[] out = new int[Math.max(0, size - fromPly)];
+        int fullChunks = full == null ? 0 : full.index + 1;
+        int base = fullChunks * CHUNK;
+        for (int i = Math.max(fromPly, base); i < size; i++) {
+            out[i - fromPly] = tail[i - base];
+        }
+        for (Chunk c = full; c != null && (c.index + 1) * CHUNK > fromPly; c = c.previous) {
+            int start = c.index * CHUNK;
+            for (int i = Math.max(fromPly, start); i < start + CHUNK; i++) {
+                out[i - fromPly] = c.moves[i - start];
+            }
+        }
+        return out;
+    }
+}
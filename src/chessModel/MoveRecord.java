@@ -0,0 +1,90 @@
+package chessModel;
+
+import chessModel.piece.Piece;
+import chessModel.piece.Rook;
+
+/**
+ * What a move on a {@link Board} changed, kept so the move can be taken
+ * back in constant time with {@link Board#unplay(MoveRecord)} rather than by
+ * replaying the game up to it.
+ */
+public final class MoveRecord {
+
+    final Board board;
+    final int ply;
+    final Piece mover;
+    final int fromX, fromY, toX, toY;
+    final boolean moverMoved;
+
+    // board state before the move
+    final String enPassantTarget;
+    final int halfMoveClock;
+    final int fullMoveClock;
+    final int whiteScore;
+    final int blackScore;
+    final long material;
+    final int sideToMove;
+    final int historySize;
+    final int historyBase;
+
+    Piece captured;
+    int capturedIndex;
+    Piece promoted;
+    int moverIndex;
+    Rook castledRook;
+    int rookFromY;
+
+    MoveRecord(Board board, int ply, Piece mover, int toX, int toY, boolean moverMoved,
+            String enPassantTarget, int halfMoveClock, int fullMoveClock, int whiteScore, int blackScore,
+            long material, int sideToMove, int historySize, int historyBase) {
+        this.board = board;
+        this.ply = ply;
+        this.mover = mover;
+        this.fromX = mover.getX();
+        this.fromY = mover.getY();
+        this.toX = toX;
+        this.toY = toY;
+        this.moverMoved = moverMoved;
+        this.enPassantTarget = enPassantTarget;
+        this.halfMoveClock = halfMoveClock;
+        this.fullMoveClock = fullMoveClock;
+        this.whiteScore = whiteScore;
+        this.blackScore = blackScore;
+        this.material = material;
+        this.sideToMove = sideToMove;
+        this.historySize = historySize;
+        this.historyBase = historyBase;
+    }
+
+    /**
+     * The move as [fromX, fromY, toX, toY].
+     */
+    public Integer[] getMove() {
+        return new Integer[]{fromX, fromY, toX, toY};
+    }
+
+    /**
+     * The side that made the move.
+     */
+    public int getSide() {
+        return mover.getSide();
+    }
+
+    /**
+     * Lower case letter of the piece a pawn promoted to, or 0.
+     */
+    public char getPromotion() {
+        return promoted == null ? 0 : Character.toLowerCase(promoted.getChar().charAt(0));
+    }
+
+    public boolean isCapture() {
+        return captured != null;
+    }
+
+    /**
+     * Number of moves played before this one.
+     */
+    public int getPly() {
+        return ply;
+    }
+}
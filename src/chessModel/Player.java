@@ -1,23 +1,82 @@
 package chessModel;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
 public abstract class Player {
-	
+
 	protected String name;
 	protected int side;
-	
+
+	// runs blocking getMove calls for players without their own async support
+	private static final ExecutorService MOVE_THREADS = Executors.newCachedThreadPool(r -> {
+		Thread t = new Thread(r, "player-move");
+		t.setDaemon(true);
+		return t;
+	});
+
 	public void init(String n, int s){
 		name = n;
 		side = s;
 	}
-	
+
 	public String getName(){
 		return name;
 	}
-	
+
 	/**
 	 * Ask the player for a move. The game should run this on a different thread.
 	 * @param board The board in play
 	 * @return Array of two numbers, coordinates of move (fromX, fromY, toX, toY)
 	 */
 	public abstract Integer[] getMove(Board board);
+
+	/**
+	 * Ask the player for a move without blocking. Players that search should
+	 * override this, honour the limits and the stop token, and report their
+	 * best move so far whenever it changes so the caller has something to
+	 * play if time runs out.
+	 *
+	 * The default runs {@link #getMove(Board)} on a background thread and
+	 * interrupts it when stopped.
+	 * @param board The board in play, not modified by the caller until the move completes
+	 * @param limits How long the player may think
+	 * @param stop Set when the caller no longer wants to wait
+	 * @param bestMoveSoFar Receives intermediate best moves, may be called from any thread
+	 * @return The move, or null if the player has none
+	 */
+	public CompletableFuture<Integer[]> requestMove(Board board, SearchLimits limits, StopToken stop,
+			Consumer<Integer[]> bestMoveSoFar){
+		AtomicBoolean running = new AtomicBoolean();
+		return CompletableFuture.supplyAsync(() -> {
+			Thread thread = Thread.currentThread();
+			running.set(true);
+			stop.onStop(() -> {
+				synchronized (running) {
+					if (running.get()) {
+						thread.interrupt();
+					}
+				}
+			});
+			try {
+				return stop.isStopped() ? null : getMove(board);
+			} finally {
+				synchronized (running) {
+					running.set(false);
+					Thread.interrupted(); // the pooled thread must not stay interrupted
+				}
+			}
+		}, MOVE_THREADS);
+	}
+
+	/**
+	 * Threads subclasses can run their own move computations on.
+	 */
+	protected static Executor moveExecutor(){
+		return MOVE_THREADS;
+	}
 }
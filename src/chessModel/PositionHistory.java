@@ -0,0 +1,85 @@
+package chessModel;
+
+import java.util.Arrays;
+
+/**
+ * Stack of the Zobrist keys of the positions reached, newest on top.
+ * Positions before the last irreversible move (pawn move or capture) can
+ * never recur, so repetition checks only scan down to that move's entry;
+ * the older keys stay so that taking the move back can restore them.
+ */
+final class PositionHistory {
+
+    private long[] keys = new long[16];
+    private int size;
+    // index of the position after the last irreversible move
+    private int base;
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void push(long key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        keys[size++] = key;
+    }
+
+    /**
+     * Starts over from the position after an irreversible move.
+     */
+    void reset(long key) {
+        base = size;
+        push(key);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int base() {
+        return base;
+    }
+
+    /**
+     * Goes back to an earlier size and base, as returned by {@link #size()}
+     * and {@link #base()} before the entries since were added.
+     */
+    void restore(int size, int base) {
+        this.size = size;
+        this.base = base;
+    }
+
+    /**
+     * How many times the newest position has occurred, itself included.
+     * Only every second entry can match, as the side to move must agree.
+     */
+    int occurrences() {
+        if (size == 0) {
+            return 0;
+        }
+        long current = keys[size - 1];
+        int count = 1;
+        for (int i = size - 3; i >= base; i -= 2) {
+            if (keys[i] == current) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Copies the entries that can still repeat; the copy cannot be restored
+     * to a point before them.
+     */
+    void copyFrom(PositionHistory other) {
+        int live = other.size - other.base;
+        if (keys.length < live) {
+            keys = new long[Math.max(16, Integer.highestOneBit(live) << 1)];
+        }
+        System.arraycopy(other.keys, other.base, keys, 0, live);
+        size = live;
+        base = 0;
+    }
+}
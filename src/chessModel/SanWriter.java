@@ -0,0 +1,87 @@
+package chessModel;
+
+import chessModel.piece.King;
+import chessModel.piece.Pawn;
+import chessModel.piece.Piece;
+import util.ChessUtil;
+
+/**
+ * Writes moves in Standard Algebraic Notation. The board must hold the
+ * position before the move; disambiguation and check markers are worked out
+ * from it, so this is only meant to run when SAN is actually needed.
+ */
+public final class SanWriter {
+
+    private SanWriter() {
+    }
+
+    /**
+     * Appends the SAN of the move and then plays it on the board.
+     *
+     * @return false if the move was not legal, in which case nothing is appended
+     */
+    public static boolean appendAndPlay(Board board, int fromX, int fromY, int toX, int toY, char promotion, StringBuilder sb) {
+        Piece p = board.getPiece(fromX, fromY);
+        if (p == null || !board.isLegalMove(fromX, fromY, toX, toY)) {
+            return false;
+        }
+        int start = sb.length();
+
+        if (p instanceof King && fromX == toX && Math.abs(fromY - toY) == 2) {
+            sb.append(toY > fromY ? "O-O" : "O-O-O");
+        } else {
+            boolean capture = board.getPiece(toX, toY) != null || (p instanceof Pawn && fromY != toY);
+            if (p instanceof Pawn) {
+                if (capture) {
+                    sb.append(ChessUtil.convertFile(fromY));
+                }
+            } else {
+                sb.append(Character.toUpperCase(p.getChar().charAt(0)));
+                appendDisambiguation(board, p, toX, toY, sb);
+            }
+            if (capture) {
+                sb.append('x');
+            }
+            sb.append(ChessUtil.convertFile(toY)).append(ChessUtil.convertRow(toX));
+            if (p instanceof Pawn && (toX == 0 || toX == board.boardHeight - 1)) {
+                sb.append('=').append(Character.toUpperCase(promotion == 0 ? 'q' : promotion));
+            }
+        }
+
+        if (!board.move(fromX, fromY, toX, toY, promotion == 0 ? 'q' : promotion)) {
+            sb.setLength(start);
+            return false;
+        }
+        int opponent = p.getSide() == 0 ? 1 : 0;
+        if (board.isInCheck(opponent)) {
+            sb.append(board.getAllMoves(opponent).isEmpty() ? '#' : '+');
+        }
+        return true;
+    }
+
+    private static void appendDisambiguation(Board board, Piece p, int toX, int toY, StringBuilder sb) {
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (Piece other : board.getPieces()) {
+            if (other == p || other.getSide() != p.getSide() || other.getClass() != p.getClass()) {
+                continue;
+            }
+            if (board.isLegalMove(other.getX(), other.getY(), toX, toY)) {
+                ambiguous = true;
+                sameFile |= other.getY() == p.getY();
+                sameRank |= other.getX() == p.getX();
+            }
+        }
+        if (!ambiguous) {
+            return;
+        }
+        if (!sameFile) {
+            sb.append(ChessUtil.convertFile(p.getY()));
+        } else if (!sameRank) {
+            sb.append(ChessUtil.convertRow(p.getX()));
+        } else {
+            sb.append(ChessUtil.convertFile(p.getY())).append(ChessUtil.convertRow(p.getX()));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package chessModel;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How long a player may think about a move: a depth, a node count and a
+ * deadline, each optional. Instances are immutable; the with* methods
+ * return copies.
+ */
+public final class SearchLimits {
+
+    private static final SearchLimits NONE = new SearchLimits(Integer.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+
+    private final int depth;
+    private final long nodes;
+    private final long deadlineNanos;
+
+    private SearchLimits(int depth, long nodes, long deadlineNanos) {
+        this.depth = depth;
+        this.nodes = nodes;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static SearchLimits none() {
+        return NONE;
+    }
+
+    public static SearchLimits depth(int depth) {
+        return NONE.withDepth(depth);
+    }
+
+    public static SearchLimits moveTime(long millis) {
+        return NONE.withMoveTime(millis);
+    }
+
+    public SearchLimits withDepth(int depth) {
+        return new SearchLimits(depth, nodes, deadlineNanos);
+    }
+
+    public SearchLimits withNodes(long nodes) {
+        return new SearchLimits(depth, nodes, deadlineNanos);
+    }
+
+    /**
+     * Sets the deadline to the given time from now.
+     */
+    public SearchLimits withMoveTime(long millis) {
+        return new SearchLimits(depth, nodes, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public boolean hasDeadline() {
+        return deadlineNanos != Long.MAX_VALUE;
+    }
+
+    /**
+     * Milliseconds until the deadline, 0 once it has passed, or
+     * Long.MAX_VALUE without one.
+     */
+    public long getRemainingMillis() {
+        if (!hasDeadline()) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return hasDeadline() && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchLimits[depth=" + (depth == Integer.MAX_VALUE ? "-" : depth)
+                + ", nodes=" + (nodes == Long.MAX_VALUE ? "-" : nodes)
+                + ", remaining=" + (hasDeadline() ? getRemainingMillis() + "ms" : "-") + "]";
+    }
+}
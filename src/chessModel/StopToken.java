@@ -0,0 +1,48 @@
+package chessModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Asks a running move computation to finish early. Searches poll
+ * {@link #isStopped()}; code that cannot poll, such as a blocking legacy
+ * player, registers a callback with {@link #onStop(Runnable)}.
+ */
+public final class StopToken {
+
+    private volatile boolean stopped;
+    private List<Runnable> callbacks = new ArrayList<>();
+
+    public void stop() {
+        List<Runnable> toRun;
+        synchronized (this) {
+            if (stopped) {
+                return;
+            }
+            stopped = true;
+            toRun = callbacks;
+            callbacks = null;
+        }
+        for (Runnable r : toRun) {
+            r.run();
+        }
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Runs the callback when the token is stopped, or right away if it
+     * already is.
+     */
+    public void onStop(Runnable callback) {
+        synchronized (this) {
+            if (!stopped) {
+                callbacks.add(callback);
+                return;
+            }
+        }
+        callback.run();
+    }
+}
@@ -31,6 +31,13 @@ public class Time {
 		}
 	}
 	
+	/**
+	 * Adds time to the clock, e.g. a per-move increment
+	 */
+	public void add(int seconds){
+		time += seconds;
+	}
+	
 	public int getUnformmatedTime(){
 		return time;
 	}
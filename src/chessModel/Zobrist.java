@@ -0,0 +1,84 @@
+package chessModel;
+
+import chessModel.piece.King;
+import chessModel.piece.Piece;
+import chessModel.piece.Rook;
+import java.util.List;
+
+/**
+ * Zobrist hashing of positions. The random tables come from a fixed seed
+ * and a fixed generator so keys stay the same across runs and JVMs, which
+ * matters because keys are written to disk by the position index.
+ */
+final class Zobrist {
+
+    private static final String PIECE_ORDER = "PNBRQKpnbrqk";
+    private static final long[] PIECE_SQUARE = new long[12 * 64];
+    private static final long[] CASTLING = new long[4];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        long state = 0x2545F4914F6CDD1DL;
+        for (int i = 0; i < PIECE_SQUARE.length; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            PIECE_SQUARE[i] = mix(state);
+        }
+        for (int i = 0; i < CASTLING.length; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            CASTLING[i] = mix(state);
+        }
+        for (int i = 0; i < EN_PASSANT_FILE.length; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            EN_PASSANT_FILE[i] = mix(state);
+        }
+        state += 0x9E3779B97F4A7C15L;
+        BLACK_TO_MOVE = mix(state);
+    }
+
+    private Zobrist() {
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    static long pieceSquare(Piece p) {
+        int type = PIECE_ORDER.indexOf(p.getChar().charAt(0));
+        return PIECE_SQUARE[type * 64 + p.getX() * 8 + p.getY()];
+    }
+
+    static long key(List<Piece> pieces, int sideToMove, String enPassantTarget) {
+        long key = sideToMove == 1 ? BLACK_TO_MOVE : 0;
+        Piece[] corners = new Piece[4];
+        King whiteKing = null;
+        King blackKing = null;
+        for (Piece p : pieces) {
+            key ^= pieceSquare(p);
+            if (p instanceof King k && !k.hasMoved()) {
+                if (k.getSide() == 0) {
+                    whiteKing = k;
+                } else {
+                    blackKing = k;
+                }
+            } else if (p instanceof Rook r && !r.hasMoved() && (r.getX() == 0 || r.getX() == 7)
+                    && (r.getY() == 0 || r.getY() == 7)) {
+                corners[(r.getX() == 7 ? 0 : 2) + (r.getY() == 7 ? 0 : 1)] = r;
+            }
+        }
+        for (int i = 0; i < 4; i++) {
+            int side = i < 2 ? 0 : 1;
+            King k = side == 0 ? whiteKing : blackKing;
+            if (k != null && corners[i] != null && corners[i].getSide() == side && k.getX() == corners[i].getX()) {
+                key ^= CASTLING[i];
+            }
+        }
+        if (enPassantTarget != null && !enPassantTarget.isEmpty()) {
+            key ^= EN_PASSANT_FILE[enPassantTarget.charAt(0) - 'a'];
+        }
+        return key;
+    }
+}
@@ -54,4 +54,8 @@ public class King extends Piece {
     public boolean hasMoved() {
         return hasMoved;
     }
+
+    public void setHasMoved(boolean hasMoved) {
+        this.hasMoved = hasMoved;
+    }
 }
@@ -58,4 +58,8 @@ public class Pawn extends Piece {
         return hasTakenFirstMove;
     }
 
+    public void setHasTakenFirstMove(boolean hasTakenFirstMove) {
+        this.hasTakenFirstMove = hasTakenFirstMove;
+    }
+
 }
@@ -48,6 +48,31 @@ public abstract class Piece {
         return (x ^ y) * multiplier;
     }
 
+    /**
+     * Creates a piece from its FEN letter; upper case letters are white.
+     *
+     * @return the new piece, or null if the letter names no piece
+     */
+    public static Piece create(char c, int x, int y) {
+        int side = Character.isUpperCase(c) ? 0 : 1;
+        return switch (Character.toLowerCase(c)) {
+            case 'p' ->
+                new Pawn(x, y, side);
+            case 'n' ->
+                new Knight(x, y, side);
+            case 'b' ->
+                new Bishop(x, y, side);
+            case 'r' ->
+                new Rook(x, y, side);
+            case 'q' ->
+                new Queen(x, y, side);
+            case 'k' ->
+                new King(x, y, side);
+            default ->
+                null;
+        };
+    }
+
     public abstract String getChar();
     public abstract int getValue();
     public abstract boolean validMove(int x, int y, SquareStatus status);
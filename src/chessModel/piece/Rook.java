@@ -46,7 +46,7 @@ public class Rook extends Piece {
     }
 
     public boolean validMove(int x, int y, SquareStatus status) {
-        return ((this.x == x || this.y == y) && x != y);
+        return ((this.x == x || this.y == y) && !(this.x == x && this.y == y));
     }
 
     public int getValue() {
@@ -60,4 +60,8 @@ public class Rook extends Piece {
     public boolean hasMoved() {
         return hasMoved;
     }
+
+    public void setHasMoved(boolean hasMoved) {
+        this.hasMoved = hasMoved;
+    }
 }
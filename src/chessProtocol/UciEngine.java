@@ -0,0 +1,368 @@
+package chessProtocol;
+
+import chessEngine.Search;
+import chessEngine.SearchReporter;
+import chessModel.Board;
+import chessModel.ErrorLogger;
+import chessModel.Player;
+import chessModel.SearchLimits;
+import chessModel.StopToken;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import util.BotRegistry;
+
+/**
+ * Runs a {@link Player} as a UCI engine over a pair of streams. Commands are
+ * read on the caller's thread while the player computes on its own, so
+ * "stop", "ponderhit" and "isready" are answered during a search. Players
+ * that implement {@link SearchReporter} stream full info lines; others
+ * report their best move so far.
+ *
+ * Hash and Threads are accepted as options so tournament managers can set
+ * them; the built-in search is single threaded and has no hash table.
+ */
+public class UciEngine {
+
+    private static final String NAME = "Chess";
+    private static final String AUTHOR = "Chess contributors";
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+    private static final long MOVE_OVERHEAD_MILLIS = 50;
+
+    private final Player player;
+    private final String playerName;
+    private final PrintStream out;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "uci-timer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private Board board = new Board();
+    private int hashMegabytes = 16;
+    private int threads = 1;
+    private SearchSession current;
+
+    /**
+     * One "go" command. Pondering and infinite searches hold their best
+     * move until "stop" or "ponderhit", as the protocol requires.
+     */
+    private static final class SearchSession {
+        final StopToken stop = new StopToken();
+        final Board position;
+        final AtomicReference<Integer[]> bestSoFar = new AtomicReference<>();
+        long budgetMillis = -1;
+        boolean holding;
+        boolean done;
+        Integer[] result;
+
+        SearchSession(Board position) {
+            this.position = position;
+        }
+    }
+
+    public UciEngine(Player player, PrintStream out) {
+        this.player = player;
+        this.playerName = player.getName() == null ? player.getClass().getSimpleName() : player.getName();
+        this.out = out;
+    }
+
+    /**
+     * Reads commands until "quit" or end of input.
+     */
+    public void run(BufferedReader in) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            boolean more;
+            try {
+                more = handle(line.trim());
+            } catch (RuntimeException e) {
+                // one malformed command must not end the session
+                ErrorLogger.logException(e);
+                send("info string could not handle: " + line.trim());
+                more = true;
+            }
+            if (!more) {
+                break;
+            }
+        }
+        stopSearch();
+        timer.shutdownNow();
+    }
+
+    /**
+     * @return false once the engine should exit
+     */
+    boolean handle(String line) {
+        String[] tokens = line.split("\\s+");
+        switch (tokens[0]) {
+            case "uci" -> {
+                send("id name " + NAME + " (" + playerName + ")");
+                send("id author " + AUTHOR);
+                send("option name Hash type spin default 16 min 1 max 4096");
+                send("option name Threads type spin default 1 min 1 max 256");
+                send("option name Ponder type check default false");
+                send("uciok");
+            }
+            case "isready" ->
+                send("readyok");
+            case "ucinewgame" -> {
+                stopSearch();
+                board = new Board();
+            }
+            case "setoption" ->
+                setOption(tokens);
+            case "position" ->
+                position(tokens);
+            case "go" ->
+                go(tokens);
+            case "stop" ->
+                stopSearch();
+            case "ponderhit" ->
+                ponderHit();
+            case "quit" -> {
+                return false;
+            }
+            default -> {
+                // unknown commands are ignored, as the protocol asks
+            }
+        }
+        return true;
+    }
+
+    private void setOption(String[] tokens) {
+        String name = value(tokens, "name", "value");
+        String value = value(tokens, "value", null);
+        try {
+            if ("Hash".equalsIgnoreCase(name)) {
+                hashMegabytes = Integer.parseInt(value);
+            } else if ("Threads".equalsIgnoreCase(name)) {
+                threads = Integer.parseInt(value);
+            }
+        } catch (NumberFormatException e) {
+            send("info string bad value for " + name + ": " + value);
+        }
+    }
+
+    /**
+     * The words after key, up to the word end (or the end of the line).
+     */
+    private static String value(String[] tokens, String key, String end) {
+        StringBuilder sb = new StringBuilder();
+        boolean in = false;
+        for (String t : tokens) {
+            if (in && t.equals(end)) {
+                break;
+            }
+            if (in) {
+                sb.append(sb.length() == 0 ? "" : " ").append(t);
+            }
+            if (t.equals(key)) {
+                in = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    private void position(String[] tokens) {
+        int i = 1;
+        Board next;
+        try {
+            if (tokens.length > 1 && tokens[1].equals("fen")) {
+                StringBuilder fen = new StringBuilder();
+                for (i = 2; i < tokens.length && !tokens[i].equals("moves"); i++) {
+                    fen.append(fen.length() == 0 ? "" : " ").append(tokens[i]);
+                }
+                next = new Board(fen.toString());
+            } else {
+                next = new Board();
+                i = 2;
+            }
+        } catch (IllegalArgumentException e) {
+            send("info string " + e.getMessage());
+            return;
+        }
+        if (i < tokens.length && tokens[i].equals("moves")) {
+            for (i++; i < tokens.length; i++) {
+                if (!UciMoves.play(next, tokens[i])) {
+                    send("info string illegal move " + tokens[i]);
+                    break;
+                }
+            }
+        }
+        board = next;
+    }
+
+    private void go(String[] tokens) {
+        stopSearch();
+        int side = board.getSideToMove();
+        SearchLimits limits = SearchLimits.none();
+        long time = -1;
+        long moveTime = -1;
+        long increment = 0;
+        int movesToGo = DEFAULT_MOVES_TO_GO;
+        boolean infinite = false;
+        boolean ponder = false;
+        for (int i = 1; i < tokens.length; i++) {
+            String key = tokens[i];
+            String arg = i + 1 < tokens.length ? tokens[i + 1] : "0";
+            switch (key) {
+                case "wtime" ->
+                    time = side == 0 ? parseLong(key, arg, time) : time;
+                case "btime" ->
+                    time = side == 1 ? parseLong(key, arg, time) : time;
+                case "winc" ->
+                    increment = side == 0 ? parseLong(key, arg, increment) : increment;
+                case "binc" ->
+                    increment = side == 1 ? parseLong(key, arg, increment) : increment;
+                case "movestogo" ->
+                    movesToGo = (int) Math.max(1, Math.min(Integer.MAX_VALUE, parseLong(key, arg, movesToGo)));
+                case "depth" ->
+                    limits = limits.withDepth((int) Math.min(Integer.MAX_VALUE, parseLong(key, arg, limits.getDepth())));
+                case "nodes" ->
+                    limits = limits.withNodes(parseLong(key, arg, limits.getNodes()));
+                case "movetime" ->
+                    moveTime = parseLong(key, arg, moveTime);
+                case "infinite" ->
+                    infinite = true;
+                case "ponder" ->
+                    ponder = true;
+                default -> {
+                }
+            }
+        }
+        long budget = moveTime;
+        if (budget < 0 && time >= 0) {
+            budget = Math.max(10, Math.min(time / movesToGo + increment * 3 / 4, time - MOVE_OVERHEAD_MILLIS));
+        }
+
+        SearchSession session = new SearchSession(board.cloneBoard());
+        session.holding = infinite || ponder;
+        session.budgetMillis = budget;
+        if (budget >= 0 && !session.holding) {
+            limits = limits.withMoveTime(budget);
+            timer.schedule(session.stop::stop, budget, TimeUnit.MILLISECONDS);
+        }
+        synchronized (this) {
+            current = session;
+        }
+        start(session, side, limits);
+    }
+
+    // a value that does not parse is reported and the fallback kept
+    private long parseLong(String key, String arg, long fallback) {
+        try {
+            return Long.parseLong(arg);
+        } catch (NumberFormatException e) {
+            send("info string bad value for " + key + ": " + arg);
+            return fallback;
+        }
+    }
+
+    private void start(SearchSession session, int side, SearchLimits limits) {
+        player.init(playerName, side);
+        if (player instanceof SearchReporter reporter) {
+            reporter.setSearchListener(result -> send(info(session.position, result)));
+        }
+        player.requestMove(session.position, limits, session.stop, move -> {
+            session.bestSoFar.set(move);
+            if (!(player instanceof SearchReporter)) {
+                send("info pv " + UciMoves.format(session.position, move));
+            }
+        }).whenComplete((move, error) -> {
+            if (error != null) {
+                ErrorLogger.logException(error);
+            }
+            finished(session, move != null ? move : session.bestSoFar.get());
+        });
+    }
+
+    private static String info(Board position, Search.Result result) {
+        StringBuilder sb = new StringBuilder("info depth ").append(result.getDepth());
+        if (result.isMate()) {
+            sb.append(" score mate ").append(result.getMateIn());
+        } else {
+            sb.append(" score cp ").append(result.getScore());
+        }
+        sb.append(" nodes ").append(result.getNodes())
+                .append(" nps ").append(result.getNodesPerSecond())
+                .append(" time ").append(result.getMillis())
+                .append(" pv ").append(UciMoves.formatLine(position, result.getPrincipalVariation()));
+        return sb.toString();
+    }
+
+    private synchronized void finished(SearchSession session, Integer[] move) {
+        session.done = true;
+        session.result = move;
+        if (session == current && !session.holding) {
+            sendBestMove(session);
+        }
+    }
+
+    private synchronized void stopSearch() {
+        SearchSession session = current;
+        if (session == null) {
+            return;
+        }
+        session.holding = false;
+        session.stop.stop();
+        if (session.done) {
+            sendBestMove(session);
+        }
+        // otherwise the search reports when it unwinds
+    }
+
+    /**
+     * The opponent played the expected move: keep searching, now on our
+     * own clock.
+     */
+    private synchronized void ponderHit() {
+        SearchSession session = current;
+        if (session == null) {
+            return;
+        }
+        session.holding = false;
+        if (session.done) {
+            sendBestMove(session);
+        } else if (session.budgetMillis >= 0) {
+            timer.schedule(session.stop::stop, session.budgetMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void sendBestMove(SearchSession session) {
+        current = null;
+        send("bestmove " + UciMoves.format(session.position, session.result));
+    }
+
+    private void send(String line) {
+        synchronized (out) {
+            out.println(line);
+            out.flush();
+        }
+    }
+
+    public int getHashMegabytes() {
+        return hashMegabytes;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Usage: UciEngine [botName], default SearchMove
+     */
+    public static void main(String[] args) throws IOException {
+        // stdout belongs to the protocol; anything else printed goes to stderr
+        PrintStream protocol = new PrintStream(System.out, false, StandardCharsets.UTF_8);
+        System.setOut(System.err);
+        Player player = BotRegistry.getDefault().create(args.length > 0 ? args[0] : "SearchMove", 0);
+        new UciEngine(player, protocol).run(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)));
+    }
+}
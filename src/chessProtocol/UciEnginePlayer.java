@@ -0,0 +1,133 @@
+package chessProtocol;
+
+import chessModel.Board;
+import chessModel.Player;
+import chessModel.SearchLimits;
+import chessModel.StopToken;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Plays the moves of an external UCI engine. Each move borrows a warm
+ * process from a {@link UciProcessPool}, sends the game so far and the
+ * limits as "position" and "go", and returns the process afterwards, so
+ * many games can share a few engine processes.
+ *
+ * Moves are {@code Integer[]} like everywhere else, so an engine's
+ * underpromotion is played as a queen promotion.
+ */
+public class UciEnginePlayer extends Player {
+
+    // used when nothing limits the search, e.g. for plain getMove
+    private static final long DEFAULT_MOVE_MILLIS = 1000;
+    // time past the deadline before an engine is considered hung
+    private static final long RESPONSE_GRACE_MILLIS = 5000;
+
+    private final UciProcessPool pool;
+    private volatile boolean newGame = true;
+
+    public UciEnginePlayer(UciProcessPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * A player on the shared pool of the given engine command.
+     */
+    public UciEnginePlayer(String... command) {
+        this(UciProcessPool.shared(List.of(command)));
+    }
+
+    @Override
+    public void init(String n, int s) {
+        super.init(n, s);
+        newGame = true;
+    }
+
+    @Override
+    public Integer[] getMove(Board board) {
+        return requestMove(board, SearchLimits.moveTime(DEFAULT_MOVE_MILLIS), new StopToken(), move -> {
+        }).join();
+    }
+
+    @Override
+    public CompletableFuture<Integer[]> requestMove(Board board, SearchLimits limits, StopToken stop,
+            Consumer<Integer[]> bestMoveSoFar) {
+        String position = UciMoves.positionCommand(board);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return play(board, position, limits, stop, bestMoveSoFar);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+        }, moveExecutor());
+    }
+
+    private Integer[] play(Board board, String position, SearchLimits limits, StopToken stop,
+            Consumer<Integer[]> bestMoveSoFar) throws IOException, InterruptedException {
+        if (stop.isStopped()) {
+            return null;
+        }
+        UciProcess process = pool.acquire();
+        try {
+            process.claim(this, newGame);
+            newGame = false;
+            long wait = limits.hasDeadline() ? limits.getRemainingMillis() + RESPONSE_GRACE_MILLIS : Long.MAX_VALUE;
+            String best = process.search(position, goCommand(limits), stop, line -> {
+                Integer[] move = principalMove(line);
+                if (move != null) {
+                    bestMoveSoFar.accept(move);
+                }
+            }, wait);
+            return UciMoves.parse(best);
+        } finally {
+            pool.release(process);
+        }
+    }
+
+    private static String goCommand(SearchLimits limits) {
+        StringBuilder sb = new StringBuilder("go");
+        boolean limited = false;
+        if (limits.getDepth() != Integer.MAX_VALUE) {
+            sb.append(" depth ").append(limits.getDepth());
+            limited = true;
+        }
+        if (limits.getNodes() != Long.MAX_VALUE) {
+            sb.append(" nodes ").append(limits.getNodes());
+            limited = true;
+        }
+        if (limits.hasDeadline()) {
+            sb.append(" movetime ").append(Math.max(1, limits.getRemainingMillis()));
+        } else if (!limited) {
+            // no limit at all: think until stopped
+            sb.append(" infinite");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The first move of an info line's pv, if it has one.
+     */
+    private static Integer[] principalMove(String line) {
+        if (!line.startsWith("info ")) {
+            return null;
+        }
+        int pv = line.indexOf(" pv ");
+        if (pv < 0) {
+            return null;
+        }
+        int start = pv + " pv ".length();
+        int end = line.indexOf(' ', start);
+        return UciMoves.parse(end < 0 ? line.substring(start) : line.substring(start, end));
+    }
+
+    public UciProcessPool getPool() {
+        return pool;
+    }
+}
@@ -0,0 +1,137 @@
+package chessProtocol;
+
+import chessModel.Board;
+import chessModel.ChessLog;
+import chessModel.piece.Pawn;
+import chessModel.piece.Piece;
+import java.util.List;
+import util.ChessUtil;
+
+/**
+ * Converts between {@code Integer[]} moves (fromX, fromY, toX, toY) and UCI
+ * long algebraic notation such as "e2e4" or "e7e8q".
+ */
+public final class UciMoves {
+
+    public static final String NULL_MOVE = "0000";
+
+    private UciMoves() {
+    }
+
+    /**
+     * @return the move, or null if the text is not a move
+     */
+    public static Integer[] parse(String uci) {
+        if (uci.length() < 4 || uci.length() > 5) {
+            return null;
+        }
+        int fromY = uci.charAt(0) - 'a';
+        int fromX = 8 - (uci.charAt(1) - '0');
+        int toY = uci.charAt(2) - 'a';
+        int toX = 8 - (uci.charAt(3) - '0');
+        if (!onBoard(fromX, fromY) || !onBoard(toX, toY)) {
+            return null;
+        }
+        return new Integer[]{fromX, fromY, toX, toY};
+    }
+
+    /**
+     * The promotion letter of a move (q, r, b or n), or 0 if none.
+     */
+    public static char promotionOf(String uci) {
+        return uci.length() == 5 ? Character.toLowerCase(uci.charAt(4)) : 0;
+    }
+
+    private static boolean onBoard(int x, int y) {
+        return x >= 0 && x < 8 && y >= 0 && y < 8;
+    }
+
+    /**
+     * Writes a move played in the given position; pawns reaching the last
+     * rank promote to a queen, as {@link Board#move(int, int, int, int)} does.
+     */
+    public static String format(Board board, Integer[] move) {
+        if (move == null) {
+            return NULL_MOVE;
+        }
+        StringBuilder sb = new StringBuilder(5);
+        sb.append(ChessUtil.convertLocation(move[0], move[1]));
+        sb.append(ChessUtil.convertLocation(move[2], move[3]));
+        Piece p = board.getPiece(move[0], move[1]);
+        if (p instanceof Pawn && (move[2] == 0 || move[2] == board.boardHeight - 1)) {
+            sb.append('q');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes a move as packed by {@link ChessLog}, promotion included.
+     */
+    public static String format(int packedMove) {
+        StringBuilder sb = new StringBuilder(5);
+        sb.append(ChessUtil.convertLocation(ChessLog.fromX(packedMove), ChessLog.fromY(packedMove)));
+        sb.append(ChessUtil.convertLocation(ChessLog.toX(packedMove), ChessLog.toY(packedMove)));
+        char promotion = ChessLog.promotion(packedMove);
+        if (promotion != 0) {
+            sb.append(promotion);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The "position" command for a board: its start position and every move
+     * played since, so the engine sees the history repetitions depend on.
+     */
+    public static String positionCommand(Board board) {
+        ChessLog log = board.getChessLog();
+        String start = log.getStartFEN();
+        StringBuilder sb = new StringBuilder(64);
+        sb.append("position ");
+        if (start == null) {
+            // no recorded start: send the current position without history
+            return sb.append("fen ").append(board.getFEN()).toString();
+        }
+        sb.append("fen ").append(start);
+        int[] moves = log.getMoves();
+        if (moves.length > 0) {
+            sb.append(" moves");
+            for (int move : moves) {
+                sb.append(' ').append(format(move));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes a line of moves starting from the given position, which is
+     * left unchanged.
+     */
+    public static String formatLine(Board board, List<Integer[]> line) {
+        StringBuilder sb = new StringBuilder();
+        Board scratch = board.cloneBoard();
+        for (Integer[] move : line) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(format(scratch, move));
+            if (!scratch.move(move[0], move[1], move[2], move[3])) {
+                break;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Plays a UCI move on the board.
+     *
+     * @return false if the text is not a legal move
+     */
+    public static boolean play(Board board, String uci) {
+        Integer[] move = parse(uci);
+        if (move == null) {
+            return false;
+        }
+        char promotion = promotionOf(uci);
+        return board.move(move[0], move[1], move[2], move[3], promotion == 0 ? 'q' : promotion);
+    }
+}
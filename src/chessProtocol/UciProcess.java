@@ -0,0 +1,223 @@
+package chessProtocol;
+
+import chessModel.ErrorLogger;
+import chessModel.StopToken;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * An external UCI engine process. The handshake runs once on start, after
+ * which the process serves any number of games; {@link UciProcessPool}
+ * keeps them warm between games. Output is read on a daemon thread so a
+ * chatty engine never blocks on a full pipe.
+ *
+ * One search at a time; callers serialise through the pool.
+ */
+public final class UciProcess implements AutoCloseable {
+
+    private static final long HANDSHAKE_MILLIS = 10_000;
+    private static final long QUIT_MILLIS = 1_000;
+    // marks the end of the engine's output
+    private static final String EOF = new String("<eof>");
+
+    private final List<String> command;
+    private final Process process;
+    private final Writer in;
+    private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+    private String engineName;
+    private Object owner;
+    private long searchId;
+    private long runningSearch = -1;
+
+    /**
+     * Starts the engine and waits for "uciok".
+     *
+     * @throws IOException if the engine cannot be started or does not
+     * answer the handshake
+     */
+    public UciProcess(List<String> command) throws IOException {
+        this.command = List.copyOf(command);
+        ProcessBuilder builder = new ProcessBuilder(this.command);
+        builder.redirectError(ProcessBuilder.Redirect.DISCARD);
+        process = builder.start();
+        in = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8);
+        Thread reader = new Thread(this::pump, "uci-reader-" + process.pid());
+        reader.setDaemon(true);
+        reader.start();
+        try {
+            send("uci");
+            await("uciok", HANDSHAKE_MILLIS, line -> {
+                if (line.startsWith("id name ")) {
+                    engineName = line.substring("id name ".length());
+                }
+            });
+            ready();
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private void pump() {
+        try (BufferedReader out = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = out.readLine()) != null) {
+                lines.add(line.trim());
+            }
+        } catch (IOException e) {
+            // the process went away; readers see EOF below
+        } finally {
+            lines.add(EOF);
+        }
+    }
+
+    public List<String> getCommand() {
+        return command;
+    }
+
+    /**
+     * The name the engine gave in its handshake, or the command if none.
+     */
+    public String getEngineName() {
+        return engineName != null ? engineName : command.get(0);
+    }
+
+    public boolean isAlive() {
+        return process.isAlive();
+    }
+
+    public synchronized void setOption(String name, String value) throws IOException {
+        send("setoption name " + name + " value " + value);
+    }
+
+    /**
+     * Starts a new game unless the given owner already holds this process
+     * in the current game, so engines clear their hash and history only
+     * when the game really changes.
+     */
+    public synchronized void claim(Object owner, boolean newGame) throws IOException {
+        if (newGame || this.owner != owner) {
+            this.owner = owner;
+            send("ucinewgame");
+            ready();
+        }
+    }
+
+    /**
+     * Runs one search and waits for its "bestmove".
+     *
+     * @param position a "position" command
+     * @param go a "go" command
+     * @param stop sends "stop" to the engine while this search runs
+     * @param info receives the engine's other output, usually info lines
+     * @param timeoutMillis how long to wait for the best move after the go
+     * @return the move after "bestmove"
+     * @throws IOException if the engine dies or does not answer in time;
+     * the process is closed and must not be reused
+     */
+    public String search(String position, String go, StopToken stop, Consumer<String> info, long timeoutMillis)
+            throws IOException {
+        long id;
+        synchronized (this) {
+            id = ++searchId;
+            send(position);
+            send(go);
+            runningSearch = id;
+        }
+        stop.onStop(() -> stop(id));
+        try {
+            String line = await("bestmove", timeoutMillis, info);
+            String[] tokens = line.split("\\s+");
+            return tokens.length > 1 ? tokens[1] : UciMoves.NULL_MOVE;
+        } catch (IOException e) {
+            close();
+            throw e;
+        } finally {
+            synchronized (this) {
+                runningSearch = -1;
+            }
+        }
+    }
+
+    // a late stop must not cut short a search that came after
+    private synchronized void stop(long id) {
+        if (runningSearch == id) {
+            try {
+                send("stop");
+            } catch (IOException e) {
+                ErrorLogger.logException(e);
+            }
+        }
+    }
+
+    private void ready() throws IOException {
+        send("isready");
+        await("readyok", HANDSHAKE_MILLIS, line -> {
+        });
+    }
+
+    private synchronized void send(String line) throws IOException {
+        in.write(line);
+        in.write('\n');
+        in.flush();
+    }
+
+    /**
+     * Reads lines up to one starting with the given word.
+     */
+    private String await(String word, long timeoutMillis, Consumer<String> others) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        try {
+            while (true) {
+                long left = timeoutMillis == Long.MAX_VALUE ? Long.MAX_VALUE : deadline - System.nanoTime();
+                String line = lines.poll(Math.max(0, left), TimeUnit.NANOSECONDS);
+                if (line == null) {
+                    throw new IOException(getEngineName() + " did not send " + word + " within " + timeoutMillis + "ms");
+                }
+                if (line == EOF) {
+                    lines.add(EOF);
+                    throw new IOException(getEngineName() + " exited while waiting for " + word);
+                }
+                if (line.equals(word) || line.startsWith(word + " ")) {
+                    return line;
+                }
+                others.accept(line);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for " + word, e);
+        }
+    }
+
+    /**
+     * Asks the engine to quit, killing it if it does not.
+     */
+    @Override
+    public void close() {
+        try {
+            if (process.isAlive()) {
+                send("quit");
+            }
+        } catch (IOException e) {
+            // already gone
+        }
+        try {
+            if (!process.waitFor(QUIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package chessProtocol;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Warm processes of one engine command, started on demand up to a limit so
+ * parallel games each get their own. Processes go back to the pool after a
+ * move and stay running between games; ones that died or misbehaved are
+ * dropped and replaced on the next acquire.
+ */
+public final class UciProcessPool implements AutoCloseable {
+
+    private static final Map<List<String>, UciProcessPool> SHARED = new ConcurrentHashMap<>();
+
+    static {
+        Thread hook = new Thread(() -> SHARED.values().forEach(UciProcessPool::close), "uci-pool-shutdown");
+        Runtime.getRuntime().addShutdownHook(hook);
+    }
+
+    private final List<String> command;
+    private final Semaphore permits;
+    private final Deque<UciProcess> idle = new ArrayDeque<>();
+    private final Map<String, String> options = new LinkedHashMap<>();
+    private boolean closed;
+
+    /**
+     * @param maxProcesses how many processes may run at once
+     */
+    public UciProcessPool(List<String> command, int maxProcesses) {
+        if (command.isEmpty() || maxProcesses < 1) {
+            throw new IllegalArgumentException("Need a command and at least one process");
+        }
+        this.command = List.copyOf(command);
+        this.permits = new Semaphore(maxProcesses, true);
+    }
+
+    /**
+     * The JVM-wide pool for a command, sized to the number of processors
+     * and closed on exit.
+     */
+    public static UciProcessPool shared(List<String> command) {
+        return SHARED.computeIfAbsent(List.copyOf(command),
+                c -> new UciProcessPool(c, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public List<String> getCommand() {
+        return command;
+    }
+
+    /**
+     * Sets an option on every process, now and when started later.
+     */
+    public synchronized void setOption(String name, String value) throws IOException {
+        options.put(name, value);
+        for (UciProcess p : idle) {
+            p.setOption(name, value);
+        }
+    }
+
+    /**
+     * Takes a warm process, starting one if none is idle, waiting while the
+     * limit is reached. Give it back with {@link #release(UciProcess)}.
+     */
+    public UciProcess acquire() throws IOException, InterruptedException {
+        permits.acquire();
+        try {
+            synchronized (this) {
+                if (closed) {
+                    throw new IOException("Pool for " + command + " is closed");
+                }
+                while (!idle.isEmpty()) {
+                    UciProcess p = idle.pollFirst();
+                    if (p.isAlive()) {
+                        return p;
+                    }
+                    p.close();
+                }
+            }
+            return start();
+        } catch (IOException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private UciProcess start() throws IOException {
+        UciProcess p = new UciProcess(command);
+        Map<String, String> toSet;
+        synchronized (this) {
+            toSet = new LinkedHashMap<>(options);
+        }
+        for (Map.Entry<String, String> option : toSet.entrySet()) {
+            p.setOption(option.getKey(), option.getValue());
+        }
+        return p;
+    }
+
+    public void release(UciProcess process) {
+        synchronized (this) {
+            if (!closed && process.isAlive()) {
+                // most recently used first, so a few processes stay hot
+                idle.addFirst(process);
+                process = null;
+            }
+        }
+        if (process != null) {
+            process.close();
+        }
+        permits.release();
+    }
+
+    public synchronized int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Quits the idle processes; ones in use quit when released.
+     */
+    @Override
+    public void close() {
+        UciProcess[] toClose;
+        synchronized (this) {
+            closed = true;
+            toClose = idle.toArray(new UciProcess[0]);
+            idle.clear();
+        }
+        for (UciProcess p : toClose) {
+            p.close();
+        }
+    }
+}
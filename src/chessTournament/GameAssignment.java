@@ -0,0 +1,77 @@
+package chessTournament;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * One game to be played: the bots by registry name, the start position and
+ * the time control.
+ */
+public final class GameAssignment {
+
+    private final int id;
+    private final String white;
+    private final String black;
+    private final String fen;
+    private final int timeSeconds;
+    private final int incrementSeconds;
+
+    /**
+     * @param fen start position, or null for the standard one
+     */
+    public GameAssignment(int id, String white, String black, String fen, int timeSeconds, int incrementSeconds) {
+        this.id = id;
+        this.white = white;
+        this.black = black;
+        this.fen = fen;
+        this.timeSeconds = timeSeconds;
+        this.incrementSeconds = incrementSeconds;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getWhite() {
+        return white;
+    }
+
+    public String getBlack() {
+        return black;
+    }
+
+    public String getFen() {
+        return fen;
+    }
+
+    public int getTimeSeconds() {
+        return timeSeconds;
+    }
+
+    public int getIncrementSeconds() {
+        return incrementSeconds;
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeInt(id);
+        out.writeUTF(white);
+        out.writeUTF(black);
+        out.writeUTF(fen == null ? "" : fen);
+        out.writeInt(timeSeconds);
+        out.writeInt(incrementSeconds);
+    }
+
+    static GameAssignment read(DataInput in) throws IOException {
+        int id = in.readInt();
+        String white = in.readUTF();
+        String black = in.readUTF();
+        String fen = in.readUTF();
+        return new GameAssignment(id, white, black, fen.isEmpty() ? null : fen, in.readInt(), in.readInt());
+    }
+
+    @Override
+    public String toString() {
+        return "#" + id + " " + white + " vs " + black;
+    }
+}
@@ -0,0 +1,96 @@
+package chessTournament;
+
+import chessModel.Board;
+import chessModel.ChessLog;
+import chessModel.Game;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The outcome of an assigned game with its moves packed as in
+ * {@link ChessLog}, four bytes a ply on the wire.
+ */
+public final class GameResult {
+
+    private final int id;
+    private final int winner;
+    private final String endReason;
+    private final int[] moves;
+
+    /**
+     * @param winner 0 white, 1 black, -1 draw
+     */
+    public GameResult(int id, int winner, String endReason, int[] moves) {
+        this.id = id;
+        this.winner = winner;
+        this.endReason = endReason;
+        this.moves = moves;
+    }
+
+    static GameResult of(int id, Game game) {
+        return new GameResult(id, game.getWinner(), game.getEndReason(), game.getBoard().getChessLog().getMoves());
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * 0 if white won, 1 if black won, -1 for a draw.
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    public String getEndReason() {
+        return endReason;
+    }
+
+    public int[] getMoves() {
+        return moves.clone();
+    }
+
+    public String getResultString() {
+        return winner == 0 ? "1-0" : winner == 1 ? "0-1" : "1/2-1/2";
+    }
+
+    /**
+     * Replays the game from the assignment's start position and returns it
+     * as PGN.
+     */
+    public String toPGN(GameAssignment assignment) {
+        Board board = assignment.getFen() == null ? new Board() : new Board(assignment.getFen());
+        board.setPlayerNames(assignment.getWhite(), assignment.getBlack());
+        for (int m : moves) {
+            char promotion = ChessLog.promotion(m);
+            if (!board.move(ChessLog.fromX(m), ChessLog.fromY(m), ChessLog.toX(m), ChessLog.toY(m),
+                    promotion == 0 ? 'q' : promotion)) {
+                break;
+            }
+        }
+        board.getChessLog().setResult(getResultString());
+        return board.getPGN();
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeInt(id);
+        out.writeByte(winner);
+        out.writeUTF(endReason);
+        out.writeShort(moves.length);
+        for (int m : moves) {
+            out.writeInt(m);
+        }
+    }
+
+    static GameResult read(DataInput in) throws IOException {
+        int id = in.readInt();
+        int winner = in.readByte();
+        String endReason = in.readUTF();
+        int[] moves = new int[in.readUnsignedShort()];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = in.readInt();
+        }
+        return new GameResult(id, winner, endReason, moves);
+    }
+}
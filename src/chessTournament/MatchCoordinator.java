@@ -0,0 +1,459 @@
+package chessTournament;
+
+import chessModel.ChessLogger;
+import chessModel.ChessLogger.Level;
+import chessModel.ErrorLogger;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Hands game assignments to {@link MatchWorker}s over TCP and collects the
+ * results. Each worker says how many games it runs at once and is kept
+ * that busy. A worker that disconnects or goes quiet for
+ * {@link MatchProtocol#DEAD_AFTER_MILLIS} is dropped and its unfinished
+ * games go back to the front of the queue for the others.
+ */
+public class MatchCoordinator implements AutoCloseable {
+
+    private static final int MAX_SPRT_GAMES = 20_000;
+
+    private final ServerSocket server;
+    private final Map<Integer, GameAssignment> assignments = new LinkedHashMap<>();
+    private final Deque<GameAssignment> pending = new ArrayDeque<>();
+    private final Map<Integer, GameResult> results = new LinkedHashMap<>();
+    private final List<Consumer<GameResult>> listeners = new CopyOnWriteArrayList<>();
+    // each worker's socket and the stream messages to it are written to
+    private final Map<Socket, DataOutputStream> connections = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+    private int reassigned;
+
+    /**
+     * Starts listening; workers may connect as soon as this returns.
+     *
+     * @param port the port to listen on, 0 for any free one
+     */
+    public MatchCoordinator(int port) throws IOException {
+        server = new ServerSocket(port);
+        Thread acceptor = new Thread(this::accept, "match-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Queues games; they go out to workers as slots free up.
+     */
+    public synchronized void submit(List<GameAssignment> games) {
+        for (GameAssignment game : games) {
+            if (assignments.putIfAbsent(game.getId(), game) != null) {
+                throw new IllegalArgumentException("Duplicate game id " + game.getId());
+            }
+            pending.addLast(game);
+        }
+        notifyAll();
+    }
+
+    /**
+     * Called with every result as it arrives, on a connection thread.
+     */
+    public void addResultListener(Consumer<GameResult> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Waits until every submitted game has a result.
+     *
+     * @return results in submission order
+     */
+    public synchronized List<GameResult> awaitResults() throws InterruptedException {
+        while (results.size() < assignments.size()) {
+            wait();
+        }
+        return getResults();
+    }
+
+    /**
+     * Results that are in so far, in submission order.
+     */
+    public synchronized List<GameResult> getResults() {
+        List<GameResult> ordered = new ArrayList<>(results.size());
+        for (Integer id : assignments.keySet()) {
+            GameResult result = results.get(id);
+            if (result != null) {
+                ordered.add(result);
+            }
+        }
+        return ordered;
+    }
+
+    public synchronized GameAssignment getAssignment(int id) {
+        return assignments.get(id);
+    }
+
+    public synchronized int getCompletedCount() {
+        return results.size();
+    }
+
+    /**
+     * Games handed out again after their worker was lost.
+     */
+    public synchronized int getReassignedCount() {
+        return reassigned;
+    }
+
+    private void accept() {
+        while (!closed) {
+            try {
+                Socket socket = server.accept();
+                Thread handler = new Thread(() -> serve(socket), "match-worker-" + socket.getRemoteSocketAddress());
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                if (!closed) {
+                    ErrorLogger.logException(e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        Set<Integer> inFlight = new HashSet<>();
+        String name = String.valueOf(socket.getRemoteSocketAddress());
+        try (socket) {
+            socket.setSoTimeout(MatchProtocol.DEAD_AFTER_MILLIS);
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            connections.put(socket, out);
+            if (in.readByte() != MatchProtocol.HELLO || in.readInt() != MatchProtocol.MAGIC
+                    || in.readInt() != MatchProtocol.VERSION) {
+                throw new IOException("Not a match worker: " + name);
+            }
+            name = in.readUTF() + "@" + socket.getRemoteSocketAddress();
+            int slots = in.readInt();
+            String worker = name;
+            ChessLogger.log(Level.INFO, "Match", "Worker joined: " + worker + " with " + slots + " slots");
+            while (!closed) {
+                if (fill(out, inFlight, slots)) {
+                    return; // all games done and the worker told so
+                }
+                int type = in.readByte();
+                switch (type) {
+                    case MatchProtocol.RESULTS -> {
+                        int count = in.readInt();
+                        for (int i = 0; i < count; i++) {
+                            GameResult result = GameResult.read(in);
+                            inFlight.remove(result.getId());
+                            record(result);
+                        }
+                    }
+                    case MatchProtocol.HEARTBEAT -> {
+                    }
+                    default ->
+                        throw new IOException("Unexpected message " + type + " from " + worker);
+                }
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                ChessLogger.log(Level.WARN, "Match", "Lost worker " + name + ": " + e);
+            }
+        } finally {
+            connections.remove(socket);
+            requeue(inFlight);
+        }
+    }
+
+    /**
+     * Sends assignments until the worker's slots are full.
+     *
+     * @return true if there is no work left and the worker was shut down
+     */
+    private boolean fill(DataOutputStream out, Set<Integer> inFlight, int slots) throws IOException {
+        List<GameAssignment> toSend = new ArrayList<>();
+        boolean finished;
+        synchronized (this) {
+            while (inFlight.size() + toSend.size() < slots && !pending.isEmpty()) {
+                GameAssignment game = pending.pollFirst();
+                if (!results.containsKey(game.getId())) {
+                    toSend.add(game);
+                }
+            }
+            finished = !assignments.isEmpty() && results.size() == assignments.size();
+        }
+        synchronized (out) {
+            for (GameAssignment game : toSend) {
+                inFlight.add(game.getId());
+                out.writeByte(MatchProtocol.ASSIGN);
+                game.write(out);
+            }
+            if (finished && inFlight.isEmpty()) {
+                out.writeByte(MatchProtocol.SHUTDOWN);
+            }
+            out.flush();
+        }
+        return finished && inFlight.isEmpty();
+    }
+
+    private void record(GameResult result) {
+        synchronized (this) {
+            if (!assignments.containsKey(result.getId()) || results.putIfAbsent(result.getId(), result) != null) {
+                return; // unknown or already in from an earlier attempt
+            }
+            notifyAll();
+        }
+        for (Consumer<GameResult> listener : listeners) {
+            listener.accept(result);
+        }
+    }
+
+    private synchronized void requeue(Set<Integer> inFlight) {
+        for (Integer id : inFlight) {
+            if (!results.containsKey(id)) {
+                pending.addFirst(assignments.get(id));
+                reassigned++;
+            }
+        }
+        inFlight.clear();
+    }
+
+    /**
+     * Stops accepting workers, tells the connected ones there is no more
+     * work and drops the connections, abandoning games still being played.
+     * Results already in stay available; calling it again does nothing.
+     */
+    public synchronized void shutdownWorkers() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        server.close();
+        for (Map.Entry<Socket, DataOutputStream> connection : connections.entrySet()) {
+            Socket socket = connection.getKey();
+            DataOutputStream out = connection.getValue();
+            try {
+                // a clean stop, so the worker does not report a lost connection
+                synchronized (out) {
+                    out.writeByte(MatchProtocol.SHUTDOWN);
+                    out.flush();
+                }
+                socket.shutdownOutput();
+            } catch (IOException e) {
+                // closing anyway
+            }
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // closing anyway
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        shutdownWorkers();
+    }
+
+    /**
+     * Usage: MatchCoordinator --bots A,B [--games n] [--openings file]
+     * [--time seconds] [--inc seconds] [--port n] [--local-workers n]
+     * [--slots n] [--pgn file] [--sprt elo0,elo1[,alpha,beta]]
+     *
+     * Each opening is played twice with colours swapped. Workers on other
+     * machines join with MatchWorker; --local-workers starts that many on
+     * this one. With --sprt the first bot is tested against the second
+     * after every pair and the match stops once either hypothesis is
+     * accepted; --games is then only a cap.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (System.getProperty("chess.log.level") == null) {
+            System.setProperty("chess.log.level", "WARN");
+        }
+        String[] bots = null;
+        int games = 100;
+        String openings = null;
+        int time = 60;
+        int increment = 1;
+        int port = 0;
+        int localWorkers = 0;
+        int slots = Runtime.getRuntime().availableProcessors();
+        String pgn = null;
+        Sprt sprt = null;
+        boolean gamesGiven = false;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--bots" ->
+                    bots = value.split(",");
+                case "--games" -> {
+                    games = Integer.parseInt(value);
+                    gamesGiven = true;
+                }
+                case "--openings" ->
+                    openings = value;
+                case "--time" ->
+                    time = Integer.parseInt(value);
+                case "--inc" ->
+                    increment = Integer.parseInt(value);
+                case "--port" ->
+                    port = Integer.parseInt(value);
+                case "--local-workers" ->
+                    localWorkers = Integer.parseInt(value);
+                case "--slots" ->
+                    slots = Integer.parseInt(value);
+                case "--pgn" ->
+                    pgn = value;
+                case "--sprt" ->
+                    sprt = parseSprt(value);
+                default ->
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (bots == null || bots.length != 2) {
+            throw new IllegalArgumentException("--bots takes two bot names, e.g. --bots GreedyMove,RandomMove");
+        }
+        if (bots[0].equals(bots[1])) {
+            throw new IllegalArgumentException("Both bots are " + bots[0] + "; results could not be told apart");
+        }
+        if (sprt != null && !gamesGiven) {
+            games = MAX_SPRT_GAMES;
+        }
+        games += games & 1; // whole pairs
+        List<String> fens = new ArrayList<>();
+        if (openings != null) {
+            fens = Files.readAllLines(Paths.get(openings), StandardCharsets.UTF_8).stream()
+                    .map(String::trim).filter(l -> !l.isEmpty() && !l.startsWith("#")).collect(Collectors.toList());
+        }
+        List<GameAssignment> assignments = new ArrayList<>(games);
+        for (int id = 0; id < games; id++) {
+            String fen = fens.isEmpty() ? null : fens.get(id / 2 % fens.size());
+            boolean swap = (id & 1) == 1;
+            assignments.add(new GameAssignment(id, bots[swap ? 1 : 0], bots[swap ? 0 : 1], fen, time, increment));
+        }
+
+        try (MatchCoordinator coordinator = new MatchCoordinator(port)) {
+            coordinator.submit(assignments);
+            System.err.println("Coordinator listening on port " + coordinator.getPort());
+            int total = games;
+            CompletableFuture<Sprt.Decision> verdict = new CompletableFuture<>();
+            if (sprt == null) {
+                coordinator.addResultListener(r -> System.err.printf("%d/%d %s%n",
+                        coordinator.getCompletedCount(), total, r.getResultString()));
+            } else {
+                coordinator.addResultListener(sprtListener(coordinator, sprt, bots[0], total, verdict));
+            }
+            List<Process> workers = new ArrayList<>();
+            for (int i = 0; i < localWorkers; i++) {
+                workers.add(new ProcessBuilder(ProcessHandle.current().info().command().orElse("java"),
+                        "--add-modules", "jdk.incubator.vector",
+                        "-cp", System.getProperty("java.class.path"), MatchWorker.class.getName(),
+                        "localhost", String.valueOf(coordinator.getPort()), String.valueOf(slots))
+                        .inheritIO().start());
+            }
+            List<GameResult> results;
+            if (sprt == null) {
+                results = coordinator.awaitResults();
+            } else {
+                Sprt.Decision decision = verdict.join();
+                results = coordinator.getResults();
+                System.out.println(decision == Sprt.Decision.CONTINUE ? "SPRT inconclusive after " + total + " games"
+                        : (decision == Sprt.Decision.ACCEPT_H1 ? "H1 accepted: " : "H0 accepted: ") + sprt);
+                coordinator.shutdownWorkers();
+            }
+
+            int[] score = new int[3]; // first bot's wins, draws, losses
+            for (GameResult r : results) {
+                double points = points(r, coordinator.getAssignment(r.getId()), bots[0]);
+                score[points == 1 ? 0 : points == 0 ? 2 : 1]++;
+            }
+            System.out.printf("%s vs %s: +%d =%d -%d (%d reassigned)%n", bots[0], bots[1],
+                    score[0], score[1], score[2], coordinator.getReassignedCount());
+            if (pgn != null) {
+                try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(Paths.get(pgn), StandardCharsets.UTF_8))) {
+                    for (GameResult r : results) {
+                        writer.println(r.toPGN(coordinator.getAssignment(r.getId())));
+                        writer.println();
+                    }
+                }
+            }
+            for (Process worker : workers) {
+                worker.waitFor();
+            }
+        }
+        System.exit(0);
+    }
+
+    private static Sprt parseSprt(String value) {
+        String[] parts = value.split(",");
+        if (parts.length != 2 && parts.length != 4) {
+            throw new IllegalArgumentException("--sprt takes elo0,elo1 or elo0,elo1,alpha,beta");
+        }
+        double alpha = parts.length == 4 ? Double.parseDouble(parts[2]) : 0.05;
+        double beta = parts.length == 4 ? Double.parseDouble(parts[3]) : 0.05;
+        return new Sprt(Double.parseDouble(parts[0]), Double.parseDouble(parts[1]), alpha, beta);
+    }
+
+    /**
+     * Pairs up games 2k and 2k + 1, which share an opening, feeds each
+     * finished pair to the test and completes the verdict once it decides
+     * or the games run out.
+     */
+    private static Consumer<GameResult> sprtListener(MatchCoordinator coordinator, Sprt sprt, String tested,
+            int games, CompletableFuture<Sprt.Decision> verdict) {
+        Map<Integer, Double> halfPairs = new HashMap<>();
+        return r -> {
+            double points = points(r, coordinator.getAssignment(r.getId()), tested);
+            Double other;
+            synchronized (halfPairs) {
+                other = halfPairs.remove(r.getId() / 2);
+                if (other == null) {
+                    halfPairs.put(r.getId() / 2, points);
+                }
+            }
+            if (other != null) {
+                sprt.addPair(points + other);
+                System.err.println(sprt);
+                if (sprt.getDecision() != Sprt.Decision.CONTINUE) {
+                    verdict.complete(sprt.getDecision());
+                }
+            }
+            if (coordinator.getCompletedCount() == games) {
+                verdict.complete(sprt.getDecision());
+            }
+        };
+    }
+
+    // the given bot's score in the game: 1, 0.5 or 0
+    private static double points(GameResult result, GameAssignment assignment, String bot) {
+        if (result.getWinner() < 0) {
+            return 0.5;
+        }
+        String winner = result.getWinner() == 0 ? assignment.getWhite() : assignment.getBlack();
+        return winner.equals(bot) ? 1 : 0;
+    }
+}
@@ -0,0 +1,29 @@
+package chessTournament;
+
+/**
+ * Message types between {@link MatchCoordinator} and {@link MatchWorker}.
+ * Every message is a type byte followed by its fields in
+ * {@link java.io.DataOutput} encoding.
+ */
+final class MatchProtocol {
+
+    static final int MAGIC = 0x43484D57;
+    static final int VERSION = 1;
+
+    // worker: magic, version, name, slots
+    static final int HELLO = 1;
+    // coordinator: one GameAssignment
+    static final int ASSIGN = 2;
+    // worker: count, then that many GameResults
+    static final int RESULTS = 3;
+    // worker: nothing; sent while idle so a silent worker can be told from a dead one
+    static final int HEARTBEAT = 4;
+    // coordinator: no more work, disconnect
+    static final int SHUTDOWN = 5;
+
+    static final int HEARTBEAT_MILLIS = 2_000;
+    static final int DEAD_AFTER_MILLIS = 15_000;
+
+    private MatchProtocol() {
+    }
+}
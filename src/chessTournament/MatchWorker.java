@@ -0,0 +1,217 @@
+package chessTournament;
+
+import chessModel.Board;
+import chessModel.ChessLogger;
+import chessModel.ChessLogger.Level;
+import chessModel.ErrorLogger;
+import chessModel.Game;
+import chessModel.Player;
+import util.BotRegistry;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plays games handed out by a {@link MatchCoordinator}. Games run
+ * headlessly, several at once, and finished results are sent back in
+ * batches rather than one by one; a heartbeat goes out whenever the worker
+ * has had nothing to say for a while. A game adjudicated on repeated
+ * invalid moves is taken back a full move and played on once before it is
+ * reported. The clocks stay as they were at the adjudication: time spent on
+ * the moves taken back is not refunded, so the result still reflects the
+ * time control.
+ *
+ * Usage: MatchWorker &lt;host&gt; &lt;port&gt; [slots]
+ */
+public class MatchWorker implements Runnable {
+
+    private static final int FLUSH_MILLIS = 1_000;
+    // plies taken back when an invalid-move forfeit is disputed
+    private static final int REWIND_PLIES = 2;
+
+    private final String host;
+    private final int port;
+    private final int slots;
+    private final String name;
+    private final List<GameResult> finished = new ArrayList<>();
+    private long oldestFinished;
+    private boolean done;
+    private int played;
+
+    public MatchWorker(String host, int port, int slots, String name) {
+        this.host = host;
+        this.port = port;
+        this.slots = slots;
+        this.name = name;
+    }
+
+    /**
+     * Plays assignments until the coordinator says there are no more or the
+     * connection drops.
+     */
+    @Override
+    public void run() {
+        try (Socket socket = new Socket(host, port)) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeByte(MatchProtocol.HELLO);
+            out.writeInt(MatchProtocol.MAGIC);
+            out.writeInt(MatchProtocol.VERSION);
+            out.writeUTF(name);
+            out.writeInt(slots);
+            out.flush();
+
+            Thread uploader = new Thread(() -> upload(out), "match-upload");
+            uploader.setDaemon(true);
+            uploader.start();
+            try {
+                while (true) {
+                    int type = in.readByte();
+                    if (type == MatchProtocol.SHUTDOWN) {
+                        break;
+                    }
+                    if (type != MatchProtocol.ASSIGN) {
+                        throw new IOException("Unexpected message " + type);
+                    }
+                    start(GameAssignment.read(in));
+                }
+            } finally {
+                synchronized (this) {
+                    done = true;
+                    notifyAll();
+                }
+                uploader.join();
+            }
+        } catch (IOException e) {
+            ChessLogger.log(Level.WARN, "Match", "Worker " + name + " disconnected: " + e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void start(GameAssignment assignment) {
+        play(assignment, assignment.getFen() == null ? new Board() : new Board(assignment.getFen()),
+                assignment.getTimeSeconds(), assignment.getTimeSeconds(), false);
+    }
+
+    private void play(GameAssignment assignment, Board start, int whiteSeconds, int blackSeconds, boolean resumed) {
+        Player white = BotRegistry.getDefault().create(assignment.getWhite(), 0);
+        Player black = BotRegistry.getDefault().create(assignment.getBlack(), 1);
+        Game game = new Game(Game.AI_VS_AI, white, black, start,
+                whiteSeconds, blackSeconds, assignment.getIncrementSeconds());
+        game.setTurnDelay(0);
+        game.getCompletion().thenAccept(g -> {
+            if (!resumed && isDisputed(g)) {
+                // usually a bot starved of time on a busy worker rather than a real result
+                int ply = g.getBoard().getChessLog().getMoveCount();
+                g.rewind(Math.max(0, ply - REWIND_PLIES));
+                ChessLogger.log(Level.INFO, "Match", "Game " + assignment.getId()
+                        + " ended by invalid moves; resuming from ply " + g.getBoard().getChessLog().getMoveCount());
+                play(assignment, g.getBoard(), g.getSecondsLeft(0), g.getSecondsLeft(1), true);
+                return;
+            }
+            finish(GameResult.of(assignment.getId(), g));
+        });
+    }
+
+    private static boolean isDisputed(Game game) {
+        return game.getInvalidMovesCount() > Game.MAX_INVALID_MOVES;
+    }
+
+    private synchronized void finish(GameResult result) {
+        if (finished.isEmpty()) {
+            oldestFinished = System.currentTimeMillis();
+        }
+        finished.add(result);
+        played++;
+        notifyAll();
+    }
+
+    public synchronized int getPlayedCount() {
+        return played;
+    }
+
+    /**
+     * Sends results once half the slots are waiting on them or the oldest
+     * has waited {@link #FLUSH_MILLIS}, and a heartbeat after
+     * {@link MatchProtocol#HEARTBEAT_MILLIS} of silence.
+     */
+    private void upload(DataOutputStream out) {
+        long lastSent = System.currentTimeMillis();
+        int batchSize = Math.max(1, slots / 2);
+        try {
+            while (true) {
+                List<GameResult> batch = null;
+                boolean heartbeat = false;
+                synchronized (this) {
+                    while (true) {
+                        long now = System.currentTimeMillis();
+                        if (!finished.isEmpty() && (done || finished.size() >= batchSize
+                                || now - oldestFinished >= FLUSH_MILLIS)) {
+                            batch = new ArrayList<>(finished);
+                            finished.clear();
+                            break;
+                        }
+                        if (done) {
+                            return;
+                        }
+                        if (now - lastSent >= MatchProtocol.HEARTBEAT_MILLIS) {
+                            heartbeat = true;
+                            break;
+                        }
+                        long wake = lastSent + MatchProtocol.HEARTBEAT_MILLIS;
+                        if (!finished.isEmpty()) {
+                            wake = Math.min(wake, oldestFinished + FLUSH_MILLIS);
+                        }
+                        wait(Math.max(1, wake - now));
+                    }
+                }
+                if (heartbeat) {
+                    out.writeByte(MatchProtocol.HEARTBEAT);
+                } else {
+                    out.writeByte(MatchProtocol.RESULTS);
+                    out.writeInt(batch.size());
+                    for (GameResult result : batch) {
+                        result.write(out);
+                    }
+                }
+                out.flush();
+                lastSent = System.currentTimeMillis();
+            }
+        } catch (IOException e) {
+            if (!isDone()) {
+                ErrorLogger.logException(e);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized boolean isDone() {
+        return done;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (System.getProperty("chess.log.level") == null) {
+            System.setProperty("chess.log.level", "WARN");
+        }
+        if (args.length < 2) {
+            System.err.println("Usage: MatchWorker <host> <port> [slots]");
+            System.exit(2);
+        }
+        int slots = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        String name = InetAddress.getLocalHost().getHostName() + ":" + ProcessHandle.current().pid();
+        MatchWorker worker = new MatchWorker(args[0], Integer.parseInt(args[1]), slots, name);
+        worker.run();
+        System.err.println(name + " played " + worker.getPlayedCount() + " games");
+        // bots may leave non-daemon search threads behind
+        System.exit(0);
+    }
+}
@@ -0,0 +1,142 @@
+package chessTournament;
+
+/**
+ * Sequential probability ratio test on game pairs. Each pair is the same
+ * opening played with colours swapped and scores 0, 0.5, ... 2 points for
+ * the engine under test; counting pairs rather than games cancels most of
+ * the opening's bias. The log-likelihood ratio uses the usual normal
+ * approximation over the pentanomial pair scores, with the hypotheses as
+ * logistic Elo differences elo0 (H0) and elo1 (H1).
+ */
+public final class Sprt {
+
+    public enum Decision {
+        CONTINUE, ACCEPT_H0, ACCEPT_H1
+    }
+
+    // 95% two-sided
+    private static final double Z = 1.959964;
+
+    private final double elo0;
+    private final double elo1;
+    private final double lower;
+    private final double upper;
+    private final long[] pairs = new long[5]; // by half points: 0, 0.5, 1, 1.5, 2
+    private long count;
+
+    /**
+     * @param alpha chance of accepting H1 when H0 holds
+     * @param beta chance of accepting H0 when H1 holds
+     */
+    public Sprt(double elo0, double elo1, double alpha, double beta) {
+        if (elo1 <= elo0 || alpha <= 0 || alpha >= 1 || beta <= 0 || beta >= 1) {
+            throw new IllegalArgumentException("Need elo0 < elo1 and 0 < alpha, beta < 1");
+        }
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.lower = Math.log(beta / (1 - alpha));
+        this.upper = Math.log((1 - beta) / alpha);
+    }
+
+    /**
+     * Adds a finished pair.
+     *
+     * @param points the tested engine's points over both games, 0 to 2
+     */
+    public synchronized void addPair(double points) {
+        int index = (int) Math.round(points * 2);
+        if (index < 0 || index > 4) {
+            throw new IllegalArgumentException("Pair score " + points + " is not between 0 and 2");
+        }
+        pairs[index]++;
+        count++;
+    }
+
+    public synchronized long getPairCount() {
+        return count;
+    }
+
+    /**
+     * The log-likelihood ratio of H1 against H0, 0 while every pair has
+     * scored the same and the variance is still unknown.
+     */
+    public synchronized double getLLR() {
+        double variance = variance();
+        if (variance <= 0) {
+            return 0;
+        }
+        double s0 = expectedScore(elo0);
+        double s1 = expectedScore(elo1);
+        return count * (s1 - s0) * (2 * mean() - s0 - s1) / (2 * variance);
+    }
+
+    public double getLowerBound() {
+        return lower;
+    }
+
+    public double getUpperBound() {
+        return upper;
+    }
+
+    public synchronized Decision getDecision() {
+        double llr = getLLR();
+        return llr >= upper ? Decision.ACCEPT_H1 : llr <= lower ? Decision.ACCEPT_H0 : Decision.CONTINUE;
+    }
+
+    /**
+     * Elo difference implied by the mean score so far.
+     */
+    public synchronized double getElo() {
+        return elo(mean());
+    }
+
+    /**
+     * Half the width of the 95% confidence interval around
+     * {@link #getElo()}.
+     */
+    public synchronized double getEloError() {
+        if (count == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double margin = Z * Math.sqrt(variance() / count);
+        return (elo(mean() + margin) - elo(mean() - margin)) / 2;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("LLR %.2f [%.2f, %.2f]  Elo %.1f +- %.1f  pairs %d  (%d-%d-%d-%d-%d)",
+                getLLR(), lower, upper, getElo(), getEloError(), count,
+                pairs[0], pairs[1], pairs[2], pairs[3], pairs[4]);
+    }
+
+    // mean score per game, 0 to 1
+    private double mean() {
+        double sum = 0;
+        for (int i = 0; i < pairs.length; i++) {
+            sum += pairs[i] * i / 4.0;
+        }
+        return count == 0 ? 0.5 : sum / count;
+    }
+
+    private double variance() {
+        if (count == 0) {
+            return 0;
+        }
+        double mean = mean();
+        double sum = 0;
+        for (int i = 0; i < pairs.length; i++) {
+            double d = i / 4.0 - mean;
+            sum += pairs[i] * d * d;
+        }
+        return sum / count;
+    }
+
+    private static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    private static double elo(double score) {
+        double s = Math.min(Math.max(score, 1e-6), 1 - 1e-6);
+        return -400 * Math.log10(1 / s - 1);
+    }
+}
@@ -0,0 +1,184 @@
+package chessTraining;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A training sample in a fixed 32 bytes, little endian:
+ * <pre>
+ *  0  long   occupancy, bit 0 = a1 ... bit 63 = h8
+ *  8  16 x 2 piece nibbles in square order, low nibble first:
+ *            1-6 white PNBRQK, 9-14 black
+ * 24  byte   bit 0 black to move, bits 1-4 castling KQkq
+ * 25  byte   en passant file + 1, or 0
+ * 26  byte   halfmove clock, capped at 255
+ * 27  short  fullmove number
+ * 29  short  search score in centipawns, white's point of view
+ * 31  byte   game result: 0 black won, 1 draw, 2 white won
+ * </pre>
+ * Shards are plain concatenations of records.
+ */
+public final class PackedPosition {
+
+    public static final int BYTES = 32;
+    public static final int BLACK_WON = 0;
+    public static final int DRAW = 1;
+    public static final int WHITE_WON = 2;
+
+    private static final String PIECES = " PNBRQK  pnbrqk";
+    private static final String CASTLING = "KQkq";
+
+    private PackedPosition() {
+    }
+
+    /**
+     * Packs a FEN record with its score and result at the buffer's
+     * position, which must be in little-endian order.
+     *
+     * @throws IllegalArgumentException if the FEN is malformed
+     */
+    public static void pack(String fen, int whiteScore, int result, ByteBuffer out) {
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 2) {
+            throw new IllegalArgumentException("Bad FEN: " + fen);
+        }
+        long occupancy = 0;
+        byte[] nibbles = new byte[16];
+        int count = 0;
+        int rank = 7;
+        int file = 0;
+        // FEN lists rank 8 first; collect squares, then order them a1 up
+        int[] codes = new int[64];
+        for (char c : fields[0].toCharArray()) {
+            if (c == '/') {
+                rank--;
+                file = 0;
+            } else if (Character.isDigit(c)) {
+                file += c - '0';
+            } else {
+                int code = PIECES.indexOf(c);
+                if (code <= 0 || rank < 0 || file > 7) {
+                    throw new IllegalArgumentException("Bad FEN: " + fen);
+                }
+                codes[rank * 8 + file] = code;
+                occupancy |= 1L << (rank * 8 + file);
+                file++;
+            }
+        }
+        for (int sq = 0; sq < 64; sq++) {
+            if (codes[sq] != 0) {
+                if (count == 32) {
+                    throw new IllegalArgumentException("More than 32 pieces: " + fen);
+                }
+                nibbles[count >> 1] |= (byte) (codes[sq] << ((count & 1) * 4));
+                count++;
+            }
+        }
+        int flags = fields[1].equals("b") ? 1 : 0;
+        if (fields.length > 2) {
+            for (int i = 0; i < CASTLING.length(); i++) {
+                if (fields[2].indexOf(CASTLING.charAt(i)) >= 0) {
+                    flags |= 2 << i;
+                }
+            }
+        }
+        int enPassant = fields.length > 3 && !fields[3].equals("-") ? fields[3].charAt(0) - 'a' + 1 : 0;
+        int halfMove = fields.length > 4 ? Integer.parseInt(fields[4]) : 0;
+        int fullMove = fields.length > 5 ? Integer.parseInt(fields[5]) : 1;
+
+        out.putLong(occupancy);
+        out.put(nibbles);
+        out.put((byte) flags);
+        out.put((byte) enPassant);
+        out.put((byte) Math.min(255, halfMove));
+        out.putShort((short) Math.min(0xFFFF, fullMove));
+        out.putShort((short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, whiteScore)));
+        out.put((byte) result);
+    }
+
+    /**
+     * The FEN of the record starting at the given offset.
+     */
+    public static String fen(ByteBuffer in, int offset) {
+        long occupancy = in.getLong(offset);
+        StringBuilder sb = new StringBuilder(90);
+        char[] board = new char[64];
+        int count = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            if ((occupancy >>> sq & 1) != 0) {
+                int code = in.get(offset + 8 + (count >> 1)) >> ((count & 1) * 4) & 0xF;
+                board[sq] = PIECES.charAt(code);
+                count++;
+            }
+        }
+        for (int rank = 7; rank >= 0; rank--) {
+            int empty = 0;
+            for (int file = 0; file < 8; file++) {
+                char c = board[rank * 8 + file];
+                if (c == 0) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    sb.append(empty);
+                    empty = 0;
+                }
+                sb.append(c);
+            }
+            if (empty > 0) {
+                sb.append(empty);
+            }
+            if (rank > 0) {
+                sb.append('/');
+            }
+        }
+        int flags = in.get(offset + 24);
+        boolean black = (flags & 1) != 0;
+        sb.append(black ? " b " : " w ");
+        int before = sb.length();
+        for (int i = 0; i < CASTLING.length(); i++) {
+            if ((flags & 2 << i) != 0) {
+                sb.append(CASTLING.charAt(i));
+            }
+        }
+        if (sb.length() == before) {
+            sb.append('-');
+        }
+        int enPassant = in.get(offset + 25);
+        sb.append(' ');
+        if (enPassant == 0) {
+            sb.append('-');
+        } else {
+            sb.append((char) ('a' + enPassant - 1)).append(black ? '3' : '6');
+        }
+        sb.append(' ').append(in.get(offset + 26) & 0xFF);
+        sb.append(' ').append(in.getShort(offset + 27) & 0xFFFF);
+        return sb.toString();
+    }
+
+    public static int score(ByteBuffer in, int offset) {
+        return in.getShort(offset + 29);
+    }
+
+    public static int result(ByteBuffer in, int offset) {
+        return in.get(offset + 31);
+    }
+
+    /**
+     * Usage: PackedPosition &lt;shard&gt;, prints each record as
+     * "fen | score | result".
+     */
+    public static void main(String[] args) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(args[0]), StandardOpenOption.READ)) {
+            ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            for (int offset = 0; offset + BYTES <= buf.limit(); offset += BYTES) {
+                System.out.println(fen(buf, offset) + " | " + score(buf, offset) + " | " + result(buf, offset));
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package chessTraining;
+
+import botIntelligence.SearchMove;
+import chessEngine.Search;
+import chessModel.Board;
+import chessModel.SearchLimits;
+import chessModel.StopToken;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * A searching player that remembers each position it moved from together
+ * with the score of its deepest completed search iteration.
+ */
+public class RecordingPlayer extends SearchMove {
+
+    /**
+     * A position and its score from white's point of view.
+     */
+    public static final class Sample {
+
+        private final String fen;
+        private final int whiteScore;
+
+        Sample(String fen, int whiteScore) {
+            this.fen = fen;
+            this.whiteScore = whiteScore;
+        }
+
+        public String getFen() {
+            return fen;
+        }
+
+        public int getWhiteScore() {
+            return whiteScore;
+        }
+    }
+
+    private final List<Sample> samples = new ArrayList<>();
+
+    @Override
+    public CompletableFuture<Integer[]> requestMove(Board board, SearchLimits limits, StopToken stop,
+            Consumer<Integer[]> bestMoveSoFar) {
+        String fen = board.getFEN();
+        int mover = board.getSideToMove();
+        AtomicReference<Search.Result> last = new AtomicReference<>();
+        setSearchListener(last::set);
+        return super.requestMove(board, limits, stop, bestMoveSoFar).thenApply(move -> {
+            Search.Result result = last.get();
+            if (move != null && result != null) {
+                synchronized (samples) {
+                    samples.add(new Sample(fen, mover == 0 ? result.getScore() : -result.getScore()));
+                }
+            }
+            return move;
+        });
+    }
+
+    /**
+     * The samples recorded so far, in move order.
+     */
+    public List<Sample> getSamples() {
+        synchronized (samples) {
+            return new ArrayList<>(samples);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package chessTraining;
+
+import chessModel.Board;
+import chessModel.ErrorLogger;
+import chessModel.Game;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless self-play for evaluation tuning. Runs games between two
+ * {@link RecordingPlayer}s on several threads, each game starting from a
+ * few random plies so games differ. Every searched position is stored with
+ * its search score and the game's result in {@link PackedPosition} format.
+ *
+ * Usage: SelfPlay [--games n] [--threads n] [--depth n] [--random-plies n]
+ * [--seed n] [--out dir] [--shard-mb n]
+ */
+public class SelfPlay {
+
+    private static final long REPORT_SECONDS = 10;
+
+    private final int games;
+    private final int threads;
+    private final int depth;
+    private final int randomPlies;
+    private final long seed;
+    private final TrainingDataWriter writer;
+    private final AtomicInteger nextGame = new AtomicInteger();
+    private final AtomicInteger finishedGames = new AtomicInteger();
+    private long start;
+
+    public SelfPlay(int games, int threads, int depth, int randomPlies, long seed, TrainingDataWriter writer) {
+        this.games = games;
+        this.threads = threads;
+        this.depth = depth;
+        this.randomPlies = randomPlies;
+        this.seed = seed;
+        this.writer = writer;
+    }
+
+    /**
+     * Plays all games, returning once their positions are queued.
+     */
+    public void run() throws InterruptedException {
+        start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "self-play");
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < threads; i++) {
+            pool.execute(this::playGames);
+        }
+        pool.shutdown();
+        while (!pool.awaitTermination(REPORT_SECONDS, TimeUnit.SECONDS)) {
+            report();
+        }
+    }
+
+    private void playGames() {
+        int index;
+        while ((index = nextGame.getAndIncrement()) < games) {
+            try {
+                playGame(new Random(seed + index));
+            } catch (IOException | ExecutionException e) {
+                ErrorLogger.logException(e);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void playGame(Random random) throws IOException, InterruptedException, ExecutionException {
+        RecordingPlayer white = new RecordingPlayer();
+        RecordingPlayer black = new RecordingPlayer();
+        white.init("SelfPlay-1", 0);
+        black.init("SelfPlay-2", 1);
+        white.setMaxDepth(depth);
+        black.setMaxDepth(depth);
+        Game game = new Game(Game.AI_VS_AI, white, black, randomOpening(random));
+        game.setTurnDelay(0);
+        game.getCompletion().get();
+
+        int result = switch (game.getWinner()) {
+            case 0 ->
+                PackedPosition.WHITE_WON;
+            case 1 ->
+                PackedPosition.BLACK_WON;
+            default ->
+                PackedPosition.DRAW;
+        };
+        List<RecordingPlayer.Sample> samples = new ArrayList<>(white.getSamples());
+        samples.addAll(black.getSamples());
+        ByteBuffer batch = ByteBuffer.allocate(samples.size() * PackedPosition.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (RecordingPlayer.Sample s : samples) {
+            PackedPosition.pack(s.getFen(), s.getWhiteScore(), result, batch);
+        }
+        // blocks while the writer is behind, which holds back the next game
+        writer.write(batch.array());
+        finishedGames.incrementAndGet();
+    }
+
+    private Board randomOpening(Random random) {
+        while (true) {
+            Board board = new Board();
+            boolean ok = true;
+            for (int ply = 0; ply < randomPlies && ok; ply++) {
+                List<Integer[]> moves = board.getAllMoves(board.getSideToMove());
+                ok = false;
+                while (!moves.isEmpty() && !ok) {
+                    Integer[] m = moves.remove(random.nextInt(moves.size()));
+                    ok = board.move(m[0], m[1], m[2], m[3]);
+                }
+            }
+            if (ok && !board.getAllMoves(board.getSideToMove()).isEmpty()) {
+                return board;
+            }
+        }
+    }
+
+    /**
+     * Prints games finished and the writer's throughput so far; the final
+     * figures once the writer is closed.
+     */
+    public void report() {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long positions = writer.getRecordCount();
+        System.err.printf("%d/%d games, %d positions, %.1f positions/s, %.1f bytes/position, %d shards%n",
+                finishedGames.get(), games, positions, positions / Math.max(seconds, 1e-9),
+                positions == 0 ? 0.0 : (double) writer.getBytesWritten() / positions, writer.getShardCount());
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (System.getProperty("chess.log.level") == null) {
+            // per-move game logging would swamp the progress reports
+            System.setProperty("chess.log.level", "WARN");
+        }
+        int games = 100;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int depth = 3;
+        int randomPlies = 8;
+        long seed = System.nanoTime();
+        Path out = Paths.get("selfplay");
+        long shardMegabytes = 64;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--games" ->
+                    games = Integer.parseInt(value);
+                case "--threads" ->
+                    threads = Integer.parseInt(value);
+                case "--depth" ->
+                    depth = Integer.parseInt(value);
+                case "--random-plies" ->
+                    randomPlies = Integer.parseInt(value);
+                case "--seed" ->
+                    seed = Long.parseLong(value);
+                case "--out" ->
+                    out = Paths.get(value);
+                case "--shard-mb" ->
+                    shardMegabytes = Long.parseLong(value);
+                default ->
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        TrainingDataWriter writer = new TrainingDataWriter(out, "selfplay", shardMegabytes << 20, 4 * threads);
+        SelfPlay selfPlay = new SelfPlay(games, threads, depth, randomPlies, seed, writer);
+        try (writer) {
+            selfPlay.run();
+        }
+        // only now has the writer drained its queue
+        selfPlay.report();
+        System.err.printf("Wrote %d positions, %d bytes, in %d shards to %s%n",
+                writer.getRecordCount(), writer.getBytesWritten(), writer.getShardCount(), out);
+        System.exit(0);
+    }
+}
@@ -0,0 +1,157 @@
+package chessTraining;
+
+import chessModel.ErrorLogger;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Streams packed records to numbered shard files on a background thread.
+ * Producers hand over whole batches (usually one game) through a bounded
+ * queue and block when the disk falls behind, so memory stays flat however
+ * fast games finish. A new shard starts once the current one reaches the
+ * size limit; shards never split a batch.
+ */
+public class TrainingDataWriter implements AutoCloseable {
+
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final byte[] END = new byte[0];
+
+    private final Path dir;
+    private final String prefix;
+    private final long shardBytes;
+    private final BlockingQueue<byte[]> queue;
+    private final Thread writer;
+    private final LongAdder records = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private volatile IOException failure;
+    private volatile int shard;
+
+    /**
+     * @param dir directory the shards go to, created if missing
+     * @param prefix shard names are prefix-00000.bin, prefix-00001.bin, ...
+     * @param shardBytes size at which a new shard is started
+     * @param queuedBatches batches that may wait before producers block
+     */
+    public TrainingDataWriter(Path dir, String prefix, long shardBytes, int queuedBatches) throws IOException {
+        this.dir = Files.createDirectories(dir);
+        this.prefix = prefix;
+        this.shardBytes = shardBytes;
+        this.queue = new ArrayBlockingQueue<>(queuedBatches);
+        this.writer = new Thread(this::drain, "training-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues a batch of whole records, waiting while the queue is full.
+     *
+     * @throws IOException if writing has failed
+     */
+    public void write(byte[] batch) throws IOException, InterruptedException {
+        if (batch.length % PackedPosition.BYTES != 0) {
+            throw new IllegalArgumentException("Batch of " + batch.length + " bytes is not whole records");
+        }
+        checkFailure();
+        if (batch.length > 0) {
+            queue.put(batch);
+        }
+    }
+
+    private void drain() {
+        OutputStream out = null;
+        long written = 0;
+        try {
+            while (true) {
+                byte[] batch = queue.take();
+                if (batch == END) {
+                    break;
+                }
+                if (out == null || written >= shardBytes) {
+                    if (out != null) {
+                        out.close();
+                    }
+                    out = new BufferedOutputStream(Files.newOutputStream(nextShard()), BUFFER_BYTES);
+                    written = 0;
+                }
+                out.write(batch);
+                written += batch.length;
+                bytes.add(batch.length);
+                records.add(batch.length / PackedPosition.BYTES);
+            }
+        } catch (IOException e) {
+            failure = e;
+            ErrorLogger.logException(e);
+            discardUntilEnd();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+        }
+    }
+
+    // keeps taking batches so producers are not left blocked on a dead writer
+    private void discardUntilEnd() {
+        try {
+            while (queue.take() != END) {
+                // dropped; the next write reports the failure
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Path nextShard() {
+        return dir.resolve(String.format("%s-%05d.bin", prefix, shard++));
+    }
+
+    private void checkFailure() throws IOException {
+        IOException e = failure;
+        if (e != null) {
+            throw new IOException("Training data writer failed", e);
+        }
+    }
+
+    public long getRecordCount() {
+        return records.sum();
+    }
+
+    public long getBytesWritten() {
+        return bytes.sum();
+    }
+
+    public int getShardCount() {
+        return shard;
+    }
+
+    /**
+     * Writes everything queued so far and closes the last shard.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (writer.isAlive()) {
+                queue.put(END);
+                writer.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted closing the writer");
+        }
+        checkFailure();
+    }
+}
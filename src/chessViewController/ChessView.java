@@ -28,7 +28,7 @@ public class ChessView extends JPanel {
             Map.entry("n", '\u265E'), Map.entry("p", '\u265F')
     );
 
-    public final Board board;
+    private Board board;
     private final Color brown = new Color(130, 70, 30);
     private Piece selected;
 
@@ -61,6 +61,14 @@ public class ChessView extends JPanel {
         repaint();
     }
 
+    /**
+     * Shows a different board, e.g. a position from a replay.
+     */
+    public void setBoard(Board board) {
+        this.board = board;
+        repaint();
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
@@ -2,12 +2,14 @@ package chessViewController;
 
 import chessModel.Board;
 import chessModel.Game;
+import chessModel.GameReplay;
 import chessModel.Player;
 import java.awt.BorderLayout;
 import java.awt.Dimension;
 import java.awt.GridLayout;
 import java.awt.Point;
 import java.awt.Toolkit;
+import java.awt.event.KeyEvent;
 import java.io.FileNotFoundException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
@@ -21,7 +23,9 @@ import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
+import javax.swing.JSlider;
 import javax.swing.JTextArea;
+import javax.swing.KeyStroke;
 import javax.swing.SwingConstants;
 import javax.swing.Timer;
 import javax.swing.filechooser.FileNameExtensionFilter;
@@ -31,6 +35,8 @@ public class GraphicsGUI extends JFrame {
 
     private final JMenuItem saveItem;
     private final JMenuItem detailsItem;
+    private final JMenuItem undoItem;
+    private final JMenuItem redoItem;
     private final JLabel timer1Label = new JLabel("", SwingConstants.CENTER);
     private final JLabel timer2Label = new JLabel("", SwingConstants.CENTER);
     private final JLabel player1Score = new JLabel("", SwingConstants.CENTER);
@@ -38,7 +44,9 @@ public class GraphicsGUI extends JFrame {
     private final ChessView chessView;
     private final Timer updateTimer;
     private final Game game;
+    private final MoveInput input;
     private boolean coverageShown = false;
+    private int shownPly = -1;
 
     public GraphicsGUI(int gameMode, Player player1, Player player2) {
         super("Chess");
@@ -55,12 +63,21 @@ public class GraphicsGUI extends JFrame {
         fileMenu.add(saveItem);
         fileMenu.add(detailsItem);
         menuBar.add(fileMenu);
+        JMenu editMenu = new JMenu("Edit");
+        undoItem = new JMenuItem("Take Back");
+        undoItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Z, Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx()));
+        redoItem = new JMenuItem("Redo");
+        redoItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Y, Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx()));
+        editMenu.add(undoItem);
+        editMenu.add(redoItem);
+        menuBar.add(editMenu);
         setJMenuBar(menuBar);
 
         // Game + view
         game = new Game(gameMode, player1, player2);
         Board board = game.getBoard();
         chessView = new ChessView(board);
+        input = new MoveInput(game, chessView);
 
         setupHumanPlayers(player1, player2);
 
@@ -87,19 +104,30 @@ public class GraphicsGUI extends JFrame {
 
     private void setupHumanPlayers(Player p1, Player p2) {
         if (p1 instanceof HumanPlayer hp1) {
-            hp1.setupView(this, chessView);
+            hp1.setupView(input, chessView);
         }
         if (p2 instanceof HumanPlayer hp2) {
-            hp2.setupView(this, chessView);
+            hp2.setupView(input, chessView);
         }
     }
 
     private void setupActions(Board board) {
         saveItem.addActionListener(e -> saveGame(board));
         detailsItem.addActionListener(e -> showDetails(board));
+        undoItem.addActionListener(e -> afterRewind(game.takeBack() > 0));
+        redoItem.addActionListener(e -> afterRewind(game.redo()));
     }
 
     private void updateUI() {
+        if (!game.getCompletion().isDone() && game.getCurrentPlayer() instanceof HumanPlayer) {
+            input.refresh();
+        }
+        int ply = game.getBoard().getChessLog().getMoveCount();
+        if (ply != shownPly) {
+            // drops the marks of a premove that has now been played or discarded
+            shownPly = ply;
+            input.showSelectedMoves();
+        }
         // clocks
         if (game.getCurrentSide() == 0) {
             timer1Label.setText(htmlLabel("P1 Time", true, game.getPlayer1Time()));
@@ -108,6 +136,8 @@ public class GraphicsGUI extends JFrame {
             timer1Label.setText(htmlLabel("P1 Time", false, game.getPlayer1Time()));
             timer2Label.setText(htmlLabel("P2 Time", true, game.getPlayer2Time()));
         }
+        undoItem.setEnabled(game.canUndo());
+        redoItem.setEnabled(game.canRedo());
         // scores
         player1Score.setText("Score: " + game.getPlayer1Score());
         player2Score.setText("Score: " + game.getPlayer2Score());
@@ -115,6 +145,7 @@ public class GraphicsGUI extends JFrame {
         // end-of-game highlighting, one time only
         if (!coverageShown && gameOver()) {
             coverageShown = true;
+            input.freezeHighlights();
             updateTimer.stop();
             highlightWinnerCoverage();
         }
@@ -150,6 +181,15 @@ public class GraphicsGUI extends JFrame {
         chessView.setHighlightSquares(squares);
     }
 
+    private void afterRewind(boolean changed) {
+        if (changed) {
+            input.select(null);
+            chessView.repaint();
+        }
+        undoItem.setEnabled(game.canUndo());
+        redoItem.setEnabled(game.canRedo());
+    }
+
     private void saveGame(Board board) {
         JFileChooser chooser = new JFileChooser(System.getProperty("user.home"));
         chooser.setFileFilter(new FileNameExtensionFilter("Text File", "txt"));
@@ -163,13 +203,39 @@ public class GraphicsGUI extends JFrame {
     }
 
     private void showDetails(Board board) {
-        JPanel p = new JPanel(new GridLayout(3, 1, 5, 5));
-        p.add(buildScrollPanel("PGN", board.getPGN()));
-        p.add(buildScrollPanel("FEN", board.getFEN()));
-        p.add(buildScrollPanel("Raw Moves", board.getMoveLog().toString()));
+        JPanel text = new JPanel(new GridLayout(3, 1, 5, 5));
+        text.add(buildScrollPanel("PGN", board.getPGN()));
+        text.add(buildScrollPanel("FEN", board.getFEN()));
+        text.add(buildScrollPanel("Raw Moves", board.getMoveLog().toString()));
+        JPanel p = new JPanel(new BorderLayout(10, 0));
+        p.add(buildReplayPanel(board), BorderLayout.WEST);
+        p.add(text, BorderLayout.CENTER);
         JOptionPane.showMessageDialog(this, p, "Game Details", JOptionPane.PLAIN_MESSAGE);
     }
 
+    // a board with a slider over every ply played so far
+    private JPanel buildReplayPanel(Board board) {
+        GameReplay replay = GameReplay.of(board);
+        List<String> san = board.getChessLog().getSanLog();
+        ChessView view = new ChessView(replay.seek(replay.getPlyCount()));
+        view.setPreferredSize(new Dimension(320, 320));
+        JLabel label = new JLabel("", SwingConstants.CENTER);
+        JSlider slider = new JSlider(0, replay.getPlyCount(), replay.getPlyCount());
+        Runnable show = () -> {
+            int ply = slider.getValue();
+            view.setBoard(replay.seek(ply));
+            label.setText(ply == 0 ? "Start" : "Ply " + ply + " of " + replay.getPlyCount()
+                    + (ply <= san.size() ? ": " + san.get(ply - 1) : ""));
+        };
+        slider.addChangeListener(e -> show.run());
+        show.run();
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(label, BorderLayout.NORTH);
+        panel.add(view, BorderLayout.CENTER);
+        panel.add(slider, BorderLayout.SOUTH);
+        return panel;
+    }
+
     private JPanel buildScrollPanel(String title, String content) {
         JPanel panel = new JPanel(new BorderLayout());
         JLabel label = new JLabel(title);
@@ -182,27 +248,6 @@ public class GraphicsGUI extends JFrame {
         return panel;
     }
 
-    public Integer[] handleLocationClicked(int xLoc, int yLoc) {
-        if (chessView.getSelected() == null) {
-            chessView.setSelected(game.getBoard().getPiece(xLoc, yLoc));
-            chessView.repaint();
-            return null;
-        } else {
-            Integer[] move = {
-                chessView.getSelected().getX(),
-                chessView.getSelected().getY(),
-                xLoc, yLoc
-            };
-            chessView.setSelected(null);
-            chessView.repaint();
-            return move;
-        }
-    }
-
-    public int getCurrentSide() {
-        return game.getCurrentSide();
-    }
-
     public static void popup(String message) {
         JOptionPane.showMessageDialog(null, message, "", JOptionPane.PLAIN_MESSAGE);
     }
@@ -4,38 +4,48 @@ import chessModel.Board;
 import chessModel.Player;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class HumanPlayer extends Player {
 
     private ChessView view;
-    private GraphicsGUI gui;
+    private MoveInput input;
     private Integer[] move;
     private final Object moveLock = new Object();
+    private final AtomicReference<Integer[]> premove = new AtomicReference<>();
 
     /**
      * Sets up the human player to listen for clicks on the board.
      *
-     * @param theGui The GUI controller
+     * @param theInput The click handling shared by the game's human players
      * @param theView The chess view
      */
-    public void setupView(GraphicsGUI theGui, ChessView theView) {
+    public void setupView(MoveInput theInput, ChessView theView) {
         this.view = theView;
-        this.gui = theGui;
+        this.input = theInput;
 
         MouseAdapter humanInput = new MouseAdapter() {
             @Override
             public void mouseReleased(MouseEvent e) {
-                if (gui.getCurrentSide() == side && e.getButton() == MouseEvent.BUTTON1) {
-                    int cellSize = view.getCellSize();
-                    int xLoc = e.getY() / cellSize;
-                    int yLoc = e.getX() / cellSize;
+                if (e.getButton() != MouseEvent.BUTTON1) {
+                    return;
+                }
+                int cellSize = view.getCellSize();
+                int xLoc = e.getY() / cellSize;
+                int yLoc = e.getX() / cellSize;
+                if (input.getCurrentSide() != side) {
+                    if (input.acceptsPremoves()) {
+                        // a click that does not complete a premove cancels the queued one
+                        premove.set(input.handlePremoveClicked(xLoc, yLoc, side));
+                    }
+                    return;
+                }
 
-                    Integer[] newMove = gui.handleLocationClicked(xLoc, yLoc);
-                    if (newMove != null) {
-                        synchronized (moveLock) {
-                            move = newMove;
-                            moveLock.notify();
-                        }
+                Integer[] newMove = input.handleLocationClicked(xLoc, yLoc);
+                if (newMove != null) {
+                    synchronized (moveLock) {
+                        move = newMove;
+                        moveLock.notify();
                     }
                 }
             }
@@ -44,6 +54,21 @@ public class HumanPlayer extends Player {
         view.addMouseListener(humanInput);
     }
 
+    /**
+     * True if a move was queued during the opponent's turn.
+     */
+    public boolean hasPremove() {
+        return premove.get() != null;
+    }
+
+    /**
+     * Removes and returns the move queued during the opponent's turn, if
+     * any. It has not been checked against the current position.
+     */
+    public Integer[] takePremove() {
+        return premove.getAndSet(null);
+    }
+
     /**
      * Blocks until the user selects a move through the GUI.
      *
@@ -63,6 +88,8 @@ public class HumanPlayer extends Player {
             }
             Integer[] moveCopy = move;
             move = null;
+            // a premove that raced with the start of this turn is stale now
+            premove.set(null);
             return moveCopy;
         }
     }
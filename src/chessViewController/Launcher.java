@@ -8,9 +8,8 @@ import java.awt.event.ActionListener;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
-import java.io.File;
-import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
@@ -23,10 +22,10 @@ import javax.swing.UIManager;
 
 import chessModel.Game;
 import chessModel.Player;
-import util.Instantiator;
+import util.BotRegistry;
 
 public class Launcher {
-	private File[] files;
+	private List<String> aiNames;
 	private JComboBox<String> playerPicker1, playerPicker2, selectMode;
 	private JFrame launcherFrame;
 	private JLabel title;
@@ -54,18 +53,8 @@ public class Launcher {
 		// Create a combo box with list of game modes
 		selectMode = new JComboBox<String>(modes.toArray(new String[modes.size()]));
 
-		// Get list of AIs from the package artificalIntelligence
-		try {
-			files = Instantiator.getPackageContent("botIntelligence");
-		} catch (IOException e1) {
-			System.err.println("Could not get package botIntelligence");
-		}
-
-		// Make an arraylist of the AI names
-		ArrayList<String> aiNames = new ArrayList<String>();
-		for (File f : files) {
-			aiNames.add(f.getName().substring(0, f.getName().indexOf(".")));
-		}
+		// Get the names of the available AIs
+		aiNames = BotRegistry.getDefault().getBotNames();
 
 		// Add the names to combo boxes
 		playerPicker1 = new JComboBox<String>(aiNames.toArray(new String[aiNames.size()]));
@@ -150,19 +139,13 @@ public class Launcher {
 		int gameMode = selectMode.getSelectedIndex();
 		Player p1, p2;
 		if (gameMode == Game.AI_VS_AI) {
-			File f1 = files[playerPicker1.getSelectedIndex()];
-			String className1 = "botIntelligence" + "."
-					+ f1.getName().substring(0, f1.getName().indexOf("."));
-			p1 = Instantiator.makePlayer(f1.getPath(), className1, 0);
+			p1 = BotRegistry.getDefault().create(aiNames.get(playerPicker1.getSelectedIndex()), 0);
 		} else {
 			p1 = new HumanPlayer();
 			p1.init("Human Player 1", 0);
 		}
 		if (gameMode != Game.HUMAN_VS_HUMAN) {
-			File f2 = files[playerPicker2.getSelectedIndex()];
-			String className2 = "botIntelligence" + "."
-					+ f2.getName().substring(0, f2.getName().indexOf("."));
-			p2 = Instantiator.makePlayer(f2.getPath(), className2, 1);
+			p2 = BotRegistry.getDefault().create(aiNames.get(playerPicker2.getSelectedIndex()), 1);
 		} else {
 			p2 = new HumanPlayer();
 			p2.init("Human Player 2", 1);
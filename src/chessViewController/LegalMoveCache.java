@@ -0,0 +1,99 @@
+package chessViewController;
+
+import chessModel.Board;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.swing.SwingUtilities;
+
+/**
+ * The legal moves of the position on the board, worked out once per ply on
+ * a background thread so the event thread never generates moves itself.
+ * Lookups for a ply that is not ready yet return null. Plies are told
+ * apart by move count and Zobrist key, as a takeback followed by another
+ * move reaches a new position with the old count.
+ */
+final class LegalMoveCache {
+
+    private static final class Snapshot {
+
+        final int ply;
+        final long key;
+        final Map<Integer, List<Integer[]>> byOrigin;
+
+        Snapshot(int ply, long key, Map<Integer, List<Integer[]>> byOrigin) {
+            this.ply = ply;
+            this.key = key;
+            this.byOrigin = byOrigin;
+        }
+    }
+
+    private final Board board;
+    private final Runnable onReady;
+    private final ExecutorService generator = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "legal-moves");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile Snapshot snapshot = new Snapshot(-1, 0, Map.of());
+    // event thread only
+    private int requestedPly = -1;
+    private long requestedKey;
+
+    /**
+     * @param onReady run on the event thread when a new ply's moves are in
+     */
+    LegalMoveCache(Board board, Runnable onReady) {
+        this.board = board;
+        this.onReady = onReady;
+    }
+
+    /**
+     * Starts generating moves for the current ply unless that is already
+     * done or under way. Call from the event thread.
+     */
+    void refresh() {
+        int ply = board.getChessLog().getMoveCount();
+        long key = board.getZobristKey();
+        if (ply != requestedPly || key != requestedKey) {
+            requestedPly = ply;
+            requestedKey = key;
+            generator.execute(() -> generate(ply, key));
+        }
+    }
+
+    private void generate(int ply, long key) {
+        Board copy = board.cloneBoard();
+        if (copy.getChessLog().getMoveCount() != ply || copy.getZobristKey() != key) {
+            // moved on while copying; the next refresh asks again
+            SwingUtilities.invokeLater(() -> requestedPly = -1);
+            return;
+        }
+        Map<Integer, List<Integer[]>> byOrigin = new HashMap<>();
+        for (Integer[] move : copy.getAllMoves(copy.getSideToMove())) {
+            byOrigin.computeIfAbsent(square(move[0], move[1]), k -> new ArrayList<>()).add(move);
+        }
+        snapshot = new Snapshot(ply, key, byOrigin);
+        SwingUtilities.invokeLater(onReady);
+    }
+
+    /**
+     * Legal moves of the piece on (x, y) in the current position, or null
+     * if they have not been generated yet.
+     */
+    List<Integer[]> movesFrom(int x, int y) {
+        Snapshot s = snapshot;
+        if (s.ply != board.getChessLog().getMoveCount() || s.key != board.getZobristKey()) {
+            return null;
+        }
+        return Collections.unmodifiableList(s.byOrigin.getOrDefault(square(x, y), List.of()));
+    }
+
+    private int square(int x, int y) {
+        return x * board.boardWidth + y;
+    }
+}
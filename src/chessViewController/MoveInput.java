@@ -0,0 +1,143 @@
+package chessViewController;
+
+import chessModel.Board;
+import chessModel.Game;
+import chessModel.piece.Piece;
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns clicks on a {@link ChessView} into moves for the human players of a
+ * game: selecting pieces, highlighting their destinations, rejecting
+ * illegal moves locally and queuing premoves. Every human player of the
+ * game shares one instance, and with it one selection. Call from the
+ * event thread.
+ */
+public class MoveInput {
+
+    private final Game game;
+    private final ChessView view;
+    private final LegalMoveCache legalMoves;
+    private boolean highlightsFrozen;
+
+    public MoveInput(Game game, ChessView view) {
+        this.game = game;
+        this.view = view;
+        this.legalMoves = new LegalMoveCache(game.getBoard(), this::showSelectedMoves);
+    }
+
+    /**
+     * Selects a piece of the side to move, or completes a move from the
+     * selected one. Moves that are not legal are dropped here rather than
+     * handed to the game, where they would count as invalid.
+     *
+     * @return the move to play, or null if the click did not make one
+     */
+    public Integer[] handleLocationClicked(int xLoc, int yLoc) {
+        if (game.getCompletion().isDone() || !onBoard(xLoc, yLoc)) {
+            return null;
+        }
+        legalMoves.refresh();
+        Piece clicked = game.getBoard().getPiece(xLoc, yLoc);
+        Piece selected = view.getSelected();
+        if (selected != null && (clicked == null || clicked.getSide() != selected.getSide())) {
+            Integer[] move = {selected.getX(), selected.getY(), xLoc, yLoc};
+            select(null);
+            return isLegal(move) ? move : null;
+        }
+        boolean selectable = clicked != null && clicked != selected && clicked.getSide() == game.getCurrentSide();
+        select(selectable ? clicked : null);
+        return null;
+    }
+
+    /**
+     * Like {@link #handleLocationClicked(int, int)} but during the
+     * opponent's turn: selects a piece of the given side and returns a
+     * move to queue, which is only checked once the opponent has moved.
+     *
+     * @return the premove, or null if the click did not make one
+     */
+    public Integer[] handlePremoveClicked(int xLoc, int yLoc, int side) {
+        if (game.getCompletion().isDone() || !onBoard(xLoc, yLoc)) {
+            return null;
+        }
+        Piece clicked = game.getBoard().getPiece(xLoc, yLoc);
+        Piece selected = view.getSelected();
+        if (selected != null && selected.getSide() == side && (clicked == null || clicked.getSide() != side)) {
+            select(null);
+            view.setHighlightSquares(List.of(
+                    new Point(selected.getY(), selected.getX()), new Point(yLoc, xLoc)));
+            return new Integer[]{selected.getX(), selected.getY(), xLoc, yLoc};
+        }
+        select(clicked != null && clicked != selected && clicked.getSide() == side ? clicked : null);
+        return null;
+    }
+
+    /**
+     * True if clicks by a human off turn may queue a premove. Not when the
+     * player on turn is human too: the board's clicks are theirs then.
+     */
+    public boolean acceptsPremoves() {
+        return !(game.getCurrentPlayer() instanceof HumanPlayer);
+    }
+
+    public int getCurrentSide() {
+        return game.getCurrentSide();
+    }
+
+    /**
+     * Starts generating the current position's legal moves if needed.
+     */
+    void refresh() {
+        legalMoves.refresh();
+    }
+
+    /**
+     * Stops selections from changing the highlighted squares, e.g. while
+     * the end-of-game coverage is shown.
+     */
+    void freezeHighlights() {
+        highlightsFrozen = true;
+    }
+
+    void select(Piece piece) {
+        view.setSelected(piece);
+        showSelectedMoves();
+    }
+
+    // highlights where the selected piece can go, once the moves are known
+    void showSelectedMoves() {
+        if (highlightsFrozen) {
+            return;
+        }
+        Piece selected = view.getSelected();
+        List<Point> squares = new ArrayList<>();
+        List<Integer[]> moves = selected == null ? null : legalMoves.movesFrom(selected.getX(), selected.getY());
+        if (moves != null) {
+            for (Integer[] mv : moves) {
+                squares.add(new Point(mv[3], mv[2]));
+            }
+        }
+        view.setHighlightSquares(squares);
+    }
+
+    private boolean isLegal(Integer[] move) {
+        List<Integer[]> moves = legalMoves.movesFrom(move[0], move[1]);
+        if (moves == null) {
+            // not generated yet; check just this one
+            return game.getBoard().isLegalMove(move[0], move[1], move[2], move[3]);
+        }
+        for (Integer[] m : moves) {
+            if (m[2].equals(move[2]) && m[3].equals(move[3])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean onBoard(int xLoc, int yLoc) {
+        Board board = game.getBoard();
+        return xLoc >= 0 && xLoc < board.boardHeight && yLoc >= 0 && yLoc < board.boardWidth;
+    }
+}
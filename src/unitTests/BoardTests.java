@@ -1,12 +1,17 @@
 package unitTests;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.awt.Dimension;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 
 import javax.swing.UIManager;
 
@@ -15,7 +20,10 @@ import org.junit.BeforeClass;
 import org.junit.Rule;
 import org.junit.Test;
 
+import chessArchive.SanResolver;
 import chessModel.Board;
+import chessModel.Material;
+import chessModel.MoveRecord;
 import chessModel.SquareStatus;
 import chessModel.piece.Bishop;
 import chessModel.piece.King;
@@ -65,6 +73,32 @@ public class BoardTests {
 		assertEquals("rnbqkbnr/pp1ppppp/8/2p5/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 1 2", b.getFEN());
 	}
 
+	@Test
+	public void testFENConstruction() {
+		String fen = "rnbqkbnr/pp1ppppp/8/2p5/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 1 2";
+		assertEquals(fen, new Board(fen).getFEN());
+		assertEquals("r3k2r/8/8/8/8/8/8/R3K2R b Kq e3 7 30",
+				new Board("r3k2r/8/8/8/8/8/8/R3K2R b Kq e3 7 30").getFEN());
+		assertEquals(b.getFEN(), new Board(b.getFEN()).getFEN());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testFENMalformed() {
+		new Board("rnbqkbnr/ppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+	}
+
+	@Test
+	public void testPGNSan() {
+		String game = "e4 e5 Nf3 d6 d4 Bg4 dxe5 Bxf3 Qxf3 dxe5 Bc4 Nf6 Qb3 Qe7 Nc3 c6 Bg5 b5 Nxb5 cxb5 "
+				+ "Bxb5+ Nbd7 O-O-O Rd8 Rxd7 Rxd7 Rd1 Qe6 Bxd7+ Nxd7 Qb8+ Nxb8 Rd8#";
+		for (String san : game.split(" ")) {
+			assertTrue(san, SanResolver.play(b, san) != null);
+		}
+		String pgn = b.getPGN();
+		assertTrue(pgn.contains("11. Bxb5+ Nbd7 12. O-O-O Rd8"));
+		assertTrue(pgn.contains("17. Rd8#"));
+	}
+
 	@Test
 	public void testEnPassant() {
 		b.move(1, 6, 2, 6);
@@ -74,6 +108,34 @@ public class BoardTests {
 		assertTrue(b.getPiece(2, 0) == null);
 	}
 
+	@Test
+	public void testThreefoldRepetition() {
+		b = new Board();
+		for (int i = 0; i < 2; i++) {
+			assertFalse(b.isThreefoldRepetition());
+			b.move(7, 6, 5, 5);
+			b.move(0, 6, 2, 5);
+			b.move(5, 5, 7, 6);
+			b.move(2, 5, 0, 6);
+		}
+		assertTrue(b.isThreefoldRepetition());
+		b.move(6, 4, 4, 4);
+		assertFalse(b.isRepetition(2));
+	}
+
+	@Test
+	public void testInsufficientMaterial() {
+		assertFalse(b.isInsufficientMaterial());
+		assertTrue(new Board("8/8/8/4k3/8/8/8/3NK3 w - - 0 1").isInsufficientMaterial());
+		assertTrue(new Board("8/8/8/3bk3/8/8/8/3BK3 w - - 0 1").isInsufficientMaterial());
+		assertFalse(new Board("8/8/8/2b1k3/8/8/8/3BK3 w - - 0 1").isInsufficientMaterial());
+
+		b = new Board("8/8/8/3rk3/8/8/8/3RK3 w - - 0 1");
+		b.move(7, 3, 3, 3);
+		assertEquals(Material.parse("KRvK"), b.getMaterialSignature());
+		assertFalse(b.isInsufficientMaterial());
+	}
+
 	@Test
 	public void testFENClocks() {
 
@@ -88,7 +150,7 @@ public class BoardTests {
 
 	@Test
 	public void testGetAllMoves() {
-		ArrayList<Integer[]> allMoves = b.getAllMoves(0);
+		List<Integer[]> allMoves = b.getAllMoves(0);
 		int i = 1;
 		for (Integer[] move : allMoves) {
 			if (move == null) {
@@ -279,6 +341,167 @@ public class BoardTests {
 		assertEquals(b.getPiece(5, 4), pawn);
 	}
 
+	@Test
+	public void testCloneAcrossChunkBoundary() {
+		// history chunks hold 32 moves; both copies cross into the next one
+		shuffleKnights(b, true, 30);
+		Board copy = b.cloneBoard();
+		Board second = b.cloneBoard();
+		shuffleKnights(b, true, 6);
+		shuffleKnights(copy, false, 6);
+		shuffleKnights(second, true, 2);
+
+		Board expected = new Board();
+		shuffleKnights(expected, true, 36);
+		assertArrayEquals(expected.getChessLog().getMoves(), b.getChessLog().getMoves());
+		assertEquals(expected.getPGN(), b.getPGN());
+
+		expected = new Board();
+		shuffleKnights(expected, true, 30);
+		shuffleKnights(expected, false, 6);
+		assertArrayEquals(expected.getChessLog().getMoves(), copy.getChessLog().getMoves());
+		assertEquals(expected.getFEN(), copy.getFEN());
+
+		expected = new Board();
+		shuffleKnights(expected, true, 32);
+		assertArrayEquals(expected.getChessLog().getMoves(), second.getChessLog().getMoves());
+		assertEquals(36, copy.getChessLog().getMoveCount());
+	}
+
+	@Test
+	public void testUnplayEnPassant() {
+		b = new Board("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3");
+		MoveRecord record = assertRoundTrip(b, 3, 4, 2, 5, 'q');
+		assertTrue(record.isCapture());
+		assertEquals("rnbqkbnr/ppp1p1pp/5P2/3p4/8/8/PPPP1PPP/RNBQKBNR b KQkq - 0 3", b.getFEN());
+	}
+
+	@Test
+	public void testUnplayPromotionWithCapture() {
+		b = new Board("1n5k/P7/8/8/8/8/8/K7 w - - 0 1");
+		MoveRecord record = assertRoundTrip(b, 1, 0, 0, 1, 'n');
+		assertTrue(record.isCapture());
+		assertEquals('n', record.getPromotion());
+		assertEquals("1N5k/8/8/8/8/8/8/K7 b - - 0 1", b.getFEN());
+		b.unplay(record);
+		assertEquals('q', assertRoundTrip(b, 1, 0, 0, 1, 'q').getPromotion());
+	}
+
+	@Test
+	public void testUnplayCastling() {
+		b = new Board("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+		assertRoundTrip(b, 7, 4, 7, 6, 'q');
+		assertEquals("r3k2r/8/8/8/8/8/8/R4RK1 b kq - 1 1", b.getFEN());
+		assertRoundTrip(b, 0, 4, 0, 2, 'q');
+		assertEquals("2kr3r/8/8/8/8/8/8/R4RK1 w - - 2 2", b.getFEN());
+		// the rook's first move must be forgotten too, or castling stays lost
+		b = new Board("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+		assertRoundTrip(b, 7, 7, 7, 5, 'q');
+	}
+
+	@Test
+	public void testUnplayAcrossChunkBoundary() {
+		Deque<MoveRecord> records = new ArrayDeque<>();
+		List<String> states = new ArrayList<>();
+		for (int i = 0; i < 34; i++) {
+			states.add(state(b));
+			records.push(knightShuffle(b, true));
+		}
+		Board copy = b.cloneBoard();
+		// back into the full chunk the copy shares, then a different line on top
+		for (int i = 33; i >= 30; i--) {
+			b.unplay(records.pop());
+			assertEquals(states.get(i), state(b));
+		}
+		Deque<MoveRecord> line = new ArrayDeque<>();
+		for (int i = 0; i < 3; i++) {
+			line.push(knightShuffle(b, false));
+		}
+		assertEquals(33, b.getChessLog().getMoveCount());
+
+		Board expected = new Board();
+		shuffleKnights(expected, true, 34);
+		assertArrayEquals(expected.getChessLog().getMoves(), copy.getChessLog().getMoves());
+		assertEquals(expected.getFEN(), copy.getFEN());
+
+		while (!line.isEmpty()) {
+			b.unplay(line.pop());
+		}
+		assertEquals(states.get(30), state(b));
+		while (!records.isEmpty()) {
+			b.unplay(records.pop());
+		}
+		assertEquals(states.get(0), state(b));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testUnplayOnlyTheLastMove() {
+		MoveRecord first = b.play(6, 4, 4, 4, 'q');
+		b.play(1, 4, 3, 4, 'q');
+		b.unplay(first);
+	}
+
+	/**
+	 * Plays a move, takes it back, checks everything is as before, and
+	 * plays it again.
+	 */
+	private static MoveRecord assertRoundTrip(Board board, int fromX, int fromY, int toX, int toY, char promotion) {
+		String before = state(board);
+		MoveRecord record = board.play(fromX, fromY, toX, toY, promotion);
+		assertNotNull("move not legal", record);
+		String after = state(board);
+		board.unplay(record);
+		assertEquals(before, state(board));
+		record = board.play(fromX, fromY, toX, toY, promotion);
+		assertEquals(after, state(board));
+		return record;
+	}
+
+	// everything a takeback has to restore, including first-move flags through the legal moves
+	private static String state(Board board) {
+		StringBuilder sb = new StringBuilder(board.getFEN());
+		sb.append(' ').append(board.getZobristKey())
+				.append(' ').append(board.getMaterialSignature())
+				.append(' ').append(board.getWhiteScore()).append(' ').append(board.getBlackScore())
+				.append(' ').append(board.getChessLog().getMoveCount())
+				.append(' ').append(board.isRepetition(2));
+		for (int side = 0; side < 2; side++) {
+			List<String> moves = new ArrayList<>();
+			for (Integer[] m : board.getAllMoves(side)) {
+				moves.add("" + m[0] + m[1] + m[2] + m[3]);
+			}
+			moves.sort(null);
+			sb.append(' ').append(moves);
+		}
+		return sb.toString();
+	}
+
+	private static MoveRecord knightShuffle(Board board, boolean kingside) {
+		int y = kingside ? 6 : 1;
+		int outY = kingside ? 5 : 2;
+		int home = board.getSideToMove() == 0 ? 7 : 0;
+		int outX = board.getSideToMove() == 0 ? 5 : 2;
+		MoveRecord record = board.getPiece(home, y) != null
+				? board.play(home, y, outX, outY, 'q') : board.play(outX, outY, home, y, 'q');
+		assertNotNull(record);
+		return record;
+	}
+
+	// moves a knight out and back for each side, so the game never ends
+	private static void shuffleKnights(Board board, boolean kingside, int plies) {
+		int y = kingside ? 6 : 1;
+		int outY = kingside ? 5 : 2;
+		for (int i = 0; i < plies; i++) {
+			int home = board.getSideToMove() == 0 ? 7 : 0;
+			int outX = board.getSideToMove() == 0 ? 5 : 2;
+			if (board.getPiece(home, y) != null) {
+				assertTrue(board.move(home, y, outX, outY));
+			} else {
+				assertTrue(board.move(outX, outY, home, y));
+			}
+		}
+	}
+
 	public static Board getBoard() {
 		return b;
 	}
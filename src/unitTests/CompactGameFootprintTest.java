@@ -0,0 +1,117 @@
+package unitTests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import chessModel.Board;
+import chessModel.CompactGame;
+import chessModel.FenCodec;
+
+/**
+ * Computes the memory an idle {@link CompactGame} holds from its fields, by
+ * the layout rules of 64-bit HotSpot with compressed references: a 12 byte
+ * object header, 16 byte array headers, 4 byte references and 8 byte
+ * alignment. The start FEN is shared between games and not counted, nor
+ * are the shared empty arrays.
+ */
+public class CompactGameFootprintTest {
+
+	private static final int OBJECT_HEADER = 12;
+	private static final int ARRAY_HEADER = 16;
+	private static final int REFERENCE = 4;
+	private static final int PLIES = 40;
+
+	@Test
+	public void idleGameFitsInOneKilobyte() throws IllegalAccessException {
+		CompactGame game = playedGame();
+		CompactGame copy = new CompactGame(game);
+		game.compact();
+
+		long size = retainedSize(game);
+		assertTrue(size + " bytes per game", size < 1024);
+		// a copy is sized to fit just like a compacted game
+		assertEquals(size, retainedSize(copy));
+	}
+
+	@Test
+	public void copyPlaysOnLikeTheOriginal() {
+		CompactGame game = playedGame();
+		CompactGame copy = new CompactGame(game);
+		assertEquals(game.getFEN(), copy.getFEN());
+		Board board = game.toBoard();
+		List<Integer[]> moves = board.getAllMoves(board.getSideToMove());
+		Integer[] m = moves.get(0);
+		assertTrue(copy.play(m[0], m[1], m[2], m[3], 'q', 0));
+		board.move(m[0], m[1], m[2], m[3]);
+		assertEquals(board.getFEN(), copy.getFEN());
+		assertEquals(PLIES, game.getMoveCount());
+	}
+
+	private static long retainedSize(CompactGame game) throws IllegalAccessException {
+		long fields = OBJECT_HEADER;
+		long arrays = 0;
+		for (Field f : CompactGame.class.getDeclaredFields()) {
+			if (Modifier.isStatic(f.getModifiers())) {
+				continue;
+			}
+			Class<?> type = f.getType();
+			if (type.isPrimitive()) {
+				fields += primitiveSize(type);
+				continue;
+			}
+			fields += REFERENCE;
+			if (type.isArray() && type.getComponentType().isPrimitive()) {
+				f.setAccessible(true);
+				int length = Array.getLength(f.get(game));
+				if (length > 0) {
+					arrays += align(ARRAY_HEADER + (long) length * primitiveSize(type.getComponentType()));
+				}
+			} else if (type != String.class) {
+				fail("Field " + f.getName() + " is not accounted for");
+			}
+		}
+		return align(fields) + arrays;
+	}
+
+	private static int primitiveSize(Class<?> type) {
+		if (type == long.class || type == double.class) {
+			return 8;
+		}
+		if (type == int.class || type == float.class) {
+			return 4;
+		}
+		if (type == short.class || type == char.class) {
+			return 2;
+		}
+		return 1;
+	}
+
+	private static long align(long size) {
+		return (size + 7) & ~7L;
+	}
+
+	private static CompactGame playedGame() {
+		Random random = new Random(11);
+		while (true) {
+			CompactGame game = new CompactGame(FenCodec.START_POSITION, 1, 2, 3_600_000, 10_000);
+			while (game.getResult() == CompactGame.ONGOING && game.getMoveCount() < PLIES) {
+				Board board = game.toBoard();
+				List<Integer[]> moves = board.getAllMoves(board.getSideToMove());
+				Integer[] m = moves.get(random.nextInt(moves.size()));
+				game.play(m[0], m[1], m[2], m[3], 'q', 1000);
+			}
+			if (game.getMoveCount() == PLIES) {
+				return game;
+			}
+		}
+	}
+}
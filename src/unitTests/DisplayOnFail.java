@@ -7,6 +7,6 @@ public class DisplayOnFail extends TestWatcher {
 	@Override
 	protected void failed(Throwable e, Description description) {
 		//MessageCreator.display(BoardTests.getBoard());
-		System.out.println(BoardTests.getBoard().getBoardTable());
+		System.out.println(BoardTests.getBoard().getFEN());
 	}
 }
\ No newline at end of file
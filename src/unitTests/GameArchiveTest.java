@@ -0,0 +1,93 @@
+package unitTests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import chessArchive.ArchivedGame;
+import chessArchive.GameArchiveReader;
+import chessArchive.GameArchiveWriter;
+import chessArchive.SanResolver;
+import chessModel.Board;
+
+public class GameArchiveTest {
+
+	private Path dir;
+	private Path file;
+
+	@Before
+	public void createArchive() throws IOException {
+		dir = Files.createTempDirectory("archive");
+		file = dir.resolve("games.bin");
+	}
+
+	@After
+	public void deleteArchive() throws IOException {
+		Files.deleteIfExists(GameArchiveWriter.indexPath(file));
+		Files.deleteIfExists(file);
+		Files.delete(dir);
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		Board scholar = new Board();
+		for (String san : "e4 e5 Bc4 Nc6 Qh5 Nf6 Qxf7#".split(" ")) {
+			SanResolver.play(scholar, san);
+		}
+		scholar.setPlayerNames("White", "Black");
+		scholar.getChessLog().setResult("1-0");
+		Board promotion = new Board("8/P6k/8/8/8/8/8/K7 w - - 0 1");
+		promotion.move(1, 0, 0, 0, 'n');
+
+		try (GameArchiveWriter writer = new GameArchiveWriter(file, 0)) {
+			assertEquals(0, writer.append(scholar));
+			assertEquals(1, writer.append(promotion));
+		}
+		try (GameArchiveWriter writer = new GameArchiveWriter(file, 1)) {
+			assertEquals(2, writer.append(new ArchivedGame("Ünïcödé", null, "1/2-1/2", null, 42, new int[0])));
+		}
+
+		try (GameArchiveReader reader = new GameArchiveReader(file)) {
+			assertEquals(3, reader.size());
+			ArchivedGame game = reader.read(0);
+			assertEquals("White", game.getWhite());
+			assertEquals("Black", game.getBlack());
+			assertEquals("1-0", game.getResult());
+			assertNull(game.getStartFEN());
+			assertArrayEquals(scholar.getChessLog().getMoves(), game.getMoves());
+			assertEquals(scholar.getFEN(), game.toBoard().getFEN());
+
+			game = reader.read(1);
+			assertEquals("8/P6k/8/8/8/8/8/K7 w - - 0 1", game.getStartFEN());
+			assertEquals(promotion.getFEN(), game.toBoard().getFEN());
+
+			game = reader.read(2);
+			assertEquals("Ünïcödé", game.getWhite());
+			assertNull(game.getBlack());
+			assertEquals("1/2-1/2", game.getResult());
+			assertEquals(42, game.getStartTime());
+		}
+	}
+
+	@Test
+	public void testLongTagKeepsWholeCharacters() throws IOException {
+		// two bytes per character, so the byte limit falls inside one
+		String name = new String(new char[Short.MAX_VALUE / 2 + 1]).replace('\0', 'é');
+		try (GameArchiveWriter writer = new GameArchiveWriter(file, 0)) {
+			writer.append(new ArchivedGame(name, "Black", "*", null, 0, new int[0]));
+		}
+		try (GameArchiveReader reader = new GameArchiveReader(file)) {
+			ArchivedGame game = reader.read(0);
+			assertEquals(name.substring(0, Short.MAX_VALUE / 2), game.getWhite());
+			assertEquals("Black", game.getBlack());
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package unitTests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import chessModel.Board;
+import chessModel.FenCodec;
+import chessModel.GameReplay;
+
+public class GameReplayTest {
+
+	@Test
+	public void testRandomSeeks() {
+		List<String> fens = new ArrayList<>();
+		Board game = playRandomGame(fens);
+		int plies = fens.size() - 1;
+		assertTrue("game too short: " + plies, plies > 4 * GameReplay.DEFAULT_INTERVAL);
+
+		GameReplay replay = GameReplay.of(game);
+		assertEquals(plies, replay.getPlyCount());
+		Random random = new Random(3);
+		for (int i = 0; i < 500; i++) {
+			int target = random.nextInt(plies + 11) - 5;
+			int expected = Math.max(0, Math.min(plies, target));
+			assertEquals("seek " + target, fens.get(expected), replay.seek(target).getFEN());
+			assertEquals(expected, replay.getPly());
+		}
+	}
+
+	@Test
+	public void testStepping() {
+		List<String> fens = new ArrayList<>();
+		Board game = playRandomGame(fens);
+		int plies = fens.size() - 1;
+		GameReplay replay = GameReplay.of(game);
+
+		// from a checkpoint, stepping back has nothing to take back and reloads
+		replay.seek(3 * GameReplay.DEFAULT_INTERVAL);
+		for (int ply = 3 * GameReplay.DEFAULT_INTERVAL - 1; ply >= 0; ply--) {
+			assertTrue(replay.stepBack());
+			assertEquals("ply " + ply, fens.get(ply), replay.getBoard().getFEN());
+		}
+		assertFalse(replay.stepBack());
+		assertEquals(-1, replay.getLastMove());
+
+		for (int ply = 1; ply <= plies; ply++) {
+			assertTrue(replay.stepForward());
+			assertEquals("ply " + ply, fens.get(ply), replay.getBoard().getFEN());
+		}
+		assertFalse(replay.stepForward());
+		assertEquals(game.getChessLog().getMove(plies - 1), replay.getLastMove());
+	}
+
+	@Test
+	public void testOtherIntervals() {
+		List<String> fens = new ArrayList<>();
+		Board game = playRandomGame(fens);
+		int[] moves = game.getChessLog().getMoves();
+		for (int interval : new int[]{1, 5, 1000}) {
+			GameReplay replay = new GameReplay(FenCodec.START_POSITION, moves, interval);
+			for (int ply = moves.length; ply >= 0; ply -= 7) {
+				assertEquals(fens.get(ply), replay.seek(ply).getFEN());
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testIllegalMove() {
+		Board board = new Board();
+		board.move(6, 4, 4, 4);
+		int[] moves = board.getChessLog().getMoves();
+		// the same pawn push again, now with black to move
+		new GameReplay(FenCodec.START_POSITION, new int[]{moves[0], moves[0]}, 4);
+	}
+
+	/**
+	 * Plays random legal moves until the game ends or 300 plies, recording
+	 * the FEN after every ply.
+	 */
+	private static Board playRandomGame(List<String> fens) {
+		Random random = new Random(17);
+		Board board = new Board();
+		fens.add(board.getFEN());
+		while (fens.size() <= 300) {
+			List<Integer[]> moves = board.getAllMoves(board.getSideToMove());
+			if (moves.isEmpty()) {
+				break;
+			}
+			Integer[] m = moves.get(random.nextInt(moves.size()));
+			assertTrue(board.move(m[0], m[1], m[2], m[3], 'q'));
+			fens.add(board.getFEN());
+		}
+		return board;
+	}
+}
@@ -0,0 +1,137 @@
+package unitTests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import chessModel.Board;
+import chessModel.Game;
+import chessModel.Player;
+import chessViewController.HumanPlayer;
+
+public class GameTests {
+
+	@Test
+	public void testUndoRedo() {
+		Game game = new Game(Game.HUMAN_VS_HUMAN, human(0), human(1));
+		Board board = game.getBoard();
+		String start = board.getFEN();
+		assertFalse(game.undo());
+		assertTrue(game.move(6, 4, 4, 4));
+		assertTrue(game.move(1, 4, 3, 4));
+		String afterE5 = board.getFEN();
+		assertTrue(game.move(7, 6, 5, 5));
+		String afterNf3 = board.getFEN();
+
+		assertTrue(game.undo());
+		assertEquals(afterE5, board.getFEN());
+		assertEquals(0, game.getCurrentSide());
+		assertTrue(game.redo());
+		assertEquals(afterNf3, board.getFEN());
+		assertEquals(1, game.getCurrentSide());
+		assertFalse(game.redo());
+
+		// with nobody waiting on a bot, one move at a time
+		assertEquals(1, game.takeBack());
+		assertEquals(2, game.rewind(0));
+		assertEquals(start, board.getFEN());
+		assertEquals(0, game.getCurrentSide());
+		assertFalse(game.canUndo());
+		assertTrue(game.canRedo());
+
+		// a new move drops what could have been replayed
+		assertTrue(game.move(6, 3, 4, 3));
+		assertFalse(game.canRedo());
+		assertEquals(1, board.getChessLog().getMoveCount());
+	}
+
+	@Test
+	public void testTakeBackReturnsToTheHuman() {
+		Game game = new Game(Game.HUMAN_VS_AI, human(0), silentBot(1));
+		String start = game.getBoard().getFEN();
+		assertTrue(game.move(6, 4, 4, 4));
+		assertTrue(game.move(1, 4, 3, 4));
+		assertEquals(2, game.takeBack());
+		assertEquals(start, game.getBoard().getFEN());
+		assertEquals(0, game.getCurrentSide());
+	}
+
+	@Test
+	public void testCheckIsNotTheEnd() throws InterruptedException {
+		CountDownLatch scriptsDone = new CountDownLatch(1);
+		// 1. e4 f5 2. Qh5+ g6: black plays on out of check
+		Game game = new Game(Game.AI_VS_AI,
+				scriptedBot(0, scriptsDone, new Integer[] {6, 4, 4, 4}, new Integer[] {7, 3, 3, 7}),
+				scriptedBot(1, scriptsDone, new Integer[] {1, 5, 3, 5}, new Integer[] {1, 6, 2, 6}));
+		game.setTurnDelay(0);
+		assertTrue(scriptsDone.await(5, TimeUnit.SECONDS));
+		assertFalse(game.getCompletion().isDone());
+		assertEquals(4, game.getBoard().getChessLog().getMoveCount());
+		assertEquals(-1, game.getWinner());
+	}
+
+	@Test
+	public void testCheckmateEndsTheGame() throws Exception {
+		// 1. f3 e5 2. g4 Qh4#
+		Game game = new Game(Game.AI_VS_AI,
+				scriptedBot(0, new CountDownLatch(1), new Integer[] {6, 5, 5, 5}, new Integer[] {6, 6, 4, 6}),
+				scriptedBot(1, new CountDownLatch(1), new Integer[] {1, 4, 3, 4}, new Integer[] {0, 3, 4, 7}));
+		game.setTurnDelay(0);
+		assertEquals(game, game.getCompletion().get(5, TimeUnit.SECONDS));
+		assertEquals(1, game.getWinner());
+		assertTrue(game.getEndReason(), game.getEndReason().startsWith("Checkmate"));
+		assertEquals(4, game.getBoard().getChessLog().getMoveCount());
+	}
+
+	private static HumanPlayer human(int side) {
+		HumanPlayer player = new HumanPlayer();
+		player.init("Human Player " + (side + 1), side);
+		return player;
+	}
+
+	// plays the given moves, then counts down and never answers again
+	private static Player scriptedBot(int side, CountDownLatch done, Integer[]... moves) {
+		Iterator<Integer[]> script = List.of(moves).iterator();
+		Player player = new Player() {
+			@Override
+			public Integer[] getMove(Board board) {
+				if (script.hasNext()) {
+					return script.next();
+				}
+				done.countDown();
+				try {
+					new CountDownLatch(1).await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return null;
+			}
+		};
+		player.init("Scripted " + (side + 1), side);
+		return player;
+	}
+
+	// never answers, so the test decides every move
+	private static Player silentBot(int side) {
+		Player player = new Player() {
+			@Override
+			public Integer[] getMove(Board board) {
+				try {
+					new CountDownLatch(1).await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return null;
+			}
+		};
+		player.init("Silent", side);
+		return player;
+	}
+}
@@ -0,0 +1,68 @@
+package unitTests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.event.MouseEvent;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.Test;
+
+import chessModel.Game;
+import chessViewController.ChessView;
+import chessViewController.HumanPlayer;
+import chessViewController.MoveInput;
+
+/**
+ * Drives human players through clicks on a board view, without a window.
+ */
+public class HumanInputTest {
+
+	private static final int CELL = 50;
+
+	@Test
+	public void testTwoHumansTakeTurns() throws Exception {
+		HumanPlayer white = new HumanPlayer();
+		white.init("Human Player 1", 0);
+		HumanPlayer black = new HumanPlayer();
+		black.init("Human Player 2", 1);
+		Game game = new Game(Game.HUMAN_VS_HUMAN, white, black);
+		game.setTurnDelay(0);
+		ChessView view = new ChessView(game.getBoard());
+		view.setSize(8 * CELL, 8 * CELL);
+		SwingUtilities.invokeAndWait(() -> {
+			MoveInput input = new MoveInput(game, view);
+			white.setupView(input, view);
+			black.setupView(input, view);
+		});
+
+		// both players listen to the same view; the one off turn must not interfere
+		click(view, 6, 4);
+		assertTrue("white could not select a pawn", view.getSelected() != null);
+		click(view, 4, 4);
+		awaitPly(game, 1);
+		click(view, 1, 4);
+		click(view, 3, 4);
+		awaitPly(game, 2);
+
+		assertEquals("rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq e6 0 2", game.getBoard().getFEN());
+		assertFalse(white.hasPremove());
+		assertFalse(black.hasPremove());
+		assertEquals(1, game.getInvalidMovesCount());
+	}
+
+	private static void click(ChessView view, int x, int y) throws Exception {
+		SwingUtilities.invokeAndWait(() -> view.dispatchEvent(new MouseEvent(view, MouseEvent.MOUSE_RELEASED,
+				System.currentTimeMillis(), 0, y * CELL + CELL / 2, x * CELL + CELL / 2, 1, false, MouseEvent.BUTTON1)));
+	}
+
+	private static void awaitPly(Game game, int ply) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (game.getBoard().getChessLog().getMoveCount() < ply || game.getCurrentSide() != ply % 2) {
+			assertTrue("no move " + ply + " after 5 s", System.currentTimeMillis() < deadline);
+			Thread.sleep(10);
+		}
+	}
+}
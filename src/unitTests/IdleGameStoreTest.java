@@ -0,0 +1,207 @@
+package unitTests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import chessModel.Board;
+import chessModel.CompactGame;
+import chessModel.FenCodec;
+import chessModel.IdleGameStore;
+
+public class IdleGameStoreTest {
+
+	private static final String ENDGAME = "8/P6k/8/8/8/8/8/K7 w - - 0 1";
+	// enough plies that a game outgrows the 128, 256 and 512 byte slots
+	private static final int LONG_GAME = 210;
+
+	private IdleGameStore store;
+
+	@Before
+	public void openStore() {
+		store = new IdleGameStore();
+	}
+
+	@After
+	public void closeStore() throws IOException {
+		store.close();
+	}
+
+	@Test
+	public void testRoundTrip() {
+		CompactGame opening = playRandomGame(new Random(3), FenCodec.START_POSITION, 12);
+		CompactGame endgame = new CompactGame(ENDGAME, 7, 8, 60_000, 0);
+		int first = store.park(opening);
+		int second = store.park(endgame);
+		assertEquals(2, store.size());
+		assertSameGame(opening, store.get(first));
+		assertSameGame(endgame, store.get(second));
+		// fetching leaves the game parked
+		assertSameGame(opening, store.get(first));
+		assertEquals(opening.getFEN(), store.toBoard(first).getFEN());
+
+		assertTrue(store.play(second, 1, 0, 0, 0, 'q', 500));
+		assertTrue(endgame.play(1, 0, 0, 0, 'q', 500));
+		assertSameGame(endgame, store.get(second));
+		assertFalse(store.play(second, 0, 0, 5, 5, 'q', 0));
+		assertSameGame(endgame, store.get(second));
+
+		opening.resign(opening.getSideToMove());
+		store.update(first, opening);
+		assertSameGame(opening, store.get(first));
+
+		assertSameGame(opening, store.remove(first));
+		assertEquals(1, store.size());
+		assertMissing(first);
+		assertSameGame(endgame, store.remove(second));
+		assertEquals(0, store.size());
+		assertMissing(second);
+	}
+
+	@Test
+	public void testHandleReuse() {
+		List<CompactGame> games = new ArrayList<>();
+		List<Integer> handles = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			CompactGame game = playRandomGame(new Random(i), FenCodec.START_POSITION, i * 3);
+			games.add(game);
+			handles.add(store.park(game));
+		}
+		store.remove(handles.get(1));
+		store.remove(handles.get(3));
+		assertMissing(handles.get(1));
+		assertMissing(handles.get(3));
+		assertMissing(-1);
+		assertMissing(5);
+
+		// freed handles come back last freed first, holding the new game
+		CompactGame endgame = new CompactGame(ENDGAME, 1, 2, 60_000, 0);
+		assertEquals((int) handles.get(3), store.park(endgame));
+		assertEquals((int) handles.get(1), store.park(games.get(1)));
+		assertEquals(5, store.park(games.get(3)));
+		assertSameGame(endgame, store.get(handles.get(3)));
+		assertSameGame(games.get(1), store.get(handles.get(1)));
+		assertSameGame(games.get(3), store.get(5));
+		for (int i : new int[] {0, 2, 4}) {
+			assertSameGame(games.get(i), store.get(handles.get(i)));
+		}
+		assertEquals(6, store.size());
+	}
+
+	@Test
+	public void testGrowingGameKeepsItsHandle() {
+		CompactGame before = playRandomGame(new Random(5), FenCodec.START_POSITION, 2);
+		CompactGame after = new CompactGame(ENDGAME, 3, 4, 60_000, 0);
+		int first = store.park(before);
+		int handle = store.park(new CompactGame(FenCodec.START_POSITION, 1, 2, 3_600_000, 10_000));
+		int last = store.park(after);
+
+		CompactGame expected = new CompactGame(FenCodec.START_POSITION, 1, 2, 3_600_000, 10_000);
+		Random random = new Random(21);
+		List<Integer> spares = new ArrayList<>();
+		for (int i = 0; i < LONG_GAME; i++) {
+			Board board = store.toBoard(handle);
+			List<Integer[]> moves = board.getAllMoves(board.getSideToMove());
+			Integer[] m = moves.get(random.nextInt(moves.size()));
+			assertTrue(store.play(handle, m[0], m[1], m[2], m[3], 'q', 1000));
+			assertTrue(expected.play(m[0], m[1], m[2], m[3], 'q', 1000));
+			assertSameGame(expected, store.get(handle));
+			if (i % 10 == 0) {
+				// take the slots the game moves out of
+				spares.add(store.park(before));
+			}
+		}
+		assertEquals(LONG_GAME, store.get(handle).getMoveCount());
+		assertSameGame(before, store.get(first));
+		assertSameGame(after, store.get(last));
+		for (int spare : spares) {
+			assertSameGame(before, store.get(spare));
+		}
+	}
+
+	@Test
+	public void testFileBackedStore() throws IOException {
+		Path file = Files.createTempFile("games", ".store");
+		try {
+			List<CompactGame> games = new ArrayList<>();
+			try (IdleGameStore paged = new IdleGameStore(file)) {
+				// more games than one 4 MB chunk holds
+				int count = 40_000;
+				for (int i = 0; i < 20; i++) {
+					games.add(playRandomGame(new Random(100 + i), i % 2 == 0 ? FenCodec.START_POSITION : ENDGAME, i));
+				}
+				for (int i = 0; i < count; i++) {
+					assertEquals(i, paged.park(games.get(i % games.size())));
+				}
+				assertEquals(count, paged.size());
+				assertTrue(paged.getReservedBytes() > 4 << 20);
+				for (int i = 0; i < count; i += 997) {
+					assertSameGame(games.get(i % games.size()), paged.get(i));
+				}
+				for (int i = 0; i < count; i += 2) {
+					paged.remove(i);
+				}
+				long reserved = paged.getReservedBytes();
+				for (int i = count - 2; i >= 0; i -= 2) {
+					assertEquals(i, paged.park(games.get((i + 1) % games.size())));
+				}
+				// freed slots are reused before the file grows
+				assertEquals(reserved, paged.getReservedBytes());
+				for (int i = 0; i < count; i += 331) {
+					int parked = i % 2 == 0 ? i + 1 : i;
+					assertSameGame(games.get(parked % games.size()), paged.get(i));
+				}
+			}
+			assertTrue(Files.size(file) >= 4 << 20);
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	private void assertMissing(int handle) {
+		try {
+			store.get(handle);
+			fail("Handle " + handle + " should be empty");
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+
+	private static void assertSameGame(CompactGame expected, CompactGame actual) {
+		assertEquals(expected.getStartFEN(), actual.getStartFEN());
+		assertEquals(expected.getFEN(), actual.getFEN());
+		assertArrayEquals(expected.getMoves(), actual.getMoves());
+		assertEquals(expected.getResult(), actual.getResult());
+		assertEquals(expected.getClockMillis(0), actual.getClockMillis(0));
+		assertEquals(expected.getClockMillis(1), actual.getClockMillis(1));
+		assertEquals(expected.getWhiteId(), actual.getWhiteId());
+		assertEquals(expected.getBlackId(), actual.getBlackId());
+	}
+
+	private static CompactGame playRandomGame(Random random, String fen, int plies) {
+		while (true) {
+			CompactGame game = new CompactGame(fen, 1, 2, 3_600_000, 10_000);
+			while (game.getResult() == CompactGame.ONGOING && game.getMoveCount() < plies) {
+				Board board = game.toBoard();
+				List<Integer[]> moves = board.getAllMoves(board.getSideToMove());
+				Integer[] m = moves.get(random.nextInt(moves.size()));
+				game.play(m[0], m[1], m[2], m[3], 'q', 1000);
+			}
+			if (game.getMoveCount() == plies) {
+				return game;
+			}
+		}
+	}
+}
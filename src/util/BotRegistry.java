@@ -0,0 +1,240 @@
+package util;
+
+import chessModel.ErrorLogger;
+import chessModel.Player;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.net.URLConnection;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Finds the available bots once and creates players from cached
+ * constructors. Bots come from the botIntelligence package on the class
+ * path and from jars in the bots directory (system property
+ * chess.bots.dir, default "bots"). A jar declares its bots through
+ * META-INF/services/chessModel.Player or by putting them in its own
+ * botIntelligence package; each jar gets one class loader for its lifetime.
+ */
+public final class BotRegistry {
+
+    public static final String BOT_PACKAGE = "botIntelligence";
+
+    private static volatile BotRegistry defaultRegistry;
+
+    // simple name -> constructor, in discovery order
+    private final Map<String, Constructor<? extends Player>> bots = new ConcurrentHashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Constructor<? extends Player>> byClassName = new ConcurrentHashMap<>();
+    private final Map<Path, URLClassLoader> loaders = new ConcurrentHashMap<>();
+
+    private BotRegistry() {
+    }
+
+    /**
+     * The registry for this JVM, discovered on first use.
+     */
+    public static BotRegistry getDefault() {
+        BotRegistry registry = defaultRegistry;
+        if (registry == null) {
+            synchronized (BotRegistry.class) {
+                registry = defaultRegistry;
+                if (registry == null) {
+                    registry = new BotRegistry();
+                    registry.scanClassPath(Thread.currentThread().getContextClassLoader());
+                    registry.scanDirectory(Paths.get(System.getProperty("chess.bots.dir", "bots")));
+                    defaultRegistry = registry;
+                }
+            }
+        }
+        return registry;
+    }
+
+    /**
+     * Names of the bots, in the order they were found.
+     */
+    public synchronized List<String> getBotNames() {
+        return List.copyOf(names);
+    }
+
+    /**
+     * Creates and initialises a bot by simple name, e.g. "GreedyMove".
+     *
+     * @throws IllegalArgumentException if no such bot is registered
+     */
+    public Player create(String name, int side) {
+        Constructor<? extends Player> constructor = bots.get(name);
+        if (constructor == null) {
+            throw new IllegalArgumentException("Unknown bot " + name);
+        }
+        return instantiate(constructor, name, side);
+    }
+
+    /**
+     * Creates a bot from a class name, loading it from a jar or class
+     * directory if it is not registered yet.
+     *
+     * @param location jar or directory to load from; may be null or a path
+     * the class is not in, in which case the class path is used
+     */
+    public Player create(String location, String className, int side) throws ClassNotFoundException {
+        Constructor<? extends Player> constructor = byClassName.get(className);
+        if (constructor == null) {
+            constructor = register(loadClass(location, className));
+            if (constructor == null) {
+                throw new ClassNotFoundException(className + " is not a Player with a public no-arg constructor");
+            }
+        }
+        return instantiate(constructor, className.substring(className.lastIndexOf('.') + 1), side);
+    }
+
+    /**
+     * Loads a class through the cached class loader of a jar or directory,
+     * falling back to the class path.
+     */
+    public Class<?> loadClass(String location, String className) throws ClassNotFoundException {
+        return loaderFor(location).loadClass(className);
+    }
+
+    /**
+     * Adds the bots of a jar, reusing its class loader if it was seen before.
+     */
+    public void addJar(Path jar) {
+        ClassLoader loader = loaderFor(jar.toString());
+        for (ServiceLoader.Provider<Player> provider : ServiceLoader.load(Player.class, loader).stream().toList()) {
+            register(provider.type());
+        }
+        try (JarFile file = new JarFile(jar.toFile())) {
+            scanJar(file, loader);
+        } catch (IOException e) {
+            ErrorLogger.logException(e);
+        }
+    }
+
+    private static Player instantiate(Constructor<? extends Player> constructor, String name, int side) {
+        try {
+            Player player = constructor.newInstance();
+            player.init(name + "-" + (side + 1), side);
+            return player;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create " + name, e);
+        }
+    }
+
+    private ClassLoader loaderFor(String location) {
+        if (location != null) {
+            Path path = Paths.get(location).toAbsolutePath().normalize();
+            if (Files.isDirectory(path) || (Files.isRegularFile(path) && path.toString().endsWith(".jar"))) {
+                return loaders.computeIfAbsent(path, p -> {
+                    try {
+                        return new URLClassLoader(new URL[]{p.toUri().toURL()}, Player.class.getClassLoader());
+                    } catch (IOException e) {
+                        throw new IllegalArgumentException(location, e);
+                    }
+                });
+            }
+        }
+        return Player.class.getClassLoader();
+    }
+
+    private synchronized Constructor<? extends Player> register(Class<?> type) {
+        if (!Player.class.isAssignableFrom(type) || Modifier.isAbstract(type.getModifiers())
+                || !Modifier.isPublic(type.getModifiers()) || type.getEnclosingClass() != null) {
+            return null;
+        }
+        Constructor<? extends Player> constructor;
+        try {
+            constructor = type.asSubclass(Player.class).getConstructor();
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+        Constructor<? extends Player> known = byClassName.putIfAbsent(type.getName(), constructor);
+        if (known != null) {
+            return known;
+        }
+        if (bots.putIfAbsent(type.getSimpleName(), constructor) == null) {
+            names.add(type.getSimpleName());
+        }
+        return constructor;
+    }
+
+    private void scanClassPath(ClassLoader loader) {
+        for (ServiceLoader.Provider<Player> provider : ServiceLoader.load(Player.class, loader).stream().toList()) {
+            register(provider.type());
+        }
+        try {
+            Enumeration<URL> urls = loader.getResources(BOT_PACKAGE);
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                URLConnection connection = url.openConnection();
+                if (connection instanceof JarURLConnection jar) {
+                    scanJar(jar.getJarFile(), loader);
+                } else {
+                    File dir = new File(URLDecoder.decode(url.getFile(), StandardCharsets.UTF_8));
+                    String[] files = dir.list();
+                    if (files != null) {
+                        Arrays.sort(files);
+                        for (String f : files) {
+                            loadCandidate(BOT_PACKAGE + "/" + f, loader);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            ErrorLogger.logException(e);
+        }
+    }
+
+    private void scanJar(JarFile jar, ClassLoader loader) {
+        Enumeration<JarEntry> entries = jar.entries();
+        while (entries.hasMoreElements()) {
+            String entry = entries.nextElement().getName();
+            if (entry.startsWith(BOT_PACKAGE + "/") && entry.indexOf('/', BOT_PACKAGE.length() + 1) < 0) {
+                loadCandidate(entry, loader);
+            }
+        }
+    }
+
+    private void scanDirectory(Path dir) {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> jars = Files.newDirectoryStream(dir, "*.jar")) {
+            for (Path jar : jars) {
+                addJar(jar);
+            }
+        } catch (IOException e) {
+            ErrorLogger.logException(e);
+        }
+    }
+
+    private void loadCandidate(String resource, ClassLoader loader) {
+        if (!resource.endsWith(".class") || resource.contains("$")) {
+            return;
+        }
+        String className = resource.substring(0, resource.length() - ".class".length()).replace('/', '.');
+        try {
+            register(Class.forName(className, false, loader));
+        } catch (ClassNotFoundException | LinkageError e) {
+            ErrorLogger.logException(e);
+        }
+    }
+}
@@ -2,28 +2,29 @@ package util;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.swing.JOptionPane;
 
 import chessModel.Player;
 import chessModel.ErrorLogger;
 
+/**
+ * Class loading helpers kept for callers that work with files; new code
+ * should use {@link BotRegistry}, which these delegate to.
+ */
 public class Instantiator {
 
-    private static URLClassLoader loader;
+    private static final Map<String, File[]> packageContents = new ConcurrentHashMap<>();
 
     public static Class<?> classToObject(String location, String name) throws ClassNotFoundException {
         try {
-            loader = new URLClassLoader(new URL[]{new URL("file://" + location + "/")});
-            return loader.loadClass(name);
+            return BotRegistry.getDefault().loadClass(location, name);
         } catch (ClassNotFoundException e) {
             ErrorLogger.logException(e);
-        } catch (MalformedURLException e) {
-            ErrorLogger.logException(e);
         } catch (NoClassDefFoundError e) {
             ErrorLogger.logException(e);
         }
@@ -31,38 +32,37 @@ public class Instantiator {
     }
 
     public static Player makePlayer(String location, String name, int side) {
-
-        Class<?> AI = null;
         try {
-            AI = Instantiator.classToObject(location, name);
-        } catch (ClassNotFoundException e) {
-            e.printStackTrace();
-        }
-
-        try {
-            Player instantiatedPlayer = (Player) AI.getDeclaredConstructor().newInstance();
-            instantiatedPlayer.init(name.substring(name.indexOf(".") + 1, name.length()) + "-" + (side + 1), side);
-            return instantiatedPlayer;
+            return BotRegistry.getDefault().create(location, name, side);
         } catch (Exception e) {
-            e.printStackTrace();
+            ErrorLogger.logException(e);
         }
 
         JOptionPane.showMessageDialog(null, "Failed to load .class file");
         return null;
     }
 
+    /**
+     * Lists the files of a package directory. The listing is taken once per
+     * package and reused.
+     */
     public static File[] getPackageContent(String packageName) throws IOException {
-        ArrayList<File> list = new ArrayList<File>();
-        Enumeration<URL> urls = Thread.currentThread().getContextClassLoader()
-                .getResources(packageName);
-        while (urls.hasMoreElements()) {
-            URL url = urls.nextElement();
-            File dir = new File(url.getFile());
-            for (File f : dir.listFiles()) {
-                list.add(f);
+        File[] cached = packageContents.get(packageName);
+        if (cached == null) {
+            ArrayList<File> list = new ArrayList<File>();
+            Enumeration<URL> urls = Thread.currentThread().getContextClassLoader()
+                    .getResources(packageName);
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                File dir = new File(url.getFile());
+                for (File f : dir.listFiles()) {
+                    list.add(f);
+                }
             }
+            cached = list.toArray(new File[]{});
+            packageContents.put(packageName, cached);
         }
-        return list.toArray(new File[]{});
+        return cached.clone();
     }
 
 }